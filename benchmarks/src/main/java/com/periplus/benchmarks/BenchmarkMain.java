@@ -0,0 +1,31 @@
+package com.periplus.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs JMH with JSON results written to target/jmh/&lt;timestamp&gt;.json, so
+ * runs can be compared over time. Passing -rf or -rff overrides this.
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf") && !options.contains("-rff")) {
+            File directory = new File("target", "jmh");
+            directory.mkdirs();
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            options.addAll(List.of("-rf", "json", "-rff", new File(directory, stamp + ".json").getPath()));
+        }
+        Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,85 @@
+package com.periplus.benchmarks;
+
+import com.periplus.pages.CartSnapshot;
+import com.periplus.pages.Rupiah;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the cart verification paths of ShoppingCartPage once the rows are
+ * read: building the snapshot, matching rows by name and checking the
+ * subtotal, for synthetic carts of 1 to 500 rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CartSnapshotBenchmark {
+
+    @Param({"1", "10", "50", "100", "500"})
+    public int rows;
+
+    private Map<String, Object> scriptResult;
+    private CartSnapshot snapshot;
+    private String lastProductName;
+
+    @Setup
+    public void setUp() {
+        scriptResult = PageFixtures.cartScriptResult(PageFixtures.syntheticCart(rows));
+        snapshot = CartSnapshot.fromScriptResult(scriptResult);
+        lastProductName = PageFixtures.productName(rows - 1);
+        if (snapshot.getRows().size() != rows || !subTotalMatches(snapshot)) {
+            throw new IllegalStateException("Synthetic cart of " + rows + " rows does not add up: " + snapshot.getRows());
+        }
+    }
+
+    @Benchmark
+    public CartSnapshot buildSnapshot() {
+        return CartSnapshot.fromScriptResult(scriptResult);
+    }
+
+    /** verifyProductInCart / getPrice for the product in the last row. */
+    @Benchmark
+    public Rupiah findLastRowPrice() {
+        return snapshot.findRow(lastProductName).orElseThrow().getUnitPrice();
+    }
+
+    /** Verifying every product of the cart, one verifyProductInCart call each. */
+    @Benchmark
+    public void verifyEveryRow(Blackhole blackhole) {
+        for (int i = 0; i < rows; i++) {
+            CartSnapshot.Row row = snapshot.findRow(PageFixtures.productName(i)).orElseThrow();
+            blackhole.consume(row.getUnitPrice());
+            blackhole.consume(row.getQuantity());
+        }
+    }
+
+    /** verifyTotalPriceInCart against the sum of all rows. */
+    @Benchmark
+    public boolean verifyTotal() {
+        return subTotalMatches(snapshot);
+    }
+
+    private static boolean subTotalMatches(CartSnapshot cart) {
+        Rupiah expected = Rupiah.ZERO;
+        for (CartSnapshot.Row row : cart.getRows()) {
+            expected = expected.plus(row.getUnitPrice().times(row.getQuantity()));
+        }
+        return expected.equals(cart.getSubTotal());
+    }
+}
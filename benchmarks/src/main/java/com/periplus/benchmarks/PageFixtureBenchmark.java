@@ -0,0 +1,64 @@
+package com.periplus.benchmarks;
+
+import com.periplus.pages.CartSnapshot;
+import com.periplus.pages.Rupiah;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.jsoup.nodes.Document;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page-object parsing against the recorded cart and product fixtures, which
+ * mix plain, dual ("or") and discounted prices. The fixture is also read from
+ * the parsed DOM each time, approximating a full capture without a browser.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageFixtureBenchmark {
+
+    private Document cartPage;
+    private Map<String, Object> cartScriptResult;
+    private String productPriceText;
+
+    @Setup
+    public void setUp() {
+        cartPage = PageFixtures.load("cart.html");
+        cartScriptResult = PageFixtures.cartScriptResult(cartPage);
+        productPriceText = PageFixtures.productPriceText(PageFixtures.load("product.html"));
+        if (!Rupiah.of(180_000).equals(Rupiah.parse(productPriceText))) {
+            throw new IllegalStateException("Unexpected product fixture price: " + productPriceText);
+        }
+    }
+
+    /** ProductDetailPage.getProductPrice once the text is read. */
+    @Benchmark
+    public Rupiah productPrice() {
+        return Rupiah.parse(productPriceText);
+    }
+
+    /** ShoppingCartPage.getPrice for the discounted row of the recorded cart. */
+    @Benchmark
+    public Rupiah cartRowPrice() {
+        return CartSnapshot.fromScriptResult(cartScriptResult).findRow("Atomic Habits").orElseThrow().getUnitPrice();
+    }
+
+    /** Extracting the rows from the DOM plus building the snapshot. */
+    @Benchmark
+    public CartSnapshot captureFromDom() {
+        return CartSnapshot.fromScriptResult(PageFixtures.cartScriptResult(cartPage));
+    }
+}
@@ -0,0 +1,103 @@
+package com.periplus.benchmarks;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Recorded page fixtures and synthetic carts, turned into the same values the
+ * page objects read from the browser so their parsing runs without one.
+ */
+final class PageFixtures {
+    // CSS equivalents of the ShoppingCartPage and ProductDetailPage XPaths
+    private static final String CART_ROW = "div[class=row row-cart-product]";
+    private static final String PRODUCT_NAME = "p.product-name";
+    private static final String PRODUCT_PRICE = "div.col-lg-10.col-9 div[class=row]:contains(Rp )";
+    private static final String PRODUCT_QUANTITY = "input.input-number[type=text]";
+    private static final String CART_TOTAL = "span#sub_total";
+    private static final String QUICKVIEW_PRICE = "div[class=quickview-price]";
+
+    private static final String[] PRICE_FORMATS = {
+            "Rp %,d", "Rp %,d or Rp %,d with Periplus Card", "<span class=\"strike\">Rp %,d</span>Rp %,d (10%% off)"};
+
+    private PageFixtures() {
+    }
+
+    static Document load(String name) {
+        try (InputStream in = PageFixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Missing fixture " + name);
+            }
+            return Jsoup.parse(in, StandardCharsets.UTF_8.name(), "");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns what the cart snapshot script would return for the document.
+     */
+    static Map<String, Object> cartScriptResult(Document document) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Element item : document.select(CART_ROW)) {
+            Element name = item.selectFirst(PRODUCT_NAME);
+            Element price = item.selectFirst(PRODUCT_PRICE);
+            Element quantity = item.selectFirst(PRODUCT_QUANTITY);
+            Map<String, Object> row = new HashMap<>();
+            row.put("name", name == null ? "" : name.text());
+            row.put("price", price == null ? "" : price.text());
+            row.put("quantity", quantity == null ? "" : quantity.val());
+            rows.add(row);
+        }
+        Element total = document.selectFirst(CART_TOTAL);
+        Map<String, Object> result = new HashMap<>();
+        result.put("rows", rows);
+        result.put("subTotal", total == null ? null : total.text());
+        return result;
+    }
+
+    static String productPriceText(Document document) {
+        return document.selectFirst(QUICKVIEW_PRICE).text();
+    }
+
+    /**
+     * Builds a cart page with the given number of rows from the recorded row
+     * markup, cycling through plain, dual and discounted prices.
+     */
+    static Document syntheticCart(int rowCount) {
+        Document document = load("cart.html");
+        Element template = document.selectFirst(CART_ROW);
+        document.select(CART_ROW).remove();
+        Element container = document.selectFirst("div.cart");
+        long subTotal = 0;
+        for (int i = 0; i < rowCount; i++) {
+            long price = 50_000 + (i * 7_919L) % 950_000 / 1_000 * 1_000;
+            int quantity = 1 + i % 3;
+            Element row = template.clone();
+            row.selectFirst(PRODUCT_NAME).text(productName(i));
+            String format = PRICE_FORMATS[i % PRICE_FORMATS.length];
+            long shown = i % 3 == 2 ? price + 20_000 : price;
+            long alternative = i % 3 == 2 ? price : price - 5_000;
+            row.selectFirst(PRODUCT_PRICE).html(String.format(Locale.US, format, shown, alternative));
+            row.selectFirst(PRODUCT_QUANTITY).val(Integer.toString(quantity));
+            container.insertChildren(i + 1, row);
+            subTotal += price * quantity;
+        }
+        document.selectFirst(CART_TOTAL).text(String.format(Locale.US, "Rp %,d", subTotal));
+        return document;
+    }
+
+    static String productName(int index) {
+        return "Synthetic Title " + index + " - A Novel";
+    }
+}
@@ -0,0 +1,70 @@
+package com.periplus.benchmarks;
+
+import com.periplus.pages.Rupiah;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link Rupiah} parsing and formatting, next to the
+ * substring/replace parsing and per-call NumberFormat it replaced.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RupiahBenchmark {
+
+    @Param({"Rp 180,000", "Rp 305,000 or Rp 274,500 with Periplus Card", "Rp 1,250,000Rp 999,000 (20% off)"})
+    public String priceText;
+
+    private long amount;
+
+    @Setup
+    public void setUp() {
+        amount = Rupiah.parseAmount(priceText);
+    }
+
+    @Benchmark
+    public long parseAmount() {
+        return Rupiah.parseAmount(priceText);
+    }
+
+    @Benchmark
+    public Rupiah parse() {
+        return Rupiah.parse(priceText);
+    }
+
+    @Benchmark
+    // The old page-object parsing, plus a split so discounted texts still yield a number
+    public long legacyParse() {
+        return Long.parseLong(priceText.split(" or ")[0].trim().substring(3).replace(",", "").split("Rp")[0].trim());
+    }
+
+    @Benchmark
+    public String format() {
+        return Rupiah.format(amount);
+    }
+
+    @Benchmark
+    public String legacyFormat() {
+        NumberFormat formatter = NumberFormat.getNumberInstance(Locale.US);
+        formatter.setMinimumFractionDigits(0);
+        formatter.setMaximumFractionDigits(0);
+        return "Rp " + formatter.format(amount);
+    }
+}
@@ -0,0 +1,247 @@
+package com.periplus.api;
+
+import com.periplus.pages.PeriplusUrls;
+import com.periplus.pages.Rupiah;
+import com.periplus.support.EventLog;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.HttpCookie;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP client for the shop's form and cart endpoints, for setting up state
+ * without driving the UI. Its cookie jar can be copied from and to a
+ * WebDriver session, so a browser and the client act as the same logged-in
+ * visitor with the same cart. Every call resolves against {@link PeriplusUrls}.
+ */
+public class PeriplusApiClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final Pattern PRODUCT_LINK = Pattern.compile(
+            "<a\\b[^>]*href=\"([^\"]*/p/([^/\"?#]+)[^\"]*)\"[^>]*>(.*?)</a>", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern SUCCESS = Pattern.compile("\"success\"\\s*:\\s*true");
+    private static final EventLog events = EventLog.forClass(PeriplusApiClient.class);
+
+    private final CookieManager cookies = new CookieManager();
+    private final HttpClient client = HttpClient.newBuilder()
+            .cookieHandler(cookies)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(TIMEOUT)
+            .build();
+
+    /**
+     * Creates a client that starts with the browser's cookies, i.e. as the
+     * visitor (and logged-in account) of that browser.
+     */
+    public static PeriplusApiClient sharingCookiesWith(WebDriver driver) {
+        PeriplusApiClient client = new PeriplusApiClient();
+        client.importCookies(driver);
+        return client;
+    }
+
+    /**
+     * Logs in through the login form endpoint.
+     * @return Whether the shop accepted the credentials, i.e. the page it
+     *         redirected to shows a logout link.
+     */
+    public boolean logIn(String email, String password) {
+        fetch("account/Login");
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("email", email);
+        form.put("password", password);
+        boolean loggedIn = send(post("account/Login", form)).body().contains("Logout");
+        events.info("logIn", () -> "Logged in as " + email + (loggedIn ? "." : " was rejected."));
+        return loggedIn;
+    }
+
+    /**
+     * Returns the products of the search result grid in the order shown.
+     */
+    public List<SearchResult> search(String query) {
+        String page = fetch("product/Search?filter_name=" + encode(query));
+        Matcher link = PRODUCT_LINK.matcher(page);
+        link.region(Math.max(page.indexOf("row-category-grid"), 0), page.length());
+        List<String[]> links = new ArrayList<>();
+        List<int[]> spans = new ArrayList<>();
+        while (link.find()) {
+            links.add(new String[]{link.group(2), absolute(link.group(1)), text(link.group(3))});
+            spans.add(new int[]{link.start(), link.end()});
+        }
+        // The grid links image and title of a product separately; merge them into one entry per product
+        Map<String, SearchResult> results = new LinkedHashMap<>();
+        for (int i = 0; i < links.size(); i++) {
+            String[] found = links.get(i);
+            // A product's price sits between its link and the next one
+            int priceEnd = i + 1 < spans.size() ? spans.get(i + 1)[0] : page.length();
+            long amount = Rupiah.parseAmount(text(page.substring(spans.get(i)[1], priceEnd)));
+            SearchResult known = results.get(found[0]);
+            results.put(found[0], new SearchResult(found[0],
+                    known != null ? known.getUrl() : found[1],
+                    known != null && !known.getName().isEmpty() ? known.getName() : found[2],
+                    known != null && known.getPrice() != null ? known.getPrice()
+                            : amount == Rupiah.NO_AMOUNT ? null : Rupiah.of(amount)));
+        }
+        events.info("search", () -> "Search for '" + query + "' returned " + results.size() + " product(s).");
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * Adds a product to the cart.
+     * @throws PeriplusApiException When the shop does not answer with a JSON
+     *         "success": true, e.g. because the endpoint redirected to a page.
+     */
+    public void addToCart(String productId, int quantity) {
+        cartCall("cart/add", productId, quantity);
+    }
+
+    /**
+     * Sets the quantity of a product already in the cart; 0 removes it.
+     */
+    public void updateCartQuantity(String productId, int quantity) {
+        cartCall("cart/update", productId, quantity);
+    }
+
+    public void removeFromCart(String productId) {
+        cartCall("cart/remove", productId, null);
+    }
+
+    /**
+     * Fetches a page of the shop and returns its HTML.
+     * @param pathOrUrl A site path such as "checkout/cart", or an absolute URL.
+     */
+    public String fetch(String pathOrUrl) {
+        return send(HttpRequest.newBuilder(uri(pathOrUrl)).GET()).body();
+    }
+
+    /**
+     * Replaces the client's cookies for the shop with those of the browser.
+     */
+    public void importCookies(WebDriver driver) {
+        URI site = URI.create(PeriplusUrls.baseUrl());
+        cookies.getCookieStore().removeAll();
+        long now = System.currentTimeMillis();
+        for (Cookie cookie : driver.manage().getCookies()) {
+            HttpCookie copy = new HttpCookie(cookie.getName(), cookie.getValue());
+            // Cookies without a leading dot are host-only; the store keeps those by URI
+            if (cookie.getDomain() != null && cookie.getDomain().startsWith(".")) {
+                copy.setDomain(cookie.getDomain());
+            }
+            copy.setPath(cookie.getPath() == null ? "/" : cookie.getPath());
+            copy.setSecure(cookie.isSecure());
+            copy.setHttpOnly(cookie.isHttpOnly());
+            copy.setVersion(0);
+            if (cookie.getExpiry() != null) {
+                copy.setMaxAge(Math.max(0, (cookie.getExpiry().getTime() - now) / 1000));
+            }
+            cookies.getCookieStore().add(site, copy);
+        }
+    }
+
+    /**
+     * Copies the client's cookies for the shop into the browser, e.g. after
+     * {@link #logIn(String, String)}, so the browser continues the session.
+     * The browser is first moved onto the site if it is elsewhere, since
+     * cookies can only be set for the current domain.
+     */
+    public void exportCookies(WebDriver driver) {
+        String currentUrl = driver.getCurrentUrl();
+        if (currentUrl == null || !currentUrl.startsWith(PeriplusUrls.baseUrl())) {
+            driver.get(PeriplusUrls.url("robots.txt"));
+        }
+        long now = System.currentTimeMillis();
+        for (HttpCookie cookie : cookies.getCookieStore().get(URI.create(PeriplusUrls.baseUrl()))) {
+            Cookie.Builder copy = new Cookie.Builder(cookie.getName(), cookie.getValue())
+                    .path(cookie.getPath() == null ? "/" : cookie.getPath())
+                    .isSecure(cookie.getSecure())
+                    .isHttpOnly(cookie.isHttpOnly());
+            if (cookie.getDomain() != null) {
+                copy.domain(cookie.getDomain());
+            }
+            if (cookie.getMaxAge() >= 0) {
+                copy.expiresOn(new Date(now + cookie.getMaxAge() * 1000));
+            }
+            driver.manage().addCookie(copy.build());
+        }
+    }
+
+    private void cartCall(String path, String productId, Integer quantity) {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("product_id", productId);
+        if (quantity != null) {
+            form.put("quantity", Integer.toString(quantity));
+        }
+        HttpResponse<String> response = send(post(path, form));
+        String contentType = response.headers().firstValue("Content-Type").orElse("");
+        String body = response.body();
+        // Anything but a confirmation fails, so a login page or an unknown route is not taken for success
+        if (!contentType.contains("json") || !SUCCESS.matcher(body).find()) {
+            throw new PeriplusApiException(path + " did not confirm product " + productId + " (" + response.statusCode()
+                    + " " + contentType + "): " + abbreviate(body));
+        }
+        events.info("cartCall", () -> path + " for product " + productId + (quantity == null ? "" : " x" + quantity) + " done.");
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) {
+        HttpRequest built = request.timeout(TIMEOUT).build();
+        HttpResponse<String> response;
+        try {
+            response = client.send(built, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new PeriplusApiException(built.method() + " " + built.uri() + " failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PeriplusApiException(built.method() + " " + built.uri() + " was interrupted.", e);
+        }
+        if (response.statusCode() >= 400) {
+            throw new PeriplusApiException(built.method() + " " + response.uri() + " returned " + response.statusCode() + ".");
+        }
+        return response;
+    }
+
+    private static HttpRequest.Builder post(String path, Map<String, String> form) {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((key, value) -> body.add(encode(key) + "=" + encode(value)));
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+    }
+
+    private static String abbreviate(String body) {
+        String flat = body.replaceAll("\\s+", " ").trim();
+        return flat.length() <= 200 ? flat : flat.substring(0, 200) + "...";
+    }
+
+    private static String text(String html) {
+        return TAG.matcher(html).replaceAll(" ").replace("&quot;", "\"").replace("&#39;", "'")
+                .replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&").replaceAll("\\s+", " ").trim();
+    }
+
+    private static URI uri(String pathOrUrl) {
+        return URI.create(absolute(pathOrUrl));
+    }
+
+    private static String absolute(String pathOrUrl) {
+        return pathOrUrl.startsWith("http://") || pathOrUrl.startsWith("https://") ? pathOrUrl : PeriplusUrls.url(pathOrUrl);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,15 @@
+package com.periplus.api;
+
+/**
+ * Thrown when the shop answers an API call with an error status or with a
+ * response the client does not understand, or cannot be reached at all.
+ */
+public class PeriplusApiException extends RuntimeException {
+    public PeriplusApiException(String message) {
+        super(message);
+    }
+
+    public PeriplusApiException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
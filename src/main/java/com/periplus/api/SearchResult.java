@@ -0,0 +1,44 @@
+package com.periplus.api;
+
+import com.periplus.pages.Rupiah;
+
+/**
+ * A product in the search result grid, as the product page link shows it.
+ */
+public final class SearchResult {
+    private final String productId;
+    private final String url;
+    private final String name;
+    private final Rupiah price;
+
+    SearchResult(String productId, String url, String name, Rupiah price) {
+        this.productId = productId;
+        this.url = url;
+        this.name = name;
+        this.price = price;
+    }
+
+    /** The id in the product URL (/p/&lt;id&gt;/&lt;slug&gt;), which the cart endpoints take. */
+    public String getProductId() {
+        return productId;
+    }
+
+    /** Absolute URL of the product detail page. */
+    public String getUrl() {
+        return url;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** The price shown in the grid, or null when the grid shows none. */
+    public Rupiah getPrice() {
+        return price;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + productId + ", " + price + ")";
+    }
+}
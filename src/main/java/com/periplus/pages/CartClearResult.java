@@ -0,0 +1,49 @@
+package com.periplus.pages;
+
+/**
+ * Outcome of {@link ShoppingCartPage#removeAllProductFromCart()}: how many
+ * rows were removed and left behind, how many rounds it took and how long
+ * the cleanup ran.
+ */
+public class CartClearResult {
+    private final int removedItems;
+    private final int remainingItems;
+    private final int attempts;
+    private final long durationMillis;
+
+    public CartClearResult(int removedItems, int remainingItems, int attempts, long durationMillis) {
+        this.removedItems = removedItems;
+        this.remainingItems = remainingItems;
+        this.attempts = attempts;
+        this.durationMillis = durationMillis;
+    }
+
+    public int getRemovedItems() {
+        return removedItems;
+    }
+
+    /**
+     * Returns how many rows were still in the cart when clearing gave up; 0 when it is empty.
+     */
+    public int getRemainingItems() {
+        return remainingItems;
+    }
+
+    public boolean isCartEmpty() {
+        return remainingItems == 0;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "removed " + removedItems + " item(s)" + (remainingItems == 0 ? "" : ", " + remainingItems + " left,")
+                + " in " + durationMillis + " ms over " + attempts + " attempt(s)";
+    }
+}
@@ -0,0 +1,140 @@
+package com.periplus.pages;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Maps product names to the element handles of their cart rows. The index is
+ * built with one script call per cart render instead of re-querying the rows
+ * for every lookup. It is dropped by {@link #invalidate()} after the cart
+ * changes and rebuilt when a handle turns out to be stale before use.
+ */
+public class CartRowIndex {
+    // Returns one entry per row: its name text and the row, quantity input and remove link elements
+    private static final String INDEX_SCRIPT =
+            "var first = function (xpath, context) {"
+            + "  return document.evaluate(xpath, context, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue; };"
+            + "var items = document.evaluate(arguments[0], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "var rows = [];"
+            + "for (var i = 0; i < items.snapshotLength; i++) {"
+            + "  var item = items.snapshotItem(i), name = first(arguments[1], item);"
+            + "  rows.push({ name: name ? name.innerText.trim() : '', row: item,"
+            + "              quantity: first(arguments[2], item), remove: first(arguments[3], item) });"
+            + "}"
+            + "return rows;";
+
+    private final WebDriver driver;
+    private final String rowXPath;
+    private final String nameXPath;
+    private final String quantityXPath;
+    private final String removeXPath;
+    private Map<String, Row> rows;
+
+    public CartRowIndex(WebDriver driver, String rowXPath, String nameXPath, String quantityXPath, String removeXPath) {
+        this.driver = driver;
+        this.rowXPath = rowXPath;
+        this.nameXPath = nameXPath;
+        this.quantityXPath = quantityXPath;
+        this.removeXPath = removeXPath;
+    }
+
+    /**
+     * Runs the action on the first row whose name contains the product name.
+     * A row from an earlier index is checked first and the index rebuilt when
+     * its handles are stale; the action itself runs once and is not retried,
+     * since it may already have removed or updated the row when it fails.
+     * @throws RuntimeException When no row matches.
+     */
+    public <T> T withRow(String productName, Function<Row, T> action) {
+        return action.apply(lookUp(productName));
+    }
+
+    /**
+     * Drops the index; call after anything that re-renders or changes the cart.
+     */
+    public void invalidate() {
+        rows = null;
+    }
+
+    // Only the lookup is retried: a freshly built index needs no check, an older one costs one call
+    private Row lookUp(String productName) {
+        boolean fresh = rows == null;
+        Row row = require(productName);
+        if (!fresh) {
+            try {
+                row.getElement().getTagName();
+            } catch (StaleElementReferenceException e) {
+                invalidate();
+                row = require(productName);
+            }
+        }
+        return row;
+    }
+
+    private Row require(String productName) {
+        Map<String, Row> index = rows();
+        Row row = index.get(productName);
+        if (row == null) {
+            for (Map.Entry<String, Row> entry : index.entrySet()) {
+                if (entry.getKey().contains(productName)) {
+                    return entry.getValue();
+                }
+            }
+            throw new RuntimeException("Product '" + productName + "' not found in cart.");
+        }
+        return row;
+    }
+
+    private Map<String, Row> rows() {
+        if (rows == null) {
+            List<?> result = (List<?>) ((JavascriptExecutor) driver).executeScript(INDEX_SCRIPT,
+                    rowXPath, nameXPath, quantityXPath, removeXPath);
+            Map<String, Row> index = new LinkedHashMap<>();
+            for (Object entry : result) {
+                Map<?, ?> row = (Map<?, ?>) entry;
+                String name = String.valueOf(row.get("name"));
+                index.putIfAbsent(name, new Row(name, (WebElement) row.get("row"),
+                        (WebElement) row.get("quantity"), (WebElement) row.get("remove")));
+            }
+            rows = index;
+        }
+        return rows;
+    }
+
+    public static class Row {
+        private final String name;
+        private final WebElement element;
+        private final WebElement quantityInput;
+        private final WebElement removeButton;
+
+        Row(String name, WebElement element, WebElement quantityInput, WebElement removeButton) {
+            this.name = name;
+            this.element = element;
+            this.quantityInput = quantityInput;
+            this.removeButton = removeButton;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public WebElement getElement() {
+            return element;
+        }
+
+        public WebElement getQuantityInput() {
+            return quantityInput;
+        }
+
+        public WebElement getRemoveButton() {
+            return removeButton;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.periplus.pages;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Immutable copy of the shopping cart as rendered: every row's name, unit
+ * price and quantity plus the subtotal text. It is read from the page with a
+ * single script call, so checking many products costs one round-trip.
+ */
+public class CartSnapshot {
+    private final List<Row> rows;
+    private final String subTotalText;
+
+    public CartSnapshot(List<Row> rows, String subTotalText) {
+        this.rows = Collections.unmodifiableList(new ArrayList<>(rows));
+        this.subTotalText = subTotalText;
+    }
+
+    /**
+     * Builds a snapshot from the value returned by the capture script: a map
+     * with a "rows" list of {name, price, quantity} maps and a "subTotal" text.
+     */
+    public static CartSnapshot fromScriptResult(Object result) {
+        if (!(result instanceof Map)) {
+            throw new IllegalArgumentException("Unexpected cart snapshot result: " + result);
+        }
+        Map<?, ?> map = (Map<?, ?>) result;
+        List<Row> rows = new ArrayList<>();
+        Object rawRows = map.get("rows");
+        if (rawRows instanceof List) {
+            for (Object rawRow : (List<?>) rawRows) {
+                Map<?, ?> row = (Map<?, ?>) rawRow;
+                rows.add(new Row(text(row.get("name")), text(row.get("price")), parseQuantity(text(row.get("quantity")))));
+            }
+        }
+        Object subTotal = map.get("subTotal");
+        return new CartSnapshot(rows, subTotal == null ? null : text(subTotal));
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+
+    public boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    /**
+     * Returns the subtotal text (e.g. "Rp 540,000"), or null when the page has none.
+     */
+    public String getSubTotalText() {
+        return subTotalText;
+    }
+
+    /**
+     * Returns the subtotal amount, or null when the page has none.
+     */
+    public Rupiah getSubTotal() {
+        return subTotalText == null ? null : Rupiah.parse(subTotalText);
+    }
+
+    /**
+     * Returns the first row whose product name contains the given name.
+     */
+    public Optional<Row> findRow(String productName) {
+        for (Row row : rows) {
+            if (row.getName().contains(productName)) {
+                return Optional.of(row);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String text(Object value) {
+        return value == null ? "" : value.toString().trim();
+    }
+
+    private static int parseQuantity(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public static class Row {
+        private final String name;
+        private final String priceText;
+        private final int quantity;
+
+        public Row(String name, String priceText, int quantity) {
+            this.name = name;
+            this.priceText = priceText;
+            this.quantity = quantity;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the price as displayed, which may offer alternatives ("Rp 180,000 or ...").
+         */
+        public String getPriceText() {
+            return priceText;
+        }
+
+        /**
+         * Returns the first displayed price, e.g. "Rp 180,000".
+         */
+        public String getUnitPriceText() {
+            return priceText.split(" or ")[0].trim();
+        }
+
+        /**
+         * Returns the unit price; see {@link Rupiah#parseAmount(CharSequence)} for dual and discounted prices.
+         */
+        public Rupiah getUnitPrice() {
+            return Rupiah.parse(priceText);
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public String toString() {
+            return name + " x" + quantity + " @ " + getUnitPriceText();
+        }
+    }
+}
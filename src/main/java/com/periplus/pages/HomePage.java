@@ -1,22 +1,25 @@
 package com.periplus.pages;
 
+import com.periplus.support.EventLog;
+import com.periplus.support.Locators;
+import com.periplus.support.PageTimings;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.JavascriptExecutor;
-import java.util.logging.Logger;
 
 public class HomePage {
     private final WebDriver driver;
     private final WebDriverWait wait;
-    private static final Logger logger = Logger.getLogger(HomePage.class.getName());
+    private static final EventLog events = EventLog.forClass(HomePage.class);
 
     // Element Locators
-    private final By searchBox = By.xpath("//input[@name='filter_name']");
-    private final By searchButton = By.xpath("//button[@type='submit' and contains(@class,'btnn')]");
-    private final By productGridDiv = By.xpath("//div[@class='row row-category-grid']");
+    private final By searchBox = Locators.xpath("HomePage.searchBox", "//input[@name='filter_name']");
+    private final By searchButton = Locators.xpath("HomePage.searchButton", "//button[@type='submit' and contains(@class,'btnn')]");
+    private final By productGridDiv = Locators.xpath("HomePage.productGridDiv", "//div[@class='row row-category-grid']");
+    private final By logoutLink = Locators.xpath("HomePage.logoutLink", "//a[contains(@href,'Logout')]");
 
     public HomePage(WebDriver driver, WebDriverWait wait) {
         this.driver = driver;
@@ -24,26 +27,34 @@ public class HomePage {
     }
 
     public void navigateToHomePage() {
-        driver.get("https://www.periplus.com/");
+        driver.get(PeriplusUrls.url("/"));
         wait.until(ExpectedConditions.titleContains("Periplus"));
-        logger.info("Navigated to Homepage.");
+        events.info("navigateToHomePage", "Navigated to Homepage.");
+        PageTimings.capture(driver, "home");
     }
 
     public void searchForProduct(String productName) {
         WebElement searchBoxElement = wait.until(ExpectedConditions.visibilityOfElementLocated(searchBox));
         searchBoxElement.clear();
         searchBoxElement.sendKeys(productName);
-        logger.info("Search term '" + productName + "' entered.");
+        events.info("searchForProduct", () -> "Search term '" + productName + "' entered.");
 
         WebElement searchBtnElement = wait.until(ExpectedConditions.elementToBeClickable(searchButton));
         ((JavascriptExecutor) driver).executeScript("arguments[0].click();", searchBtnElement);
-        logger.info("Search button clicked.");
+        events.info("searchForProduct", "Search button clicked.");
 
         wait.until(ExpectedConditions.visibilityOfElementLocated(productGridDiv));
-        logger.info("Product grid container found after search.");
+        events.info("searchForProduct", "Product grid container found after search.");
+        PageTimings.capture(driver, "search");
+    }
+
+    public boolean isLoggedIn() {
+        boolean loggedIn = !driver.findElements(logoutLink).isEmpty();
+        events.info("isLoggedIn", () -> "User is " + (loggedIn ? "" : "not ") + "logged in.");
+        return loggedIn;
     }
 
     public void logout() {
-        driver.get("https://www.periplus.com/_index_/Logout");
+        driver.get(PeriplusUrls.url("_index_/Logout"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.periplus.pages;
+
+/**
+ * Base URL of the shop the page objects talk to. Defaults to the live site and
+ * can be pointed elsewhere (e.g. a local stand-in) with -Dperiplus.baseUrl or
+ * {@link #setBaseUrl(String)}.
+ */
+public final class PeriplusUrls {
+    public static final String LIVE_BASE_URL = "https://www.periplus.com";
+
+    private static volatile String baseUrl = normalize(System.getProperty("periplus.baseUrl", LIVE_BASE_URL));
+
+    private PeriplusUrls() {
+    }
+
+    public static String baseUrl() {
+        return baseUrl;
+    }
+
+    public static void setBaseUrl(String url) {
+        baseUrl = normalize(url);
+    }
+
+    /**
+     * Resolves a site path such as "checkout/cart" against the base URL.
+     */
+    public static String url(String path) {
+        return baseUrl + "/" + (path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    private static String normalize(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
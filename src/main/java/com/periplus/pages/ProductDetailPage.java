@@ -1,71 +1,89 @@
 package com.periplus.pages;
 
+import com.periplus.support.DomWaits;
+import com.periplus.support.EventLog;
+import com.periplus.support.Locators;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.logging.Logger;
 
 public class ProductDetailPage {
     private WebDriver driver;
     private WebDriverWait wait;
-    private static final Logger logger = Logger.getLogger(ProductDetailPage.class.getName());
+    private final DomWaits domWaits;
+    private static final EventLog events = EventLog.forClass(ProductDetailPage.class);
 
     // Element Locators
-    private final By productLinkInGrid = By.xpath(".//a[contains(@href,'/p/')]");
-    private final By addToCartButton = By.xpath("//button[contains(text(),'Add to Cart') or contains(text(),'Add To Cart') or contains(@class,'btn-add-to-cart')]");
-    private final By quantityInput = By.xpath("//input[contains(@class,'input-number') and contains(@class,'textareaa-product') and @type='text']");
-    private final By productPrice = By.xpath("//div[@class='quickview-price']");
+    private final By productLinkInGrid = Locators.xpath("ProductDetailPage.productLinkInGrid", ".//a[contains(@href,'/p/')]");
+    private final By addToCartButton = Locators.xpath("ProductDetailPage.addToCartButton", "//button[contains(text(),'Add to Cart') or contains(text(),'Add To Cart') or contains(@class,'btn-add-to-cart')]");
+    private final By quantityInput = Locators.xpath("ProductDetailPage.quantityInput", "//input[contains(@class,'input-number') and contains(@class,'textareaa-product') and @type='text']");
+    private final By productPrice = Locators.xpath("ProductDetailPage.productPrice", "//div[@class='quickview-price']");
+    private final By gridProductLinks = Locators.xpath("ProductDetailPage.gridProductLinks", "//div[@class='row row-category-grid']//a[contains(@href,'/p/')]");
 
     public ProductDetailPage(WebDriver driver, WebDriverWait wait) {
         this.driver = driver;
         this.wait = wait;
+        this.domWaits = new DomWaits(driver, Duration.ofSeconds(5), "ProductDetailPage");
     }
 
     public void setQuantity(int quantity) {
         try {
             WebElement quantityElement = wait.until(ExpectedConditions.visibilityOfElementLocated(quantityInput));
             ((JavascriptExecutor) driver).executeScript("arguments[0].value = arguments[1];", quantityElement, String.valueOf(quantity));
-            logger.info("Set product quantity to: " + quantity + " using JavaScript.");
+            events.info("setQuantity", () -> "Set product quantity to: " + quantity + " using JavaScript.");
 
             quantityElement.sendKeys(Keys.ENTER);
-            logger.info("Pressed ENTER to trigger quantity change.");
+            events.info("setQuantity", "Pressed ENTER to trigger quantity change.");
 
             ((JavascriptExecutor) driver).executeScript("arguments[0].dispatchEvent(new Event('change'));", quantityElement);
-            logger.info("Dispatched 'change' event for quantity input.");
+            events.info("setQuantity", "Dispatched 'change' event for quantity input.");
 
         } catch (Exception e) {
-            logger.log(java.util.logging.Level.SEVERE, "Failed to set product quantity to " + quantity + ": " + e.getMessage(), e);
+            events.severe("setQuantity", "Failed to set product quantity to " + quantity + ": " + e.getMessage(), e);
             throw new RuntimeException("Failed to set product quantity.", e);
         }
     }
 
     public void clickAddToCartButton() {
         WebElement addToCartBtn = wait.until(ExpectedConditions.elementToBeClickable(addToCartButton));
-        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", addToCartBtn);
-        logger.info("Add to Cart button clicked.");
-        // Anda bisa menambahkan wait untuk konfirmasi penambahan ke keranjang, misal pop-up notifikasi
-        wait.withTimeout(Duration.ofSeconds(5)).until(ExpectedConditions.invisibilityOfElementLocated(By.cssSelector(".loading-overlay")));
+        domWaits.click(addToCartBtn);
+        events.info("clickAddToCartButton", "Add to Cart button clicked.");
+        // Wait for the add-to-cart request to settle and the loading overlay to disappear
+        domWaits.untilNetworkIdle(Duration.ofMillis(100));
+        domWaits.untilGone(".loading-overlay");
     }
 
-    public String getProductPrice() {
+    public Rupiah getProductPrice() {
         WebElement priceElement = wait.until(ExpectedConditions.visibilityOfElementLocated(productPrice));
-        logger.info("Getting product price from cart.");
-        return priceElement.getText().substring(3).replace(",", "");
+        events.info("getProductPrice", "Getting product price from cart.");
+        return Rupiah.parse(priceElement.getText());
+    }
+
+    /**
+     * Opens a product detail page directly, e.g. from a previously resolved URL.
+     * @return Whether the page is still a product page (price and add-to-cart
+     *         button present), as opposed to an error or redirect page.
+     */
+    public boolean openProductPage(String url) {
+        driver.get(url);
+        boolean found = !driver.findElements(productPrice).isEmpty() && !driver.findElements(addToCartButton).isEmpty();
+        events.info("openProductPage", () -> (found ? "Opened product page " : "No product page at ") + url + ".");
+        return found;
     }
 
     public void clickFirstProduct() {
-        List<WebElement> productLinks = driver.findElements(By.xpath("//div[@class='row row-category-grid']//a[contains(@href,'/p/')]"));
+        List<WebElement> productLinks = driver.findElements(gridProductLinks);
         if (productLinks.isEmpty()) {
             throw new IllegalStateException("No products found in the grid to add to cart.");
         }
         WebElement firstProductLink = productLinks.get(0);
         String productHref = firstProductLink.getAttribute("href");
-        logger.info("Product found: " + productHref + ". Clicking on it.");
+        events.info("clickFirstProduct", () -> "Product found: " + productHref + ". Clicking on it.");
 
         ((JavascriptExecutor) driver).executeScript("arguments[0].click();", firstProductLink);
-        logger.info("Navigated to product detail page.");
+        events.info("clickFirstProduct", "Navigated to product detail page.");
     }
 }
\ No newline at end of file
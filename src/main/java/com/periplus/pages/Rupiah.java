@@ -0,0 +1,206 @@
+package com.periplus.pages;
+
+/**
+ * Immutable amount of Indonesian rupiah, as shown on the shop ("Rp 180,000").
+ * Arithmetic is done on a long and fails on overflow instead of wrapping.
+ */
+public final class Rupiah implements Comparable<Rupiah> {
+    public static final Rupiah ZERO = new Rupiah(0);
+
+    /** Returned by {@link #parseAmount(CharSequence)} when the text holds no amount. */
+    public static final long NO_AMOUNT = -1;
+
+    private static final String PREFIX = "Rp ";
+
+    private final long amount;
+    // Formatted text, computed on first use; racy initialisation is safe for an immutable String
+    private String formatted;
+
+    private Rupiah(long amount) {
+        this.amount = amount;
+    }
+
+    public static Rupiah of(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must not be negative: " + amount);
+        }
+        return amount == 0 ? ZERO : new Rupiah(amount);
+    }
+
+    /**
+     * Parses a displayed price, see {@link #parseAmount(CharSequence)}.
+     * @throws IllegalArgumentException When the text holds no amount.
+     */
+    public static Rupiah parse(CharSequence text) {
+        long amount = parseAmount(text);
+        if (amount == NO_AMOUNT) {
+            throw new IllegalArgumentException("No rupiah amount in '" + text + "'");
+        }
+        return of(amount);
+    }
+
+    /**
+     * Reads the amount from a displayed price without allocating. Only the part
+     * before a dual-price " or " is considered. Within it, the last amount
+     * prefixed with "Rp" wins, so a struck-through original price followed by
+     * the discounted one yields the discounted price; percentages are ignored.
+     * Text without any "Rp" falls back to its first number. Both ',' and '.'
+     * are accepted as thousands separators. A digit run too long for a long
+     * is not a price, so it also yields {@link #NO_AMOUNT}.
+     * @return The amount, or {@link #NO_AMOUNT} when there is none.
+     */
+    public static long parseAmount(CharSequence text) {
+        if (text == null) {
+            return NO_AMOUNT;
+        }
+        try {
+            return scanAmount(text);
+        } catch (ArithmeticException e) {
+            return NO_AMOUNT;
+        }
+    }
+
+    private static long scanAmount(CharSequence text) {
+        int end = dualPriceEnd(text);
+        long lastPrefixed = NO_AMOUNT;
+        long firstBare = NO_AMOUNT;
+        boolean afterPrefix = false;
+        int i = 0;
+        while (i < end) {
+            char c = text.charAt(i);
+            if ((c == 'R' || c == 'r') && i + 1 < end && (text.charAt(i + 1) == 'p' || text.charAt(i + 1) == 'P')) {
+                afterPrefix = true;
+                i += 2;
+            } else if (isDigit(c)) {
+                long value = 0;
+                int j = i;
+                while (j < end) {
+                    char d = text.charAt(j);
+                    if (isDigit(d)) {
+                        value = Math.addExact(Math.multiplyExact(value, 10), d - '0');
+                        j++;
+                    } else if ((d == ',' || d == '.') && isGroup(text, j + 1, end)) {
+                        j++;
+                    } else {
+                        break;
+                    }
+                }
+                boolean percentage = j < end && text.charAt(j) == '%';
+                if (afterPrefix) {
+                    lastPrefixed = value;
+                } else if (firstBare == NO_AMOUNT && !percentage) {
+                    firstBare = value;
+                }
+                afterPrefix = false;
+                i = j;
+            } else {
+                // Spaces, dots and non-breaking spaces may sit between "Rp" and the digits
+                if (afterPrefix && !(c == ' ' || c == '.' || c == '\u00A0')) {
+                    afterPrefix = false;
+                }
+                i++;
+            }
+        }
+        return lastPrefixed != NO_AMOUNT ? lastPrefixed : firstBare;
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public Rupiah plus(Rupiah other) {
+        return of(Math.addExact(amount, other.amount));
+    }
+
+    public Rupiah times(long quantity) {
+        return of(Math.multiplyExact(amount, quantity));
+    }
+
+    /**
+     * Formats the amount the way the shop displays it, e.g. "Rp 180,000".
+     */
+    public String format() {
+        String text = formatted;
+        if (text == null) {
+            text = format(amount);
+            formatted = text;
+        }
+        return text;
+    }
+
+    /**
+     * Formats an amount the way the shop displays it, e.g. "Rp 180,000".
+     * @throws IllegalArgumentException When the amount is negative, as in {@link #of(long)}.
+     */
+    public static String format(long amount) {
+        if (amount < 0) {
+            throw new IllegalArgumentException("Amount must not be negative: " + amount);
+        }
+        char[] chars = new char[PREFIX.length() + 26];
+        int position = chars.length;
+        long remaining = amount;
+        int count = 0;
+        do {
+            if (count > 0 && count % 3 == 0) {
+                chars[--position] = ',';
+            }
+            chars[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+            count++;
+        } while (remaining > 0);
+        PREFIX.getChars(0, PREFIX.length(), chars, position - PREFIX.length());
+        position -= PREFIX.length();
+        return new String(chars, position, chars.length - position);
+    }
+
+    @Override
+    public int compareTo(Rupiah other) {
+        return Long.compare(amount, other.amount);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Rupiah && ((Rupiah) o).amount == amount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(amount);
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // A thousands group is exactly three digits not followed by another digit
+    private static boolean isGroup(CharSequence text, int from, int end) {
+        if (from + 3 > end) {
+            return false;
+        }
+        for (int k = from; k < from + 3; k++) {
+            if (!isDigit(text.charAt(k))) {
+                return false;
+            }
+        }
+        return from + 3 == end || !isDigit(text.charAt(from + 3));
+    }
+
+    // Index of the first " or " (any case), or the text length
+    private static int dualPriceEnd(CharSequence text) {
+        int length = text.length();
+        for (int i = 1; i + 2 < length; i++) {
+            char o = text.charAt(i);
+            char r = text.charAt(i + 1);
+            if ((o == 'o' || o == 'O') && (r == 'r' || r == 'R')
+                    && Character.isWhitespace(text.charAt(i - 1)) && Character.isWhitespace(text.charAt(i + 2))) {
+                return i;
+            }
+        }
+        return length;
+    }
+}
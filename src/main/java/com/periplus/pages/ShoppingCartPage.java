@@ -1,249 +1,290 @@
 package com.periplus.pages;
 
+import com.periplus.support.DomWaits;
+import com.periplus.support.EventLog;
+import com.periplus.support.Locators;
+import com.periplus.support.PageTimings;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.testng.Assert;
 
-import java.text.NumberFormat;
 import java.time.Duration;
 import java.util.List;
-import java.util.Locale;
-import java.util.logging.Logger;
+import java.util.Map;
 
 public class ShoppingCartPage {
     private WebDriver driver;
     private WebDriverWait wait;
-    private static final Logger logger = Logger.getLogger(ShoppingCartPage.class.getName());
-
-    private final By cartItemContainers = By.xpath("//div[@class='row row-cart-product']");
-    private final By productNameInCart = By.xpath(".//p[contains(@class,'product-name')]");
-    private final By productQuantityInCart = By.xpath(".//input[contains(@class,'input-number') and @type='text']");
-    private final By cartTotalElement = By.xpath("//span[@id='sub_total']");
-    private final By checkoutButton = By.xpath("//div[@class='button5']//a[contains(@onclick,'beginCheckout()')]");
-    private final By removeProductButton = By.xpath("//a[contains(@class,'btn btn-cart-remove')]");
-    private final By removeSelectedProductButton = By.xpath(".//a[contains(@class,'btn btn-cart-remove')]");
-    private final By productPriceInCart = By.xpath(".//div[contains(@class,'col-lg-10') and contains(@class,'col-9')]//div[@class='row' and contains(.,'Rp ')]");
-    private final By emptyCartMessage = By.xpath("//div[@class='content' and text()='Your shopping cart is empty']");
+    private final DomWaits domWaits;
+    private final CartRowIndex rowIndex;
+    private static final EventLog events = EventLog.forClass(ShoppingCartPage.class);
+
+    private static final String CART_ITEM_XPATH = "//div[@class='row row-cart-product']";
+    private static final String PRODUCT_NAME_XPATH = ".//p[contains(@class,'product-name')]";
+    private static final String PRODUCT_QUANTITY_XPATH = ".//input[contains(@class,'input-number') and @type='text']";
+    private static final String PRODUCT_PRICE_XPATH = ".//div[contains(@class,'col-lg-10') and contains(@class,'col-9')]//div[@class='row' and contains(.,'Rp ')]";
+    private static final String CART_TOTAL_XPATH = "//span[@id='sub_total']";
+
+    // Reads every cart row and the subtotal in one round-trip; arguments are the XPaths above.
+    private static final String CART_SNAPSHOT_SCRIPT =
+            "var first = function (xpath, context) {"
+            + "  return document.evaluate(xpath, context, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue; };"
+            + "var items = document.evaluate(arguments[0], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "var rows = [];"
+            + "for (var i = 0; i < items.snapshotLength; i++) {"
+            + "  var item = items.snapshotItem(i);"
+            + "  var name = first(arguments[1], item), price = first(arguments[2], item), quantity = first(arguments[3], item);"
+            + "  rows.push({ name: name ? name.innerText : '', price: price ? price.innerText : '', quantity: quantity ? quantity.value : '' });"
+            + "}"
+            + "var total = first(arguments[4], document);"
+            + "return { rows: rows, subTotal: total ? total.innerText : null };";
+
+    private final By cartItemContainers = Locators.xpath("ShoppingCartPage.cartItemContainers", CART_ITEM_XPATH);
+    private static final String CHECKOUT_BUTTON_XPATH = "//div[@class='button5']//a[contains(@onclick,'beginCheckout()')]";
+    private static final String REMOVE_PRODUCT_XPATH = "//a[contains(@class,'btn btn-cart-remove')]";
+    private static final String ROW_REMOVE_BUTTON_XPATH = ".//a[contains(@class,'btn btn-cart-remove')]";
+    private static final int CLEAR_CART_ATTEMPTS = 3;
+
+    // Follows every remove link from the page context, either one after another or all at once, and reports
+    // how many requests succeeded. Links without a real URL are counted as "manual" and left for clicking.
+    private static final String BULK_REMOVE_SCRIPT =
+            "var done = arguments[arguments.length - 1], concurrent = arguments[1];"
+            + "var links = document.evaluate(arguments[0], document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);"
+            + "var urls = [], manual = 0;"
+            + "for (var i = 0; i < links.snapshotLength; i++) {"
+            + "  var href = links.snapshotItem(i).getAttribute('href');"
+            + "  if (href && href !== '#' && href.indexOf('javascript:') !== 0) { urls.push(links.snapshotItem(i).href); } else { manual++; }"
+            + "}"
+            + "var remove = function (url) {"
+            + "  return fetch(url, { credentials: 'same-origin' }).then(function (r) { return r.ok; }, function () { return false; }); };"
+            + "var finish = function (results) {"
+            + "  done({ requested: urls.length, succeeded: results.filter(Boolean).length, manual: manual }); };"
+            + "if (concurrent) { Promise.all(urls.map(remove)).then(finish); }"
+            + "else { urls.reduce(function (chain, url) {"
+            + "  return chain.then(function (results) { return remove(url).then(function (ok) { return results.concat([ok]); }); });"
+            + "}, Promise.resolve([])).then(finish); }";
+
+    private final By removeProductButton = Locators.xpath("ShoppingCartPage.removeProductButton", REMOVE_PRODUCT_XPATH);
+    private final By emptyCartMessage = Locators.xpath("ShoppingCartPage.emptyCartMessage", "//div[@class='content' and text()='Your shopping cart is empty']");
 
     public ShoppingCartPage(WebDriver driver, WebDriverWait wait) {
         this.driver = driver;
         this.wait = wait;
-    }
-
-    protected String formatPriceToRupiah(long price) {
-        NumberFormat formatter = NumberFormat.getNumberInstance(Locale.US);
-        formatter.setMinimumFractionDigits(0);
-        formatter.setMaximumFractionDigits(0);
-        String formattedPrice = formatter.format(price);
-        return "Rp " + formattedPrice;
+        this.domWaits = new DomWaits(driver, Duration.ofSeconds(20), "ShoppingCartPage");
+        this.rowIndex = new CartRowIndex(driver, CART_ITEM_XPATH, PRODUCT_NAME_XPATH, PRODUCT_QUANTITY_XPATH, ROW_REMOVE_BUTTON_XPATH);
     }
 
     public void navigateToShoppingCart() {
-        driver.get("https://www.periplus.com/checkout/cart");
+        driver.get(PeriplusUrls.url("checkout/cart"));
+        rowIndex.invalidate();
         wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(cartItemContainers));
-        logger.info("Navigated to Shopping Cart page.");
+        events.info("navigateToShoppingCart", "Navigated to Shopping Cart page.");
+        PageTimings.capture(driver, "cart");
     }
 
-    public void verifyProductInCart(String expectedProductName, int expectedProductPrice, int expectedQuantity) {
-        List<WebElement> cartItems = wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(cartItemContainers));
-        Assert.assertFalse(cartItems.isEmpty(), "Cart should contain at least 1 product.");
-        logger.info("Product(s) found in cart (" + cartItems.size() + " items).");
+    /**
+     * Captures all cart rows and the subtotal with a single script call.
+     */
+    public CartSnapshot captureCart() {
+        Object result = ((JavascriptExecutor) driver).executeScript(CART_SNAPSHOT_SCRIPT,
+                CART_ITEM_XPATH, PRODUCT_NAME_XPATH, PRODUCT_PRICE_XPATH, PRODUCT_QUANTITY_XPATH, CART_TOTAL_XPATH);
+        return CartSnapshot.fromScriptResult(result);
+    }
 
-        boolean productFound = false;
-        String formattedExpectedPrice = formatPriceToRupiah(expectedProductPrice);
+    private CartSnapshot waitForCartRows() {
+        return wait.until(d -> {
+            CartSnapshot snapshot = captureCart();
+            return snapshot.isEmpty() ? null : snapshot;
+        });
+    }
 
-        for (int i = 0; i < cartItems.size(); i++) {
-            WebElement item = cartItems.get(i);
-            try {
-                WebElement nameElement = item.findElement(productNameInCart);
-                String actualProductName = nameElement.getText().trim();
-                logger.info("Cart item " + (i+1) + " product name: " + actualProductName);
-
-                // Verify product name
-                if (actualProductName.contains(expectedProductName)) {
-                    logger.info("Product '" + expectedProductName + "' found in cart. Proceeding with price and quantity verification.");
-                    Assert.assertTrue(actualProductName.contains(expectedProductName),
-                            "Actual product name '" + actualProductName + "' does not contain expected '" + expectedProductName + "'");
-
-                    // Verify product price
-                    WebElement priceElement = item.findElement(productPriceInCart);
-                    String actualPriceText = priceElement.getText().trim();
-                    logger.info("Actual price text found: '" + actualPriceText + "' for product '" + actualProductName + "'");
-
-                    String cleanActualPrice = actualPriceText.split(" or ")[0].trim();
-                    Assert.assertEquals(cleanActualPrice, formattedExpectedPrice,
-                            "Price for product '" + expectedProductName + "' is incorrect. Expected: " + formattedExpectedPrice + ", Actual: " + cleanActualPrice);
-                    logger.info("Price for '" + expectedProductName + "' verified: " + cleanActualPrice);
-
-                    // Verify product quantity
-                    WebElement quantityInputElement = item.findElement(productQuantityInCart);
-                    String actualQuantityValue = quantityInputElement.getAttribute("value");
-                    int actualQuantity = Integer.parseInt(actualQuantityValue);
-
-                    Assert.assertEquals(actualQuantity, expectedQuantity,
-                            "Quantity for product '" + expectedProductName + "' is incorrect. Expected: " + expectedQuantity + ", Actual: " + actualQuantity);
-                    logger.info("Quantity for '" + expectedProductName + "' verified: " + actualQuantity);
-
-                    productFound = true;
-                    break;
-                }
-            } catch (Exception e) {
-                logger.warning("Error processing cart item " + (i+1) + ": " + e.getMessage());
-            }
-        }
-        Assert.assertTrue(productFound, "Product '" + expectedProductName + "' with price " + formattedExpectedPrice + " and quantity " + expectedQuantity + " not found in cart or verification failed.");
+    public void verifyProductInCart(String expectedProductName, Rupiah expectedProductPrice, int expectedQuantity) {
+        CartSnapshot cart = waitForCartRows();
+        Assert.assertFalse(cart.isEmpty(), "Cart should contain at least 1 product.");
+        events.info("verifyProductInCart", () -> "Product(s) found in cart (" + cart.getRows().size() + " items).");
+
+        String formattedExpectedPrice = expectedProductPrice.format();
+        CartSnapshot.Row row = cart.findRow(expectedProductName).orElse(null);
+        Assert.assertNotNull(row, "Product '" + expectedProductName + "' with price " + formattedExpectedPrice + " and quantity " + expectedQuantity + " not found in cart or verification failed.");
+        events.info("verifyProductInCart", () -> "Product '" + expectedProductName + "' found in cart. Proceeding with price and quantity verification.");
+
+        // Verify product price
+        Rupiah actualPrice = row.getUnitPrice();
+        Assert.assertEquals(actualPrice, expectedProductPrice,
+                "Price for product '" + expectedProductName + "' is incorrect. Expected: " + formattedExpectedPrice + ", Actual: " + actualPrice);
+        events.info("verifyProductInCart", () -> "Price for '" + expectedProductName + "' verified: " + actualPrice);
+
+        // Verify product quantity
+        Assert.assertEquals(row.getQuantity(), expectedQuantity,
+                "Quantity for product '" + expectedProductName + "' is incorrect. Expected: " + expectedQuantity + ", Actual: " + row.getQuantity());
+        events.info("verifyProductInCart", () -> "Quantity for '" + expectedProductName + "' verified: " + row.getQuantity());
     }
 
-    public void verifyTotalPriceInCart(int expectedTotalPrice) {
-        WebElement totalPriceElement = driver.findElement(cartTotalElement);
-        String actualPrice = totalPriceElement.getText();
-        String formattedExpectedTotalPrice = formatPriceToRupiah(expectedTotalPrice);
-        logger.info("Found total price in cart is " + actualPrice);
+    public void verifyTotalPriceInCart(Rupiah expectedTotalPrice) {
+        String actualPrice = captureCart().getSubTotalText();
+        events.info("verifyTotalPriceInCart", () -> "Found total price in cart is " + actualPrice);
 
-        Assert.assertTrue(actualPrice.contains(formattedExpectedTotalPrice));
+        Assert.assertNotNull(actualPrice, "Cart subtotal not found on the page.");
+        Assert.assertEquals(Rupiah.parse(actualPrice), expectedTotalPrice,
+                "Cart subtotal is incorrect. Expected: " + expectedTotalPrice + ", Actual: " + actualPrice);
     }
 
     public void setQuantity(String productName, int quantity) {
         try {
-                List<WebElement> cartItems = driver.findElements(cartItemContainers);
-
-                for (int i = 0; i < cartItems.size(); i++) {
-                    WebElement item = driver.findElements(cartItemContainers).get(i);
-                    WebElement nameElement = item.findElement(productNameInCart);
-                    String actualProductName = nameElement.getText().trim();
-
-                    if (actualProductName.contains(productName)) {
-                        logger.info("Product '" + productName + "' found. Setting quantity to: " + quantity);
+            rowIndex.withRow(productName, row -> {
+                events.info("setQuantity", () -> "Product '" + row.getName() + "' found. Setting quantity to: " + quantity);
 
-                        WebElement quantityElement = item.findElement(productQuantityInCart);
-                        ((JavascriptExecutor) driver).executeScript("arguments[0].value = arguments[1];", quantityElement, String.valueOf(quantity));
-                        quantityElement.sendKeys(Keys.ENTER);
-
-                        logger.info("Quantity set to: " + quantity);
-                        return;
-                    }
+                WebElement quantityElement = row.getQuantityInput();
+                if (String.valueOf(quantity).equals(quantityElement.getAttribute("value"))) {
+                    events.info("setQuantity", () -> "Quantity already " + quantity + ", nothing to update.");
+                    return null;
                 }
-                throw new RuntimeException("Product '" + productName + "' not found in cart.");
-
+                String subTotalBefore = captureCart().getSubTotalText();
+                ((JavascriptExecutor) driver).executeScript("arguments[0].value = arguments[1];", quantityElement, String.valueOf(quantity));
+                quantityElement.sendKeys(Keys.ENTER);
+                rowIndex.invalidate();
+                domWaits.untilTextChanges(CART_TOTAL_XPATH, subTotalBefore);
+                return null;
+            });
+            events.info("setQuantity", () -> "Quantity set to: " + quantity);
         } catch (Exception e) {
-            logger.severe("Failed to set quantity: " + e.getMessage());
+            events.severe("setQuantity", "Failed to set quantity: " + e.getMessage(), e);
             throw new RuntimeException("Failed to set product quantity.", e);
         }
     }
 
-    public String getPrice(String productName) {
+    public Rupiah getPrice(String productName) {
         try {
-            List<WebElement> cartItems = wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(cartItemContainers));
-            Assert.assertFalse(cartItems.isEmpty(), "Cart should contain at least 1 product.");
-
-            boolean productFound = false;
-
-            for (int i = 0; i < cartItems.size(); i++) {
-                WebElement item = cartItems.get(i);
-                try {
-                    WebElement nameElement = item.findElement(productNameInCart);
-                    String actualProductName = nameElement.getText().trim();
-                    logger.info("Checking cart item " + (i+1) + " product name: " + actualProductName);
-
-                    if (actualProductName.contains(productName)) {
-
-                        // Verify product price
-                        WebElement priceElement = item.findElement(productPriceInCart);
-                        String actualPriceText = priceElement.getText().trim();
-                        logger.info("Actual price text found: '" + actualPriceText + "' for product '" + actualProductName + "'");
-
-                        return actualPriceText.split(" or ")[0].trim().substring(3).replace(",", "");
-                    }
-                } catch (Exception e) {
-                    logger.warning("Error processing cart item " + (i+1) + ": " + e.getMessage());
-                }
-            }
-
-            if (!productFound) {
-                throw new RuntimeException("Product '" + productName + "' not found in cart to get price.");
-            }
-
+            CartSnapshot cart = waitForCartRows();
+            CartSnapshot.Row row = cart.findRow(productName)
+                    .orElseThrow(() -> new RuntimeException("Product '" + productName + "' not found in cart to get price."));
+            events.info("getPrice", () -> "Actual price text found: '" + row.getPriceText() + "' for product '" + row.getName() + "'");
+            return row.getUnitPrice();
         } catch (Exception e) {
             throw new RuntimeException("Failed to get product price.", e);
         }
-        return "0";
     }
 
     public void removeProduct(String productName) {
         try {
-            List<WebElement> cartItems = driver.findElements(cartItemContainers);
-
-            for (int i = 0; i < cartItems.size(); i++) {
-                WebElement item = driver.findElements(cartItemContainers).get(i);
-                WebElement nameElement = item.findElement(productNameInCart);
-                String actualProductName = nameElement.getText().trim();
+            rowIndex.withRow(productName, row -> {
+                events.info("removeProduct", () -> "Product '" + row.getName() + "' found. Removing " + productName);
 
-                if (actualProductName.contains(productName)) {
-                    logger.info("Product '" + productName + "' found. Removing " + productName);
+                WebElement removeButton = row.getRemoveButton();
 
-                    WebElement removeButton = item.findElement(removeSelectedProductButton);
+                ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView({block: 'center'});", removeButton);
 
-                    ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView({block: 'center'});", removeButton);
+                domWaits.untilClickable(removeButton);
 
-                    wait.until(ExpectedConditions.elementToBeClickable(removeButton));
+                try {
+                    removeButton.click();
+                    events.info("removeProduct", "Clicked remove button for an item using normal click.");
+                } catch (ElementClickInterceptedException e) {
+                    events.warning("removeProduct", "Normal click intercepted, trying JavaScript click.");
 
-                    Thread.sleep(500);
+                    ((JavascriptExecutor) driver).executeScript("arguments[0].click();", removeButton);
+                    events.info("removeProduct", "Clicked remove button for an item using JavaScript click.");
+                }
+                rowIndex.invalidate();
 
-                    try {
-                        removeButton.click();
-                        logger.info("Clicked remove button for an item using normal click.");
-                    } catch (ElementClickInterceptedException e) {
-                        logger.warning("Normal click intercepted, trying JavaScript click.");
+                domWaits.untilStale(removeButton);
+                return null;
+            });
+            events.info("removeProduct", "Item removed successfully.");
+        } catch (Exception e) {
+            events.severe("removeProduct", "Failed to remove product: " + e.getMessage(), e);
+            throw new RuntimeException("Failed to remove product.", e);
+        }
+    }
 
-                        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", removeButton);
-                        logger.info("Clicked remove button for an item using JavaScript click.");
-                    }
+    /**
+     * Empties the cart by following every remove link from the page context,
+     * one request after another, then reloads the cart once to confirm it is
+     * empty. Rows that survive are retried up to a fixed number of attempts.
+     * Rows still left after that are logged and reported in the result
+     * rather than thrown, because this also runs in test teardown, where an
+     * exception would skip the rest of the class.
+     */
+    public CartClearResult removeAllProductFromCart() {
+        return removeAllProductFromCart(false);
+    }
 
-                    wait.until(ExpectedConditions.stalenessOf(removeButton));
-                    logger.info("Item removed successfully.");
-                    return;
-                }
+    /**
+     * Empties the cart like {@link #removeAllProductFromCart()}, optionally
+     * sending all remove requests concurrently.
+     * @param concurrent Whether the remove requests may run in parallel.
+     */
+    public CartClearResult removeAllProductFromCart(boolean concurrent) {
+        long start = System.nanoTime();
+        int initialItems = openCart(-1);
+        int remaining = initialItems;
+        int attempts = 0;
+
+        while (remaining > 0 && attempts < CLEAR_CART_ATTEMPTS) {
+            attempts++;
+            Map<?, ?> outcome = (Map<?, ?>) ((JavascriptExecutor) driver).executeAsyncScript(BULK_REMOVE_SCRIPT, REMOVE_PRODUCT_XPATH, concurrent);
+            int attempt = attempts;
+            events.info("removeAllProductFromCart", () -> "Bulk remove attempt " + attempt + ": " + outcome);
+            remaining = openCart(remaining);
+            // Clicked on the reloaded cart, so the buttons belong to rows that still exist
+            if (remaining > 0 && ((Number) outcome.get("manual")).intValue() > 0) {
+                clickRemoveButtons(remaining);
+                remaining = openCart(remaining);
             }
-            throw new RuntimeException("Product '" + productName + "' not found in cart.");
+        }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.severe("Thread interrupted while removing product: " + e.getMessage());
-            throw new RuntimeException("Failed to remove product due to interruption.", e);
-        } catch (Exception e) {
-            logger.severe("Failed to remove product: " + e.getMessage());
-            throw new RuntimeException("Failed to remove product.", e);
+        CartClearResult result = new CartClearResult(initialItems - remaining, remaining, attempts,
+                (System.nanoTime() - start) / 1_000_000);
+        if (remaining > 0) {
+            events.warning("removeAllProductFromCart", () -> "Cart still contains items after clearing: " + result);
+        } else {
+            events.info("removeAllProductFromCart", () -> "All products successfully removed from cart: " + result);
         }
+        return result;
     }
 
-    public void removeAllProductFromCart() {
-        navigateToShoppingCart();
+    /**
+     * Loads the cart page and returns its number of rows; an empty cart is a
+     * valid outcome here, unlike in {@link #navigateToShoppingCart()}. When
+     * the page shows neither rows nor the empty message in time, the timeout
+     * is logged and the last known count returned instead of thrown.
+     * @param lastKnown The count before this reload, or -1 when there is none
+     *                  yet, in which case the rows present are counted.
+     */
+    private int openCart(int lastKnown) {
+        driver.get(PeriplusUrls.url("checkout/cart"));
+        rowIndex.invalidate();
+        try {
+            wait.until(ExpectedConditions.or(
+                    ExpectedConditions.visibilityOfElementLocated(cartItemContainers),
+                    ExpectedConditions.visibilityOfElementLocated(emptyCartMessage)));
+        } catch (TimeoutException e) {
+            int count = lastKnown >= 0 ? lastKnown : driver.findElements(cartItemContainers).size();
+            events.warning("openCart", () -> "Cart page did not load in time; assuming " + count + " item(s) remain. " + e.getMessage());
+            return count;
+        }
+        return captureCart().getRows().size();
+    }
 
-        while (true) {
+    private void clickRemoveButtons(int budget) {
+        for (int i = 0; i < budget; i++) {
             List<WebElement> currentRemoveButtons = driver.findElements(removeProductButton);
             if (currentRemoveButtons.isEmpty()) {
-                logger.info("No more remove buttons found. Cart is empty or all items removed.");
-                break;
+                return;
             }
-
             try {
                 WebElement removeButton = currentRemoveButtons.get(0);
-                removeButton.click();
-                logger.info("Clicked remove button for an item.");
-
+                ((JavascriptExecutor) driver).executeScript("arguments[0].click();", removeButton);
                 wait.until(ExpectedConditions.stalenessOf(removeButton));
-                logger.info("Item removed. Waiting for cart to update...");
-                logger.info("Cart updated after removal.");
-
             } catch (Exception e) {
-                logger.warning("Error during product removal or waiting for cart update: " + e.getMessage() + ". Attempting next item if any.");
+                events.warning("clickRemoveButtons", () -> "Error during product removal or waiting for cart update: " + e.getMessage());
             }
         }
-        logger.info("All products successfully removed from cart.");
     }
+
     public void verifyCartIsEmpty() {
-        logger.info("Verifying if the shopping cart is empty...");
+        events.info("verifyCartIsEmpty", "Verifying if the shopping cart is empty...");
         try {
             WebElement emptyMessageElement = wait.until(ExpectedConditions.visibilityOfElementLocated(emptyCartMessage));
             String actualMessage = emptyMessageElement.getText().trim();
@@ -251,53 +292,56 @@ public class ShoppingCartPage {
 
             Assert.assertEquals(actualMessage, expectedMessage,
                     "The empty cart message is not as expected.");
-            logger.info("Successfully verified: '" + actualMessage + "' is displayed, confirming cart is empty.");
+            events.info("verifyCartIsEmpty", () -> "Successfully verified: '" + actualMessage + "' is displayed, confirming cart is empty.");
 
         } catch (TimeoutException e) {
-            logger.severe("Timeout: The 'Your shopping cart is empty' message was not found on the page within the specified wait time.");
+            events.severe("verifyCartIsEmpty", "Timeout: The 'Your shopping cart is empty' message was not found on the page within the specified wait time.", e);
             Assert.fail("Timeout: The 'Your shopping cart is empty' message was not found on the page.");
         } catch (NoSuchElementException e) {
-            logger.severe("No such element: The 'Your shopping cart is empty' message element was not found.");
+            events.severe("verifyCartIsEmpty", "No such element: The 'Your shopping cart is empty' message element was not found.", e);
             Assert.fail("No such element: The 'Your shopping cart is empty' message element was not found.");
         } catch (Exception e) {
-            logger.severe("An unexpected error occurred during cart empty verification: " + e.getMessage());
+            events.severe("verifyCartIsEmpty", "An unexpected error occurred during cart empty verification: " + e.getMessage(), e);
             Assert.fail("An unexpected error occurred during cart empty verification: " + e.getMessage());
         }
     }
 
     public void proceedToCheckout() {
         try {
-            logger.info("Attempting to proceed to checkout...");
+            events.info("proceedToCheckout", "Attempting to proceed to checkout...");
 
-            WebElement checkoutElement = wait.until(ExpectedConditions.elementToBeClickable(checkoutButton));
+            WebElement checkoutElement = domWaits.untilPresent(CHECKOUT_BUTTON_XPATH);
 
             ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView({block: 'center'});", checkoutElement);
 
-            Thread.sleep(500);
+            domWaits.untilClickable(checkoutElement);
 
             try {
                 checkoutElement.click();
-                logger.info("Checkout button clicked successfully using normal click.");
+                events.info("proceedToCheckout", "Checkout button clicked successfully using normal click.");
             } catch (ElementClickInterceptedException e) {
 
-                logger.warning("Normal click intercepted, trying JavaScript click for checkout.");
+                events.warning("proceedToCheckout", "Normal click intercepted, trying JavaScript click for checkout.");
                 ((JavascriptExecutor) driver).executeScript("arguments[0].click();", checkoutElement);
-                logger.info("Checkout button clicked successfully using JavaScript click.");
+                events.info("proceedToCheckout", "Checkout button clicked successfully using JavaScript click.");
             }
 
-            wait.until(ExpectedConditions.urlContains("checkout"));
+            // The cart URL itself contains "checkout": wait for the cart document to be left
+            // and for a checkout URL other than the cart, so the timings are the checkout page's
+            domWaits.untilStale(checkoutElement);
+            wait.until(d -> {
+                String url = d.getCurrentUrl();
+                return url != null && url.contains("checkout") && !url.contains("checkout/cart");
+            });
 
-            logger.info("Successfully proceeded to checkout page.");
+            events.info("proceedToCheckout", "Successfully proceeded to checkout page.");
+            PageTimings.capture(driver, "checkout");
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            logger.severe("Thread interrupted during checkout: " + e.getMessage());
-            throw new RuntimeException("Failed to proceed to checkout due to interruption.", e);
         } catch (TimeoutException e) {
-            logger.severe("Timeout: Checkout button was not found or checkout page did not load within the specified wait time.");
+            events.severe("proceedToCheckout", "Timeout: Checkout button was not found or checkout page did not load within the specified wait time.", e);
             throw new RuntimeException("Timeout: Failed to proceed to checkout.", e);
         } catch (Exception e) {
-            logger.severe("Failed to proceed to checkout: " + e.getMessage());
+            events.severe("proceedToCheckout", "Failed to proceed to checkout: " + e.getMessage(), e);
             throw new RuntimeException("Failed to proceed to checkout.", e);
         }
     }
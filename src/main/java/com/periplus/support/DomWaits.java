@@ -0,0 +1,253 @@
+package com.periplus.support;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Event-driven waits. Each wait is a single async script that checks its
+ * condition whenever the DOM mutates, a transition ends or a tracked network
+ * request settles, and returns as soon as the condition holds instead of
+ * sleeping or polling from the test side. Wait times are recorded in
+ * {@link WaitStatistics} under "owner.method:condition", where method is
+ * the page-object method that waited.
+ */
+public class DomWaits {
+    private static final Duration MIN_SCRIPT_TIMEOUT = Duration.ofSeconds(30);
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    // Counts fetch/XHR requests in flight so network-idle waits know when the page has settled.
+    // Installed once per document; prepended to every script of this class.
+    private static final String PROBE_SCRIPT =
+            "if (!window.__periplusProbe) {"
+            + "  var probe = window.__periplusProbe = { inflight: 0, last: Date.now(), listeners: [] };"
+            + "  var started = function () { probe.inflight++; probe.last = Date.now(); };"
+            + "  var settled = function () {"
+            + "    probe.inflight = Math.max(0, probe.inflight - 1); probe.last = Date.now();"
+            + "    probe.listeners.slice().forEach(function (listener) { listener(); }); };"
+            + "  if (window.fetch) {"
+            + "    var originalFetch = window.fetch;"
+            + "    window.fetch = function () {"
+            + "      started();"
+            + "      return originalFetch.apply(this, arguments).then("
+            + "          function (response) { settled(); return response; }, function (error) { settled(); throw error; }); }; }"
+            + "  var originalSend = XMLHttpRequest.prototype.send;"
+            + "  XMLHttpRequest.prototype.send = function () {"
+            + "    started(); this.addEventListener('loadend', settled); return originalSend.apply(this, arguments); };"
+            + "}";
+
+    // Arguments: condition, target (XPath, CSS selector or element), expected value, timeout in ms.
+    // Resolves with { ok, value }; ok is false only when the timeout elapsed first.
+    private static final String WAIT_SCRIPT = PROBE_SCRIPT
+            + "var done = arguments[arguments.length - 1], kind = arguments[0], target = arguments[1],"
+            + "    expected = arguments[2], timeoutMs = arguments[3], probe = window.__periplusProbe;"
+            + "var find = function (xpath) {"
+            + "  return document.evaluate(xpath, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue; };"
+            + "var shown = function (el) {"
+            + "  if (!el || !el.isConnected) { return false; }"
+            + "  var style = getComputedStyle(el), box = el.getBoundingClientRect();"
+            + "  return style.display !== 'none' && style.visibility !== 'hidden' && box.width > 0 && box.height > 0; };"
+            + "var check = function () {"
+            + "  switch (kind) {"
+            + "    case 'present': return find(target);"
+            + "    case 'clickable':"
+            + "      if (!shown(target) || target.disabled) { return null; }"
+            + "      var box = target.getBoundingClientRect();"
+            + "      var hit = document.elementFromPoint(box.left + box.width / 2, box.top + box.height / 2);"
+            + "      return hit && (hit === target || target.contains(hit)) ? target : null;"
+            + "    case 'stale': return target.isConnected ? null : true;"
+            + "    case 'textChanged':"
+            + "      var node = find(target);"
+            + "      return node && node.innerText.trim() !== expected ? node.innerText.trim() : null;"
+            + "    case 'gone':"
+            + "      var nodes = document.querySelectorAll(target);"
+            + "      for (var i = 0; i < nodes.length; i++) { if (shown(nodes[i])) { return null; } }"
+            + "      return true;"
+            + "    case 'networkIdle': return probe.inflight === 0 && Date.now() - probe.last >= expected ? true : null;"
+            + "  }"
+            + "  return null; };"
+            + "var initial = check();"
+            + "if (initial !== null) { done({ ok: true, value: initial }); return; }"
+            + "var finished = false, quietTimer = null, timer, observer;"
+            + "var evaluate = function () {"
+            + "  if (finished) { return; }"
+            + "  var value = check();"
+            + "  if (value !== null) { finish(true, value); }"
+            + "  else if (kind === 'networkIdle' && probe.inflight === 0) {"
+            + "    clearTimeout(quietTimer);"
+            + "    quietTimer = setTimeout(evaluate, Math.max(0, expected - (Date.now() - probe.last))); } };"
+            + "var unloading = function () { if (kind === 'stale') { finish(true, true); } };"
+            + "var events = ['transitionend', 'animationend', 'scroll'];"
+            + "var finish = function (ok, value) {"
+            + "  finished = true;"
+            + "  observer.disconnect(); clearTimeout(timer); clearTimeout(quietTimer);"
+            + "  probe.listeners.splice(probe.listeners.indexOf(evaluate), 1);"
+            + "  events.forEach(function (name) { removeEventListener(name, evaluate, true); });"
+            + "  removeEventListener('pagehide', unloading);"
+            + "  done({ ok: ok, value: ok ? value : null }); };"
+            + "observer = new MutationObserver(evaluate);"
+            + "observer.observe(document, { subtree: true, childList: true, attributes: true, characterData: true });"
+            + "probe.listeners.push(evaluate);"
+            + "events.forEach(function (name) { addEventListener(name, evaluate, true); });"
+            + "addEventListener('pagehide', unloading);"
+            + "timer = setTimeout(function () { finish(false, null); }, timeoutMs);"
+            + "evaluate();";
+
+    private final WebDriver driver;
+    private final Duration timeout;
+    private final String owner;
+
+    /**
+     * @param driver The browser to wait in.
+     * @param timeout How long a condition may take before a {@link TimeoutException}.
+     * @param owner Prefix of the statistics keys, usually the page object name;
+     *              the calling method's name is appended to it.
+     */
+    public DomWaits(WebDriver driver, Duration timeout, String owner) {
+        this.driver = driver;
+        this.timeout = timeout;
+        this.owner = owner;
+    }
+
+    /**
+     * Waits until an element matching the XPath is attached to the document.
+     */
+    public WebElement untilPresent(String xpath) {
+        return (WebElement) await("present", xpath, null);
+    }
+
+    /**
+     * Waits until the element is displayed, enabled and not covered by another
+     * element at its centre, i.e. a real click would land on it.
+     */
+    public WebElement untilClickable(WebElement element) {
+        return (WebElement) await("clickable", element, null);
+    }
+
+    /**
+     * Waits until the element is detached from the document, including by the
+     * page navigating away.
+     */
+    public void untilStale(WebElement element) {
+        await("stale", element, null);
+    }
+
+    /**
+     * Waits until the text of the element matching the XPath differs from the
+     * given one, e.g. the cart subtotal after a quantity change, and returns the new text.
+     * A null previous text counts as empty, so the wait is for any text to appear.
+     */
+    public String untilTextChanges(String xpath, String previousText) {
+        return (String) await("textChanged", xpath, previousText == null ? "" : previousText.trim());
+    }
+
+    /**
+     * Waits until no element matching the CSS selector is displayed, e.g. a loading overlay.
+     */
+    public void untilGone(String cssSelector) {
+        await("gone", cssSelector, null);
+    }
+
+    /**
+     * Waits until no fetch/XHR request has been in flight for the given quiet period.
+     * Only requests started after the probe was installed (see {@link #click(WebElement)}) are seen.
+     */
+    public void untilNetworkIdle(Duration quietPeriod) {
+        await("networkIdle", null, quietPeriod.toMillis());
+    }
+
+    /**
+     * Clicks the element from script after installing the network probe, so
+     * requests triggered by the click are tracked by {@link #untilNetworkIdle(Duration)}.
+     */
+    public void click(WebElement element) {
+        ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT + "arguments[0].click();", element);
+    }
+
+    private Object await(String condition, Object target, Object expected) {
+        Duration previousScriptTimeout = raiseScriptTimeout();
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        boolean satisfied = false;
+        try {
+            while (true) {
+                long remainingMillis = Math.max(1, (deadline - System.nanoTime()) / 1_000_000);
+                Map<?, ?> outcome;
+                try {
+                    outcome = (Map<?, ?>) ((JavascriptExecutor) driver)
+                            .executeAsyncScript(WAIT_SCRIPT, condition, target, expected, remainingMillis);
+                } catch (StaleElementReferenceException e) {
+                    if (!condition.equals("stale")) {
+                        throw e;
+                    }
+                    satisfied = true;
+                    return Boolean.TRUE;
+                } catch (WebDriverException e) {
+                    // The document unloaded mid-wait: stale targets are gone, anything else is re-checked in the new page.
+                    if (!isUnload(e)) {
+                        throw e;
+                    }
+                    if (condition.equals("stale")) {
+                        satisfied = true;
+                        return Boolean.TRUE;
+                    }
+                    if (System.nanoTime() < deadline) {
+                        continue;
+                    }
+                    break;
+                }
+                if (Boolean.TRUE.equals(outcome.get("ok"))) {
+                    satisfied = true;
+                    return outcome.get("value");
+                }
+                break;
+            }
+            throw new TimeoutException("Condition '" + condition + "' on " + target + " not met within " + timeout);
+        } finally {
+            WaitStatistics.record(owner + "." + callingMethod() + ":" + condition, System.nanoTime() - start, satisfied);
+            if (previousScriptTimeout != null) {
+                driver.manage().timeouts().scriptTimeout(previousScriptTimeout);
+            }
+        }
+    }
+
+    // The first method outside this class, e.g. lambda$removeProduct$0 -> removeProduct
+    private static String callingMethod() {
+        String method = STACK_WALKER.walk(frames -> frames
+                .filter(frame -> !frame.getClassName().equals(DomWaits.class.getName()))
+                .findFirst()
+                .map(StackWalker.StackFrame::getMethodName)
+                .orElse("unknown"));
+        if (method.startsWith("lambda$")) {
+            int end = method.indexOf('$', "lambda$".length());
+            method = method.substring("lambda$".length(), end < 0 ? method.length() : end);
+        }
+        return method;
+    }
+
+    // Returns the script timeout to restore after the wait, or null when it was already long enough
+    private Duration raiseScriptTimeout() {
+        Duration needed = timeout.plusSeconds(5);
+        if (needed.compareTo(MIN_SCRIPT_TIMEOUT) < 0) {
+            needed = MIN_SCRIPT_TIMEOUT;
+        }
+        Duration previous = driver.manage().timeouts().getScriptTimeout();
+        if (previous != null && previous.compareTo(needed) >= 0) {
+            return null;
+        }
+        driver.manage().timeouts().scriptTimeout(needed);
+        return previous;
+    }
+
+    private static boolean isUnload(WebDriverException e) {
+        String message = e.getMessage() == null ? "" : e.getMessage();
+        return message.contains("document unloaded") || message.contains("Execution context was destroyed")
+                || message.contains("Inspected target navigated");
+    }
+}
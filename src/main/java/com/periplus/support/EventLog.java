@@ -0,0 +1,282 @@
+package com.periplus.support;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Structured event log for the page objects. Events are only created when
+ * the source's java.util.logging level allows them, then handed to a bounded
+ * lock-free ring. A background writer evaluates the message suppliers, appends
+ * each event as a JSON line (time, level, thread, test, source, step, message)
+ * to target/page-events.jsonl and mirrors it to java.util.logging.
+ * Message suppliers run on the writer thread, so they must only capture
+ * values, never query the browser. When the ring stays full after a brief
+ * retry, events are dropped and counted rather than blocking the test thread.
+ * Tuned with the system properties periplus.events.file,
+ * periplus.events.capacity and periplus.events.mirror.
+ */
+public final class EventLog {
+    private static final Path FILE = Paths.get(System.getProperty("periplus.events.file", "target/page-events.jsonl"));
+    private static final boolean MIRROR = Boolean.parseBoolean(System.getProperty("periplus.events.mirror", "true"));
+    private static final EventRing<Event> ring = new EventRing<>(Integer.getInteger("periplus.events.capacity", 16_384));
+    private static final AtomicLong accepted = new AtomicLong();
+    private static final AtomicLong written = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+    private static final int FULL_RING_RETRIES = 100;
+    private static final ThreadLocal<String> currentTest = new ThreadLocal<>();
+    private static volatile Thread writer;
+
+    private final String source;
+    private final Logger logger;
+
+    private EventLog(Class<?> type) {
+        this.source = type.getSimpleName();
+        this.logger = Logger.getLogger(type.getName());
+    }
+
+    public static EventLog forClass(Class<?> type) {
+        return new EventLog(type);
+    }
+
+    /**
+     * Sets the test reported with the events of the calling thread; null clears it.
+     */
+    public static void setTest(String testName) {
+        if (testName == null) {
+            currentTest.remove();
+        } else {
+            currentTest.set(testName);
+        }
+    }
+
+    public void info(String step, String message) {
+        log(Level.INFO, step, message, null, null);
+    }
+
+    public void info(String step, Supplier<String> message) {
+        log(Level.INFO, step, null, message, null);
+    }
+
+    public void warning(String step, String message) {
+        log(Level.WARNING, step, message, null, null);
+    }
+
+    public void warning(String step, Supplier<String> message) {
+        log(Level.WARNING, step, null, message, null);
+    }
+
+    public void severe(String step, String message, Throwable error) {
+        log(Level.SEVERE, step, message, null, error);
+    }
+
+    public boolean isEnabled(Level level) {
+        return logger.isLoggable(level);
+    }
+
+    /**
+     * Waits until every event accepted so far has been written.
+     * @return False when the timeout elapsed first.
+     */
+    public static boolean flush(Duration timeout) {
+        long target = accepted.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Thread current = writer;
+        while (written.get() < target) {
+            if (System.nanoTime() > deadline || current == null) {
+                return false;
+            }
+            LockSupport.unpark(current);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    public static long droppedEvents() {
+        return dropped.get();
+    }
+
+    private void log(Level level, String step, String message, Supplier<String> supplier, Throwable error) {
+        if (!logger.isLoggable(level)) {
+            return;
+        }
+        Thread thread = Thread.currentThread();
+        Event event = new Event(System.currentTimeMillis(), level, thread.getName(), currentTest.get(),
+                this, step, message, supplier, error);
+        startWriter();
+        for (int attempt = 0; attempt <= FULL_RING_RETRIES; attempt++) {
+            if (ring.offer(event)) {
+                accepted.incrementAndGet();
+                return;
+            }
+            // Full: wake the writer and give it a moment before dropping the event
+            LockSupport.unpark(writer);
+            Thread.yield();
+        }
+        dropped.incrementAndGet();
+    }
+
+    private static void startWriter() {
+        if (writer == null) {
+            synchronized (EventLog.class) {
+                if (writer == null) {
+                    Thread thread = new Thread(EventLog::drain, "page-event-writer");
+                    thread.setDaemon(true);
+                    thread.start();
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(Duration.ofSeconds(5))));
+                    writer = thread;
+                }
+            }
+        }
+    }
+
+    private static void drain() {
+        BufferedWriter out = open();
+        long reportedDrops = 0;
+        while (true) {
+            Event event = ring.poll();
+            if (event == null) {
+                long drops = dropped.get();
+                if (drops > reportedDrops) {
+                    write(out, "{\"level\":\"WARNING\",\"source\":\"EventLog\",\"message\":\"" + (drops - reportedDrops)
+                            + " event(s) dropped, ring buffer full\"}");
+                    reportedDrops = drops;
+                }
+                flushQuietly(out);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                continue;
+            }
+            String message;
+            try {
+                message = event.message != null ? event.message : String.valueOf(event.supplier.get());
+            } catch (RuntimeException e) {
+                message = "<message supplier failed: " + e + ">";
+            }
+            write(out, event.toJson(message));
+            if (MIRROR) {
+                event.log.logger.logp(event.level, event.log.source, event.step, message, event.error);
+            }
+            written.incrementAndGet();
+        }
+    }
+
+    private static BufferedWriter open() {
+        try {
+            if (FILE.getParent() != null) {
+                Files.createDirectories(FILE.getParent());
+            }
+            return Files.newBufferedWriter(FILE, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            Logger.getLogger(EventLog.class.getName()).log(Level.WARNING, "Cannot write page events to " + FILE, e);
+            return null;
+        }
+    }
+
+    private static void write(BufferedWriter out, String line) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.write(line);
+            out.newLine();
+        } catch (IOException e) {
+            Logger.getLogger(EventLog.class.getName()).log(Level.FINE, "Failed to write page event", e);
+        }
+    }
+
+    private static void flushQuietly(BufferedWriter out) {
+        try {
+            if (out != null) {
+                out.flush();
+            }
+        } catch (IOException e) {
+            Logger.getLogger(EventLog.class.getName()).log(Level.FINE, "Failed to flush page events", e);
+        }
+    }
+
+    private static final class Event {
+        private final long timestamp;
+        private final Level level;
+        private final String thread;
+        private final String test;
+        private final EventLog log;
+        private final String step;
+        private final String message;
+        private final Supplier<String> supplier;
+        private final Throwable error;
+
+        private Event(long timestamp, Level level, String thread, String test, EventLog log, String step,
+                      String message, Supplier<String> supplier, Throwable error) {
+            this.timestamp = timestamp;
+            this.level = level;
+            this.thread = thread;
+            this.test = test;
+            this.log = log;
+            this.step = step;
+            this.message = message;
+            this.supplier = supplier;
+            this.error = error;
+        }
+
+        private String toJson(String text) {
+            StringBuilder json = new StringBuilder(160);
+            json.append("{\"ts\":\"").append(Instant.ofEpochMilli(timestamp)).append('"');
+            field(json, "level", level.getName());
+            field(json, "thread", thread);
+            field(json, "test", test);
+            field(json, "source", log.source);
+            field(json, "step", step);
+            field(json, "message", text);
+            if (error != null) {
+                field(json, "error", error.toString());
+            }
+            return json.append('}').toString();
+        }
+
+        private static void field(StringBuilder json, String name, String value) {
+            if (value == null) {
+                return;
+            }
+            json.append(",\"").append(name).append("\":\"");
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':
+                        json.append("\\\"");
+                        break;
+                    case '\\':
+                        json.append("\\\\");
+                        break;
+                    case '\n':
+                        json.append("\\n");
+                        break;
+                    case '\r':
+                        json.append("\\r");
+                        break;
+                    case '\t':
+                        json.append("\\t");
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            json.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            json.append(c);
+                        }
+                }
+            }
+            json.append('"');
+        }
+    }
+}
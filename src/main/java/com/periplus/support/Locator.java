@@ -0,0 +1,168 @@
+package com.periplus.support;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named page-object locator. It is defined by its XPath and resolved
+ * through the compiled CSS selector when one exists, unless
+ * periplus.locators.mode is "xpath". Every resolution is timed; with
+ * periplus.locators.benchmark=true the first resolution that finds elements
+ * also times both forms inside the page on the same DOM.
+ */
+public class Locator extends By {
+    private static final boolean PREFER_CSS = !"xpath".equalsIgnoreCase(System.getProperty("periplus.locators.mode", "auto"));
+    private static final boolean BENCHMARK = Boolean.getBoolean("periplus.locators.benchmark");
+    private static final int BENCHMARK_ITERATIONS = 200;
+
+    // Evaluates both forms against the same context; arguments: xpath, css, context element or null, iterations
+    private static final String BENCHMARK_SCRIPT =
+            "var xpath = arguments[0], css = arguments[1], context = arguments[2] || document, n = arguments[3];"
+            + "var viaXPath = function () {"
+            + "  return document.evaluate(xpath, context, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null).snapshotLength; };"
+            + "var viaCss = function () { return context.querySelectorAll(css).length; };"
+            + "var time = function (resolve) {"
+            + "  var start = performance.now();"
+            + "  for (var i = 0; i < n; i++) { resolve(); }"
+            + "  return (performance.now() - start) * 1000 / n; };"
+            + "return { xpathMicros: time(viaXPath), cssMicros: time(viaCss), xpathMatches: viaXPath(), cssMatches: viaCss() };";
+
+    private final String name;
+    private final String xpath;
+    private final String css;
+    private final boolean absolute;
+    private final By byXPath;
+    private final By byCss;
+    private final AtomicLong resolutions = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicBoolean benchmarked = new AtomicBoolean();
+    private volatile Map<?, ?> benchmark;
+
+    Locator(String name, String xpath) {
+        this.name = name;
+        this.xpath = xpath;
+        this.css = XPathToCss.compile(xpath);
+        this.absolute = xpath.startsWith("//");
+        this.byXPath = By.xpath(xpath);
+        this.byCss = css == null ? null : By.cssSelector(css);
+    }
+
+    @Override
+    public List<WebElement> findElements(SearchContext context) {
+        long start = System.nanoTime();
+        List<WebElement> elements = context.findElements(select(context));
+        record(System.nanoTime() - start);
+        if (BENCHMARK && !elements.isEmpty() && benchmark == null && benchmarked.compareAndSet(false, true)) {
+            runBenchmark(context);
+        }
+        return elements;
+    }
+
+    @Override
+    public WebElement findElement(SearchContext context) {
+        long start = System.nanoTime();
+        try {
+            return context.findElement(select(context));
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    // An absolute XPath searches the whole document even from an element, which CSS cannot express
+    private By select(SearchContext context) {
+        if (byCss == null || !PREFER_CSS || (absolute && context instanceof WebElement)) {
+            return byXPath;
+        }
+        return byCss;
+    }
+
+    private void record(long nanos) {
+        resolutions.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private void runBenchmark(SearchContext context) {
+        if (css == null) {
+            return;
+        }
+        WebElement element = context instanceof WebElement ? (WebElement) context : null;
+        WebDriver driver = element instanceof WrapsDriver ? ((WrapsDriver) element).getWrappedDriver()
+                : context instanceof WebDriver ? (WebDriver) context : null;
+        if (!(driver instanceof JavascriptExecutor) || (absolute && element != null)) {
+            return;
+        }
+        try {
+            benchmark = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(BENCHMARK_SCRIPT,
+                    xpath, css, element, BENCHMARK_ITERATIONS);
+        } catch (RuntimeException e) {
+            benchmarked.set(false);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the page part of the name, e.g. "ShoppingCartPage".
+     */
+    public String getPage() {
+        int dot = name.indexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    public String getXPath() {
+        return xpath;
+    }
+
+    /**
+     * Returns the compiled CSS selector, or null when the XPath has no CSS equivalent.
+     */
+    public String getCss() {
+        return css;
+    }
+
+    /**
+     * Returns the form used when resolving from the document: "css" or "xpath".
+     */
+    public String getResolvedForm() {
+        return byCss != null && PREFER_CSS ? "css" : "xpath";
+    }
+
+    public long getResolutions() {
+        return resolutions.get();
+    }
+
+    public double getAverageMillis() {
+        long count = resolutions.get();
+        return count == 0 ? 0 : totalNanos.get() / 1_000_000.0 / count;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Returns the in-page benchmark (xpathMicros, cssMicros, xpathMatches,
+     * cssMatches), or null when it did not run.
+     */
+    public Map<?, ?> getBenchmark() {
+        return benchmark;
+    }
+
+    @Override
+    public String toString() {
+        return "By.locator(" + name + "): " + (css != null && PREFER_CSS ? css : xpath);
+    }
+}
@@ -0,0 +1,52 @@
+package com.periplus.support;
+
+import org.openqa.selenium.By;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the page objects' locators, keyed by "Page.field". Page
+ * objects declare locators through {@link #xpath(String, String)} instead of
+ * {@link By#xpath(String)} so they are profiled and compiled to CSS.
+ */
+public final class Locators {
+    private static final Map<String, Locator> registry = new ConcurrentHashMap<>();
+
+    private Locators() {
+    }
+
+    /**
+     * Returns the registered locator with the given name, registering it on first use.
+     * @throws IllegalStateException When the name is already bound to another XPath.
+     */
+    public static Locator xpath(String name, String xpath) {
+        Locator locator = registry.computeIfAbsent(name, key -> new Locator(key, xpath));
+        if (!locator.getXPath().equals(xpath)) {
+            throw new IllegalStateException("Locator " + name + " is already registered as " + locator.getXPath());
+        }
+        return locator;
+    }
+
+    public static Collection<Locator> all() {
+        return new ArrayList<>(registry.values());
+    }
+
+    /**
+     * Returns the locators of each page that took the most time on average, slowest first.
+     */
+    public static List<Locator> slowest(String page, int limit) {
+        List<Locator> locators = new ArrayList<>();
+        for (Locator locator : registry.values()) {
+            if (locator.getPage().equals(page) && locator.getResolutions() > 0) {
+                locators.add(locator);
+            }
+        }
+        locators.sort(Comparator.comparingDouble(Locator::getAverageMillis).reversed());
+        return locators.subList(0, Math.min(limit, locators.size()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.periplus.support;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page load's browser-side timings, read by {@link PageTimings}: the
+ * Navigation Timing milestones, the first paints and a summary of the
+ * Resource Timing entries. Times are milliseconds since navigation start.
+ */
+public final class PageTiming {
+    public static final String TTFB = "ttfb_ms";
+    public static final String DOM_CONTENT_LOADED = "dom_content_loaded_ms";
+    public static final String LOAD = "load_ms";
+    public static final String FIRST_PAINT = "first_paint_ms";
+    public static final String FIRST_CONTENTFUL_PAINT = "first_contentful_paint_ms";
+    public static final String RESOURCES = "resources";
+    public static final String TRANSFER_KB = "transfer_kb";
+    public static final String SLOWEST_RESOURCE = "slowest_resource_ms";
+    public static final List<String> METRICS = List.of(TTFB, DOM_CONTENT_LOADED, LOAD, FIRST_PAINT,
+            FIRST_CONTENTFUL_PAINT, RESOURCES, TRANSFER_KB, SLOWEST_RESOURCE);
+
+    private final String page;
+    private final String url;
+    private final Map<String, Double> metrics;
+
+    public PageTiming(String page, String url, Map<String, Double> metrics) {
+        this.page = page;
+        this.url = url;
+        this.metrics = Collections.unmodifiableMap(new LinkedHashMap<>(metrics));
+    }
+
+    /**
+     * Builds a timing from the value returned by the capture script. Metrics
+     * the browser did not report (e.g. no paint yet) are left out.
+     */
+    static PageTiming fromScriptResult(String page, Object result) {
+        if (!(result instanceof Map)) {
+            throw new IllegalArgumentException("Unexpected page timing result: " + result);
+        }
+        Map<?, ?> map = (Map<?, ?>) result;
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        put(metrics, TTFB, map.get("ttfb"));
+        put(metrics, DOM_CONTENT_LOADED, map.get("domContentLoaded"));
+        put(metrics, LOAD, map.get("load"));
+        put(metrics, FIRST_PAINT, map.get("firstPaint"));
+        put(metrics, FIRST_CONTENTFUL_PAINT, map.get("firstContentfulPaint"));
+        put(metrics, RESOURCES, map.get("resources"));
+        Object transferBytes = map.get("transferBytes");
+        if (transferBytes instanceof Number) {
+            put(metrics, TRANSFER_KB, ((Number) transferBytes).doubleValue() / 1024);
+        }
+        put(metrics, SLOWEST_RESOURCE, map.get("slowestResource"));
+        Object url = map.get("url");
+        return new PageTiming(page, url == null ? "" : url.toString(), metrics);
+    }
+
+    /**
+     * The page's name, e.g. "home" or "cart", as given by the page object.
+     */
+    public String getPage() {
+        return page;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * The reported metrics, keyed by the names in {@link #METRICS}.
+     */
+    public Map<String, Double> getMetrics() {
+        return metrics;
+    }
+
+    // A milestone that has not happened yet is reported as 0 by the browser
+    private static void put(Map<String, Double> metrics, String name, Object value) {
+        if (value instanceof Number && (((Number) value).doubleValue() > 0 || name.equals(RESOURCES))) {
+            metrics.put(name, ((Number) value).doubleValue());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return page + " " + metrics;
+    }
+}
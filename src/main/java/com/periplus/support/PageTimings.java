@@ -0,0 +1,107 @@
+package com.periplus.support;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide page load timings, captured by the page objects' navigation
+ * methods once their page is shown. Each capture is a single async script
+ * that waits for the load event (at most {@link #LOAD_WAIT_MS}) and returns
+ * the Navigation Timing entry, the paint entries and a summary of the
+ * Resource Timing entries together. Capturing is off until
+ * {@link #setEnabled(boolean) enabled}, so page objects used outside the
+ * suite, e.g. by load runs, pay nothing; a failed capture is logged and
+ * never fails the navigation.
+ */
+public final class PageTimings {
+    static final long LOAD_WAIT_MS = 10_000;
+    private static final EventLog events = EventLog.forClass(PageTimings.class);
+
+    // Argument: the longest time to wait for the load event in ms. Resolves with the metrics read by PageTiming.
+    private static final String CAPTURE_SCRIPT =
+            "var done = arguments[arguments.length - 1], finished = false;"
+            + "var collect = function () {"
+            + "  if (finished) { return; } finished = true;"
+            + "  var nav = performance.getEntriesByType('navigation')[0];"
+            + "  var paints = {};"
+            + "  performance.getEntriesByType('paint').forEach(function (p) { paints[p.name] = p.startTime; });"
+            + "  var resources = performance.getEntriesByType('resource'), transfer = 0, slowest = 0;"
+            + "  resources.forEach(function (r) { transfer += r.transferSize || 0; slowest = Math.max(slowest, r.duration); });"
+            + "  done({ url: location.href,"
+            + "    ttfb: nav ? nav.responseStart : null, domContentLoaded: nav ? nav.domContentLoadedEventEnd : null,"
+            + "    load: nav ? nav.loadEventEnd : null, firstPaint: paints['first-paint'],"
+            + "    firstContentfulPaint: paints['first-contentful-paint'], resources: resources.length,"
+            + "    transferBytes: transfer, slowestResource: slowest }); };"
+            // loadEventEnd is only set once the load handlers have returned, hence the extra task
+            + "if (document.readyState === 'complete') { setTimeout(collect, 0); }"
+            + "else { window.addEventListener('load', function () { setTimeout(collect, 0); }); }"
+            + "setTimeout(collect, arguments[0]);";
+
+    private static final ConcurrentLinkedQueue<PageTiming> timings = new ConcurrentLinkedQueue<>();
+    private static final List<Consumer<PageTiming>> listeners = new CopyOnWriteArrayList<>();
+    private static volatile boolean enabled;
+
+    private PageTimings() {
+    }
+
+    public static void setEnabled(boolean enabled) {
+        PageTimings.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads the current document's timings under the given page name and
+     * hands them to the listeners. Returns null when capturing is off or failed.
+     */
+    public static PageTiming capture(WebDriver driver, String page) {
+        if (!enabled || !(driver instanceof JavascriptExecutor)) {
+            return null;
+        }
+        PageTiming timing;
+        try {
+            timing = PageTiming.fromScriptResult(page, ((JavascriptExecutor) driver).executeAsyncScript(CAPTURE_SCRIPT, LOAD_WAIT_MS));
+        } catch (WebDriverException | IllegalArgumentException e) {
+            events.warning("capture", () -> "Could not read the " + page + " page timings: " + e.getMessage());
+            return null;
+        }
+        timings.add(timing);
+        events.info("capture", timing::toString);
+        for (Consumer<PageTiming> listener : listeners) {
+            listener.accept(timing);
+        }
+        return timing;
+    }
+
+    /**
+     * Registers a listener called on the capturing thread after every capture;
+     * an exception it throws, e.g. a budget assertion, fails the navigation.
+     */
+    public static void addListener(Consumer<PageTiming> listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Consumer<PageTiming> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the timings captured so far, in capture order.
+     */
+    public static List<PageTiming> snapshot() {
+        return new ArrayList<>(timings);
+    }
+
+    public static void reset() {
+        timings.clear();
+    }
+}
@@ -0,0 +1,63 @@
+package com.periplus.support;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide wait-time statistics of {@link DomWaits}, keyed by the
+ * waiting page-object method and the condition
+ * (e.g. "ShoppingCartPage.removeProduct:stale").
+ */
+public final class WaitStatistics {
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private WaitStatistics() {
+    }
+
+    static void record(String condition, long nanos, boolean satisfied) {
+        Entry entry = entries.computeIfAbsent(condition, key -> new Entry());
+        entry.count.incrementAndGet();
+        entry.totalNanos.addAndGet(nanos);
+        entry.maxNanos.accumulateAndGet(nanos, Math::max);
+        if (!satisfied) {
+            entry.timeouts.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the statistics collected so far, sorted by condition.
+     */
+    public static Map<String, Entry> snapshot() {
+        return new TreeMap<>(entries);
+    }
+
+    public static void reset() {
+        entries.clear();
+    }
+
+    public static final class Entry {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public double getAverageMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : totalNanos.get() / 1_000_000.0 / n;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        public long getTimeouts() {
+            return timeouts.get();
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.periplus.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles the XPath subset used by the page objects into an equivalent CSS
+ * selector: descendant and child steps with an element name or "*", and
+ * predicates built from and/or over @attr, @attr='v', contains(@attr,'v')
+ * and starts-with(@attr,'v'). Anything else (text(), ".", positions,
+ * functions on text) has no CSS equivalent and yields null.
+ */
+public final class XPathToCss {
+    private final String xpath;
+    private int position;
+
+    private XPathToCss(String xpath) {
+        this.xpath = xpath;
+    }
+
+    /**
+     * Returns the CSS selector matching the same elements, or null when the
+     * expression is outside the supported subset. A leading ".//" and "//"
+     * both compile to a descendant selector; callers decide which context
+     * the selector is evaluated against.
+     */
+    public static String compile(String xpath) {
+        try {
+            return new XPathToCss(xpath.trim()).path();
+        } catch (Unsupported e) {
+            return null;
+        }
+    }
+
+    private String path() {
+        if (xpath.startsWith(".//")) {
+            position = 3;
+        } else if (xpath.startsWith("//")) {
+            position = 2;
+        } else {
+            throw new Unsupported();
+        }
+        List<String> selectors = step();
+        while (position < xpath.length()) {
+            String combinator;
+            if (xpath.startsWith("//", position)) {
+                combinator = " ";
+                position += 2;
+            } else if (xpath.startsWith("/", position)) {
+                combinator = " > ";
+                position += 1;
+            } else {
+                throw new Unsupported();
+            }
+            selectors = combine(selectors, combinator, step());
+        }
+        return String.join(", ", selectors);
+    }
+
+    private List<String> step() {
+        int start = position;
+        while (position < xpath.length() && (Character.isLetterOrDigit(xpath.charAt(position))
+                || xpath.charAt(position) == '-' || xpath.charAt(position) == '_' || xpath.charAt(position) == '*')) {
+            position++;
+        }
+        String name = xpath.substring(start, position);
+        if (name.isEmpty() || (name.contains("*") && !name.equals("*"))) {
+            throw new Unsupported();
+        }
+        List<String> alternatives = List.of(name);
+        while (position < xpath.length() && xpath.charAt(position) == '[') {
+            position++;
+            List<String> predicate = orExpression();
+            expect(']');
+            alternatives = combine(alternatives, "", predicate);
+        }
+        return alternatives;
+    }
+
+    private List<String> orExpression() {
+        List<String> alternatives = new ArrayList<>(andExpression());
+        while (keyword("or")) {
+            alternatives.addAll(andExpression());
+        }
+        return alternatives;
+    }
+
+    private List<String> andExpression() {
+        List<String> alternatives = condition();
+        while (keyword("and")) {
+            alternatives = combine(alternatives, "", condition());
+        }
+        return alternatives;
+    }
+
+    private List<String> condition() {
+        skipSpaces();
+        if (xpath.startsWith("(", position)) {
+            position++;
+            List<String> inner = orExpression();
+            expect(')');
+            return inner;
+        }
+        String operator = null;
+        if (xpath.startsWith("contains(", position)) {
+            operator = "*=";
+            position += "contains(".length();
+        } else if (xpath.startsWith("starts-with(", position)) {
+            operator = "^=";
+            position += "starts-with(".length();
+        }
+        String attribute = attribute();
+        if (operator != null) {
+            expect(',');
+            String value = literal();
+            expect(')');
+            return List.of("[" + attribute + operator + quote(value) + "]");
+        }
+        skipSpaces();
+        if (position < xpath.length() && xpath.charAt(position) == '=') {
+            position++;
+            return List.of("[" + attribute + "=" + quote(literal()) + "]");
+        }
+        return List.of("[" + attribute + "]");
+    }
+
+    private String attribute() {
+        skipSpaces();
+        if (position >= xpath.length() || xpath.charAt(position) != '@') {
+            throw new Unsupported();
+        }
+        int start = ++position;
+        while (position < xpath.length() && (Character.isLetterOrDigit(xpath.charAt(position))
+                || xpath.charAt(position) == '-' || xpath.charAt(position) == '_')) {
+            position++;
+        }
+        if (start == position) {
+            throw new Unsupported();
+        }
+        return xpath.substring(start, position);
+    }
+
+    private String literal() {
+        skipSpaces();
+        if (position >= xpath.length()) {
+            throw new Unsupported();
+        }
+        char quote = xpath.charAt(position);
+        if (quote != '\'' && quote != '"') {
+            throw new Unsupported();
+        }
+        int end = xpath.indexOf(quote, position + 1);
+        if (end < 0) {
+            throw new Unsupported();
+        }
+        String value = xpath.substring(position + 1, end);
+        position = end + 1;
+        return value;
+    }
+
+    // "or"/"and" followed by a space or, as in "@a or(@b)", directly by a parenthesis
+    private boolean keyword(String word) {
+        skipSpaces();
+        int end = position + word.length();
+        if (xpath.startsWith(word, position) && end < xpath.length()
+                && (Character.isWhitespace(xpath.charAt(end)) || xpath.charAt(end) == '(')) {
+            position = end;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        skipSpaces();
+        if (position >= xpath.length() || xpath.charAt(position) != c) {
+            throw new Unsupported();
+        }
+        position++;
+    }
+
+    private void skipSpaces() {
+        while (position < xpath.length() && Character.isWhitespace(xpath.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static List<String> combine(List<String> left, String separator, List<String> right) {
+        List<String> combined = new ArrayList<>(left.size() * right.size());
+        for (String l : left) {
+            for (String r : right) {
+                combined.add(l + separator + r);
+            }
+        }
+        return combined;
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static final class Unsupported extends RuntimeException {
+        Unsupported() {
+            super(null, null, false, false);
+        }
+    }
+}
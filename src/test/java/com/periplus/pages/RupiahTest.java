@@ -0,0 +1,110 @@
+package com.periplus.pages;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class RupiahTest {
+
+    @DataProvider
+    public Object[][] prices() {
+        return new Object[][]{
+                {"Rp 180,000", 180_000L},
+                {"Rp 180.000", 180_000L},
+                {"Rp180,000", 180_000L},
+                {"Rp\u00A0180,000", 180_000L},
+                {"rp 1,234,567", 1_234_567L},
+                {"  Rp 0  ", 0L},
+                // Dual price: only the part before " or " counts
+                {"Rp 150,000 or 3 x Rp 50,000", 150_000L},
+                {"Rp 150,000 OR Rp 140,000", 150_000L},
+                // Discount: the struck-through price comes first, the last "Rp" amount wins
+                {"Rp 200,000 Rp 180,000", 180_000L},
+                {"Rp 200,000\n-10%\nRp 180,000", 180_000L},
+                {"Save 10% Rp 180,000", 180_000L},
+                // Without "Rp" the first number that is not a percentage is used
+                {"180,000", 180_000L},
+                {"10% off 50,000", 50_000L},
+                {"Qty 3", 3L},
+                // A separator not followed by exactly three digits ends the number
+                {"Rp 1,23", 1L},
+                {"Rp 12,3456", 12L},
+                {"Rp 9,223,372,036,854,775,807", Long.MAX_VALUE},
+        };
+    }
+
+    @Test(dataProvider = "prices")
+    public void parseAmountReadsTheDisplayedPrice(String text, long expected) {
+        Assert.assertEquals(Rupiah.parseAmount(text), expected, "Amount of '" + text + "'");
+        Assert.assertEquals(Rupiah.parse(text).getAmount(), expected, "Parsed '" + text + "'");
+    }
+
+    @DataProvider
+    public Object[][] textsWithoutAmount() {
+        return new Object[][]{
+                {""},
+                {"Price unavailable"},
+                {"Rp"},
+                {"-10%"},
+                // Too long for a long: not a price, and no ArithmeticException either
+                {"Rp 9,223,372,036,854,775,808"},
+                {"Rp 99999999999999999999999"},
+                {"Rp 180,000 Rp 123456789012345678901234567890"},
+        };
+    }
+
+    @Test(dataProvider = "textsWithoutAmount")
+    public void parseAmountReportsTextWithoutAmount(String text) {
+        Assert.assertEquals(Rupiah.parseAmount(text), Rupiah.NO_AMOUNT, "Amount of '" + text + "'");
+        Assert.assertThrows(IllegalArgumentException.class, () -> Rupiah.parse(text));
+    }
+
+    @Test
+    public void parseAmountOfNullIsNoAmount() {
+        Assert.assertEquals(Rupiah.parseAmount(null), Rupiah.NO_AMOUNT);
+        Assert.assertThrows(IllegalArgumentException.class, () -> Rupiah.parse(null));
+    }
+
+    @Test
+    public void negativeAmountsAreRejected() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> Rupiah.of(-1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> Rupiah.of(5_000).times(-2));
+        Assert.assertThrows(IllegalArgumentException.class, () -> Rupiah.format(-1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> Rupiah.format(Long.MIN_VALUE));
+        Assert.assertEquals(Rupiah.of(5_000).times(0), Rupiah.ZERO);
+    }
+
+    @Test
+    public void arithmeticFailsOnOverflow() {
+        Assert.assertThrows(ArithmeticException.class, () -> Rupiah.of(Long.MAX_VALUE).plus(Rupiah.of(1)));
+        Assert.assertThrows(ArithmeticException.class, () -> Rupiah.of(Long.MAX_VALUE / 2 + 1).times(2));
+        Assert.assertEquals(Rupiah.of(180_000).plus(Rupiah.of(20_000)).times(3), Rupiah.of(600_000));
+    }
+
+    @DataProvider
+    public Object[][] formats() {
+        return new Object[][]{
+                {0L, "Rp 0"},
+                {999L, "Rp 999"},
+                {1_000L, "Rp 1,000"},
+                {180_000L, "Rp 180,000"},
+                {1_234_567L, "Rp 1,234,567"},
+                {Long.MAX_VALUE, "Rp 9,223,372,036,854,775,807"},
+        };
+    }
+
+    @Test(dataProvider = "formats")
+    public void formatUsesThousandsSeparators(long amount, String expected) {
+        Assert.assertEquals(Rupiah.format(amount), expected);
+        Assert.assertEquals(Rupiah.of(amount).format(), expected);
+        Assert.assertEquals(Rupiah.parse(expected).getAmount(), amount);
+    }
+
+    @Test
+    public void valueSemantics() {
+        Assert.assertEquals(Rupiah.of(180_000), Rupiah.parse("Rp 180,000"));
+        Assert.assertEquals(Rupiah.of(180_000).hashCode(), Rupiah.parse("Rp 180.000").hashCode());
+        Assert.assertTrue(Rupiah.of(1).compareTo(Rupiah.of(2)) < 0);
+        Assert.assertSame(Rupiah.of(0), Rupiah.ZERO);
+    }
+}
@@ -0,0 +1,95 @@
+package com.periplus.support;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class XPathToCssTest {
+
+    @DataProvider
+    public Object[][] supported() {
+        return new Object[][]{
+                // Locators of the page objects
+                {"//input[@name='filter_name']", "input[name=\"filter_name\"]"},
+                {"//div[@class='row row-category-grid']", "div[class=\"row row-category-grid\"]"},
+                {"//button[@type='submit' and contains(@class,'btnn')]", "button[type=\"submit\"][class*=\"btnn\"]"},
+                {"//a[contains(@href,'Logout')]", "a[href*=\"Logout\"]"},
+                {".//p[contains(@class,'product-name')]", "p[class*=\"product-name\"]"},
+                {"//div[@class='button5']//a[contains(@onclick,'beginCheckout()')]",
+                        "div[class=\"button5\"] a[onclick*=\"beginCheckout()\"]"},
+                // Steps
+                {"//ul/li", "ul > li"},
+                {"//ul//li/a", "ul li > a"},
+                {"//*[@id]", "*[id]"},
+                {"  //div  ", "div"},
+                {"//div[@a][@b]", "div[a][b]"},
+                {"//div[ @a = 'x' ]", "div[a=\"x\"]"},
+                {"//a[starts-with(@href,'/p/')]", "a[href^=\"/p/\"]"},
+                {"//a[starts-with( @href , \"/p/\" )]", "a[href^=\"/p/\"]"},
+                // or becomes a selector list, and distributes over or
+                {"//a[@x='1' or @y='2']", "a[x=\"1\"], a[y=\"2\"]"},
+                {"//a[@x and @y or @z]", "a[x][y], a[z]"},
+                {"//div[@a and (@b or @c)]", "div[a][b], div[a][c]"},
+                {"//div[(@a or @b) and (@c or @d)]", "div[a][c], div[a][d], div[b][c], div[b][d]"},
+                {"//div[((@a))]", "div[a]"},
+                {"//div[@a or @b]//span[@c or @d]", "div[a] span[c], div[a] span[d], div[b] span[c], div[b] span[d]"},
+                // Keywords directly followed by a parenthesis
+                {"//div[@a or(@b)]", "div[a], div[b]"},
+                {"//div[@a and(@b or @c)]", "div[a][b], div[a][c]"},
+                // Attribute names that start like a keyword
+                {"//div[@a or @order]", "div[a], div[order]"},
+                {"//div[@android]", "div[android]"},
+                // Quoting
+                {"//a[@title='say \"hi\"']", "a[title=\"say \\\"hi\\\"\"]"},
+                {"//a[@title=\"it's\"]", "a[title=\"it's\"]"},
+                {"//a[@title='back\\slash']", "a[title=\"back\\\\slash\"]"},
+                {"//a[contains(@title,'')]", "a[title*=\"\"]"},
+        };
+    }
+
+    @Test(dataProvider = "supported")
+    public void compilesTheSupportedSubset(String xpath, String css) {
+        Assert.assertEquals(XPathToCss.compile(xpath), css, "CSS for " + xpath);
+    }
+
+    @DataProvider
+    public Object[][] unsupported() {
+        return new Object[][]{
+                // Text and node tests have no CSS equivalent
+                {"//div[text()='Your shopping cart is empty']"},
+                {"//div[@class='content' and text()='Your shopping cart is empty']"},
+                {"//div[contains(text(),'Rp')]"},
+                {"//div[contains(.,'Rp ')]"},
+                {"//div[.='x']"},
+                {"//div/text()"},
+                // Positions and other functions
+                {"//div[1]"},
+                {"//div[last()]"},
+                {"//div[@a][2]"},
+                {"//div[not(@a)]"},
+                {"//div[normalize-space(@a)='x']"},
+                // Axes and absolute or relative paths
+                {"//div/following-sibling::span"},
+                {"//div/.."},
+                {"/html/body"},
+                {"div"},
+                {""},
+                // Malformed expressions
+                {"//div[@a='x'"},
+                {"//div[@a='x]"},
+                {"//div[@a=x]"},
+                {"//div[@a and]"},
+                {"//div[@a or]"},
+                {"//div[@a orb]"},
+                {"//div[(@a]"},
+                {"//div[@]"},
+                {"//di*v"},
+                {"//div[contains(@a 'x')]"},
+        };
+    }
+
+    @Test(dataProvider = "unsupported")
+    public void rejectsWhatCssCannotExpress(String xpath) {
+        Assert.assertNull(XPathToCss.compile(xpath), "CSS for " + xpath);
+    }
+}
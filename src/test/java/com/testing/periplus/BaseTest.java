@@ -1,64 +1,180 @@
-
 package com.testing.periplus;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
-import io.github.cdimascio.dotenv.Dotenv;
+import com.periplus.api.PeriplusApiClient;
+import com.periplus.api.PeriplusApiException;
+import com.periplus.api.SearchResult;
+import com.periplus.pages.HomePage;
+import com.periplus.pages.PeriplusUrls;
+import com.periplus.pages.ProductDetailPage;
+import com.periplus.pages.Rupiah;
+import com.testing.periplus.support.BrowserSessions;
+import com.testing.periplus.support.HarnessConfig;
+import com.testing.periplus.support.LoginSessions;
+import com.testing.periplus.support.ProductCache;
+import com.testing.periplus.support.TestAccount;
+import com.testing.periplus.support.TestAccounts;
 import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeClass;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
-
-import java.io.File;
-import java.io.IOException;
-import java.text.NumberFormat;
-import java.time.Duration;
-import java.util.Locale;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class BaseTest {
 
-    protected WebDriver driver;
-    protected WebDriverWait wait;
-    protected final Dotenv dotenv = Dotenv.load();
-    protected final String TEST_EMAIL = dotenv.get("TEST_EMAIL");
-    protected final String TEST_PASSWORD = dotenv.get("TEST_PASSWORD");
     protected static final Logger logger = Logger.getLogger(BaseTest.class.getName());
 
+    private final ThreadLocal<Map<Class<?>, Object>> pages = ThreadLocal.withInitial(HashMap::new);
+
     @BeforeClass
     public void setUp() {
-        WebDriverManager.chromedriver().setup();
-
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--start-maximized");
-        options.addArguments("--disable-notifications");
-        options.addArguments("--disable-popup-blocking");
-        options.addArguments("--disable-web-security");
-        options.addArguments("--allow-running-insecure-content");
-
-        driver = new ChromeDriver(options);
-        wait = new WebDriverWait(driver, Duration.ofSeconds(20));
-        logger.info("Chrome browser successfully opened");
+        getDriver();
     }
 
-    @AfterClass
+    @AfterClass(alwaysRun = true)
     public void tearDown() {
-        if (driver != null) {
-            logger.info("Test completed. Browser will close in 3 seconds...");
+        if (BrowserSessions.currentOrNull() != null) {
+            BrowserSessions.release();
+            logger.info("Test completed. Browser session returned to the pool.");
+        }
+    }
+
+    @AfterSuite(alwaysRun = true)
+    public void closeRemainingBrowsers() {
+        BrowserSessions.releaseAll();
+    }
+
+    /**
+     * Returns the driver owned by the current thread.
+     */
+    protected WebDriver getDriver() {
+        return BrowserSessions.current().getDriver();
+    }
+
+    /**
+     * Returns the explicit wait bound to the current thread's driver.
+     */
+    protected WebDriverWait getWait() {
+        return BrowserSessions.current().getWait();
+    }
+
+    /**
+     * Returns the account assigned to the current thread.
+     */
+    protected TestAccount account() {
+        return TestAccounts.current();
+    }
+
+    /**
+     * Logs the current thread's browser in as its account, reusing a cached
+     * session when the account already logged in once during this suite.
+     */
+    protected void logIn() {
+        LoginSessions.logIn(getDriver(), getWait(), account());
+    }
+
+    /**
+     * Opens the detail page of the first search result for the title. A title
+     * resolved before (see {@link ProductCache}) is opened directly; if that
+     * page no longer resolves, or the title is unknown, the product is
+     * searched and its page recorded for the next time.
+     */
+    protected void openProduct(String productTitle) {
+        ProductDetailPage productDetailPage = page(ProductDetailPage.class, ProductDetailPage::new);
+        HomePage homePage = page(HomePage.class, HomePage::new);
+        ProductCache cache = ProductCache.shared();
+        ProductCache.Entry cached = cache == null ? null : cache.get(PeriplusUrls.baseUrl(), productTitle);
+        if (cached != null) {
+            if (productDetailPage.openProductPage(cached.getUrl())) {
+                return;
+            }
+            logger.info("Cached product page of '" + productTitle + "' no longer resolves; searching again.");
+            cache.invalidate(PeriplusUrls.baseUrl(), productTitle);
+            // The failed page may lack the site header with the search box
+            homePage.navigateToHomePage();
+        }
+        homePage.searchForProduct(productTitle);
+        productDetailPage.clickFirstProduct();
+        if (cache != null) {
+            getWait().until(ExpectedConditions.urlContains("/p/"));
+            Rupiah price = productDetailPage.getProductPrice();
+            cache.put(PeriplusUrls.baseUrl(), productTitle, getDriver().getCurrentUrl(), price);
+        }
+    }
+
+    /**
+     * Puts one copy of the first search result for the title into the current
+     * account's cart, as a precondition. With "preconditions.api" (default
+     * true) this is done over HTTP with the browser's cookies instead of
+     * through the search and product pages, skipping the search when the
+     * product is cached; if the API call fails, the product is added through
+     * the UI instead.
+     */
+    protected void addProductToCart(String productTitle) {
+        if (HarnessConfig.getBoolean("preconditions.api", true)) {
+            long start = System.nanoTime();
+            try {
+                PeriplusApiClient api = PeriplusApiClient.sharingCookiesWith(getDriver());
+                String added = addThroughApi(api, productTitle);
+                api.exportCookies(getDriver());
+                logger.info("Added " + added + " to the cart through the API in "
+                        + (System.nanoTime() - start) / 1_000_000 + " ms.");
+                return;
+            } catch (PeriplusApiException e) {
+                logger.warning("Adding '" + productTitle + "' through the API failed; using the UI instead. " + e.getMessage());
+            }
+        }
+        openProduct(productTitle);
+        page(ProductDetailPage.class, ProductDetailPage::new).clickAddToCartButton();
+    }
+
+    // Adds the cached product id if there is one, revalidating through the search when the shop rejects it
+    private String addThroughApi(PeriplusApiClient api, String productTitle) {
+        ProductCache cache = ProductCache.shared();
+        ProductCache.Entry cached = cache == null ? null : cache.get(PeriplusUrls.baseUrl(), productTitle);
+        if (cached != null && cached.getProductId() != null) {
             try {
-                Thread.sleep(3000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.log(Level.SEVERE, "Thread interrupted during teardown: " + e.getMessage(), e);
+                api.addToCart(cached.getProductId(), 1);
+                return "'" + productTitle + "' (" + cached.getProductId() + ", cached)";
+            } catch (PeriplusApiException e) {
+                logger.info("Cached product of '" + productTitle + "' was rejected; searching again. " + e.getMessage());
+                cache.invalidate(PeriplusUrls.baseUrl(), productTitle);
             }
-            driver.quit();
-            logger.info("Browser successfully closed");
         }
+        List<SearchResult> results = api.search(productTitle);
+        if (results.isEmpty()) {
+            throw new PeriplusApiException("No product found for '" + productTitle + "'.");
+        }
+        SearchResult result = results.get(0);
+        api.addToCart(result.getProductId(), 1);
+        if (cache != null && result.getPrice() != null) {
+            cache.put(PeriplusUrls.baseUrl(), productTitle, result.getUrl(), result.getPrice());
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the current thread's instance of a page object, creating it for
+     * the thread's driver on first use.
+     * @param type The page object class.
+     * @param factory The page object constructor.
+     */
+    protected <T> T page(Class<T> type, BiFunction<WebDriver, WebDriverWait, T> factory) {
+        WebDriver driver = getDriver();
+        Map<Class<?>, Object> threadPages = pages.get();
+        if (threadPages.get(WebDriver.class) != driver) {
+            threadPages.clear();
+            threadPages.put(WebDriver.class, driver);
+        }
+        return type.cast(threadPages.computeIfAbsent(type, key -> factory.apply(driver, getWait())));
     }
 
     /**
@@ -70,4 +186,4 @@ public class BaseTest {
         logger.log(Level.SEVERE, message + " Error: " + e.getMessage(), e);
         Assert.fail(message + " Error: " + e.getMessage());
     }
-}
\ No newline at end of file
+}
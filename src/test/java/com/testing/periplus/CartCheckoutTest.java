@@ -3,51 +3,39 @@ package com.testing.periplus;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
-import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import com.periplus.pages.HomePage;
 import com.periplus.pages.LoginPage;
-import com.periplus.pages.ProductDetailPage;
+import com.periplus.pages.Rupiah;
 import com.periplus.pages.ShoppingCartPage;
+import com.testing.periplus.support.LoginSessions;
 
+// Methods share the cart state built up by earlier ones, so they must stay on one thread.
+@Test(singleThreaded = true)
 public class CartCheckoutTest extends BaseTest {
-    private HomePage homePage;
-    private LoginPage loginPage;
-    private ProductDetailPage productDetailPage;
-    private ShoppingCartPage shoppingCartPage;
-
     private static final String productName = "Atomic Habits";
 
-    @Override
-    @BeforeClass
-    public void setUp() {
-        super.setUp();
-        homePage = new HomePage(driver, wait);
-        loginPage = new LoginPage(driver, wait);
-        productDetailPage = new ProductDetailPage(driver, wait);
-        shoppingCartPage = new ShoppingCartPage(driver, wait);
+    private HomePage homePage() {
+        return page(HomePage.class, HomePage::new);
     }
 
-    @AfterClass
-    public void clearCart() {
-        shoppingCartPage.navigateToShoppingCart();
-        shoppingCartPage.removeAllProductFromCart();
+    private LoginPage loginPage() {
+        return page(LoginPage.class, LoginPage::new);
     }
 
-    public void addedOneProduct(String productTitle) {
-        homePage.navigateToHomePage();
-        loginPage.navigateToLoginPage();
-        loginPage.performLogin(TEST_EMAIL, TEST_PASSWORD);
+    private ShoppingCartPage shoppingCartPage() {
+        return page(ShoppingCartPage.class, ShoppingCartPage::new);
+    }
 
-        wait.until(ExpectedConditions.or(
-                ExpectedConditions.urlContains("account"),
-                ExpectedConditions.urlContains("index")
-        ));
+    @AfterClass
+    public void clearCart() {
+        shoppingCartPage().removeAllProductFromCart();
+    }
 
-        homePage.searchForProduct(productTitle);
-        productDetailPage.clickFirstProduct();
-        productDetailPage.clickAddToCartButton();
+    private void addedOneProduct(String productTitle) {
+        logIn();
+        addProductToCart(productTitle);
     }
 
     @Test
@@ -57,22 +45,23 @@ public class CartCheckoutTest extends BaseTest {
             addedOneProduct(productName);
 
             // logout
-            homePage.navigateToHomePage();
-            homePage.logout();
+            homePage().navigateToHomePage();
+            homePage().logout();
+            LoginSessions.invalidate(account());
 
             // login lagi
-            loginPage.navigateToLoginPage();
-            loginPage.performLogin(TEST_EMAIL, TEST_PASSWORD);
+            loginPage().navigateToLoginPage();
+            loginPage().performLogin(account().getEmail(), account().getPassword());
 
-            wait.until(ExpectedConditions.or(
+            getWait().until(ExpectedConditions.or(
                     ExpectedConditions.urlContains("account"),
                     ExpectedConditions.urlContains("index")
             ));
 
-            shoppingCartPage.navigateToShoppingCart();
-            int productPrice = Integer.parseInt(shoppingCartPage.getPrice(productName));
-            shoppingCartPage.verifyProductInCart(productName, productPrice, 1);
-            shoppingCartPage.verifyTotalPriceInCart(productPrice);
+            shoppingCartPage().navigateToShoppingCart();
+            Rupiah productPrice = shoppingCartPage().getPrice(productName);
+            shoppingCartPage().verifyProductInCart(productName, productPrice, 1);
+            shoppingCartPage().verifyTotalPriceInCart(productPrice);
         } catch (RuntimeException e) {
             logAndFail("Error during TC CART 007 test.", e);
         }
@@ -82,17 +71,17 @@ public class CartCheckoutTest extends BaseTest {
     public void TC_CART_008_proceedToCheckout() {
         logger.info("Starting TC Cart 008: Proceeding to Checkout Test...");
 
-        shoppingCartPage.navigateToShoppingCart();
+        shoppingCartPage().navigateToShoppingCart();
 
-        String currentUrl = driver.getCurrentUrl();
+        String currentUrl = getDriver().getCurrentUrl();
         Assert.assertTrue(currentUrl.contains("checkout/cart"),
                 "Expected to be on cart page, but current URL is: " + currentUrl);
         logger.info("Successfully navigated to cart page: " + currentUrl);
 
         // Proceed to checkout
-        shoppingCartPage.proceedToCheckout();
+        shoppingCartPage().proceedToCheckout();
 
-        String checkoutUrl = driver.getCurrentUrl();
+        String checkoutUrl = getDriver().getCurrentUrl();
         Assert.assertTrue(checkoutUrl.contains("checkout/shipping_address"),
                 "Expected to be redirected to shipping address page, but current URL is: " + checkoutUrl);
 
@@ -1,36 +1,31 @@
 package com.testing.periplus;
 
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.testng.Assert;
 import org.testng.annotations.AfterMethod;
-import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import com.periplus.pages.HomePage;
-import com.periplus.pages.LoginPage;
 import com.periplus.pages.ProductDetailPage;
+import com.periplus.pages.Rupiah;
 import com.periplus.pages.ShoppingCartPage;
 
 public class CartFromEmptyTest extends BaseTest {
 
-    private HomePage homePage;
-    private LoginPage loginPage;
-    private ProductDetailPage productDetailPage;
-    private ShoppingCartPage shoppingCartPage;
-
-    @Override
-    @BeforeClass
-    public void setUp() {
-        super.setUp();
-        homePage = new HomePage(driver, wait);
-        loginPage = new LoginPage(driver, wait);
-        productDetailPage = new ProductDetailPage(driver, wait);
-        shoppingCartPage = new ShoppingCartPage(driver, wait);
+    private HomePage homePage() {
+        return page(HomePage.class, HomePage::new);
+    }
+
+    private ProductDetailPage productDetailPage() {
+        return page(ProductDetailPage.class, ProductDetailPage::new);
+    }
+
+    private ShoppingCartPage shoppingCartPage() {
+        return page(ShoppingCartPage.class, ShoppingCartPage::new);
     }
 
     @AfterMethod
     public void removeProductFromCartEachTestCase() {
-        shoppingCartPage.removeAllProductFromCart();
+        shoppingCartPage().removeAllProductFromCart();
     }
 
     @Test
@@ -40,34 +35,27 @@ public class CartFromEmptyTest extends BaseTest {
 
         try {
             // Navigate to landing page
-            homePage.navigateToHomePage();
-            Assert.assertTrue(driver.getTitle().contains("Periplus"), "Page title should contain 'Periplus'");
-            logger.info("Page title: " + driver.getTitle() + " - Verification successful.");
+            homePage().navigateToHomePage();
+            Assert.assertTrue(getDriver().getTitle().contains("Periplus"), "Page title should contain 'Periplus'");
+            logger.info("Page title: " + getDriver().getTitle() + " - Verification successful.");
 
             // Login
-            loginPage.navigateToLoginPage();
-            loginPage.performLogin(TEST_EMAIL, TEST_PASSWORD);
-
-            wait.until(ExpectedConditions.or(
-                    ExpectedConditions.urlContains("account"),
-                    ExpectedConditions.urlContains("index")
-            ));
-            logger.info("Login process completed. Current URL: " + driver.getCurrentUrl());
+            logIn();
+            logger.info("Login process completed. Current URL: " + getDriver().getCurrentUrl());
 
             // Find Selected product
-            homePage.searchForProduct(productTitle);
-            productDetailPage.clickFirstProduct();
-            productDetailPage.clickAddToCartButton();
-            int productPrice = Integer.parseInt(productDetailPage.getProductPrice());
-            logger.info("Product titled " + productTitle + " with price " + Integer.toString(productPrice) + " successfully added to cart.");
+            openProduct(productTitle);
+            productDetailPage().clickAddToCartButton();
+            Rupiah productPrice = productDetailPage().getProductPrice();
+            logger.info("Product titled " + productTitle + " with price " + productPrice + " successfully added to cart.");
 
             // Verify added product title, price, and quantity is in cart
-            shoppingCartPage.navigateToShoppingCart();
-            shoppingCartPage.verifyProductInCart(productTitle, productPrice, 1);
+            shoppingCartPage().navigateToShoppingCart();
+            shoppingCartPage().verifyProductInCart(productTitle, productPrice, 1);
             logger.info("Product title successfully added to cart and verified.");
 
             // Verify total price
-            shoppingCartPage.verifyTotalPriceInCart(productPrice);
+            shoppingCartPage().verifyTotalPriceInCart(productPrice);
             logger.info("Total price in cart calculated successfully.");
 
             logger.info("TC CART 001 Add Single Product To Cart Completed Successfully!");
@@ -84,37 +72,30 @@ public class CartFromEmptyTest extends BaseTest {
 
         try {
             // Navigate to landing page
-            homePage.navigateToHomePage();
-            Assert.assertTrue(driver.getTitle().contains("Periplus"), "Page title should contain 'Periplus'");
-            logger.info("Page title: " + driver.getTitle() + " - Verification successful.");
+            homePage().navigateToHomePage();
+            Assert.assertTrue(getDriver().getTitle().contains("Periplus"), "Page title should contain 'Periplus'");
+            logger.info("Page title: " + getDriver().getTitle() + " - Verification successful.");
 
             // Login
-            loginPage.navigateToLoginPage();
-            loginPage.performLogin(TEST_EMAIL, TEST_PASSWORD);
-
-            wait.until(ExpectedConditions.or(
-                    ExpectedConditions.urlContains("account"),
-                    ExpectedConditions.urlContains("index")
-            ));
-            logger.info("Login process completed. Current URL: " + driver.getCurrentUrl());
+            logIn();
+            logger.info("Login process completed. Current URL: " + getDriver().getCurrentUrl());
 
             // Find Selected product
-            homePage.searchForProduct(productTitle);
-            productDetailPage.clickFirstProduct();
+            openProduct(productTitle);
 
             // Set quantity to 3 and add to cart
-            productDetailPage.setQuantity(quantity); // Set quantity to 3
-            productDetailPage.clickAddToCartButton();
-            int productPrice = Integer.parseInt(productDetailPage.getProductPrice());
-            logger.info(Integer.toString(quantity) + " product titled " + productTitle + " with each price " + Integer.toString(productPrice) + " successfully added to cart.");
+            productDetailPage().setQuantity(quantity); // Set quantity to 3
+            productDetailPage().clickAddToCartButton();
+            Rupiah productPrice = productDetailPage().getProductPrice();
+            logger.info(Integer.toString(quantity) + " product titled " + productTitle + " with each price " + productPrice + " successfully added to cart.");
 
             // Verify added product title, price, and quantity is in cart
-            shoppingCartPage.navigateToShoppingCart();
-            shoppingCartPage.verifyProductInCart(productTitle, productPrice, quantity);
+            shoppingCartPage().navigateToShoppingCart();
+            shoppingCartPage().verifyProductInCart(productTitle, productPrice, quantity);
             logger.info("Product title successfully added to cart and verified.");
 
             // Verify total price
-            shoppingCartPage.verifyTotalPriceInCart(productPrice * quantity); // multipled with the quantity
+            shoppingCartPage().verifyTotalPriceInCart(productPrice.times(quantity)); // multipled with the quantity
             logger.info("Total price in cart calculated successfully.");
 
             logger.info("TC CART 002 Add Multiple Quantities of Same Product Completed Successfully!");
@@ -132,44 +113,36 @@ public class CartFromEmptyTest extends BaseTest {
 
         try  {
             // Navigate to landing page
-            homePage.navigateToHomePage();
-            Assert.assertTrue(driver.getTitle().contains("Periplus"), "Page title should contain 'Periplus'");
-            logger.info("Page title: " + driver.getTitle() + " - Verification successful.");
+            homePage().navigateToHomePage();
+            Assert.assertTrue(getDriver().getTitle().contains("Periplus"), "Page title should contain 'Periplus'");
+            logger.info("Page title: " + getDriver().getTitle() + " - Verification successful.");
 
             // Login
-            loginPage.navigateToLoginPage();
-            loginPage.performLogin(TEST_EMAIL, TEST_PASSWORD);
-
-            wait.until(ExpectedConditions.or(
-                    ExpectedConditions.urlContains("account"),
-                    ExpectedConditions.urlContains("index")
-            ));
-            logger.info("Login process completed. Current URL: " + driver.getCurrentUrl());
+            logIn();
+            logger.info("Login process completed. Current URL: " + getDriver().getCurrentUrl());
 
             // Find product 1 & add to cart
-            homePage.searchForProduct(productTitle1);
-            productDetailPage.clickFirstProduct();
-            productDetailPage.clickAddToCartButton();
-            int productPrice1 = Integer.parseInt(productDetailPage.getProductPrice());
-            logger.info("Product titled " + productTitle1 + " with price " + Integer.toString(productPrice1) + " successfully added to cart.");
+            openProduct(productTitle1);
+            productDetailPage().clickAddToCartButton();
+            Rupiah productPrice1 = productDetailPage().getProductPrice();
+            logger.info("Product titled " + productTitle1 + " with price " + productPrice1 + " successfully added to cart.");
 
-            homePage.navigateToHomePage();
+            homePage().navigateToHomePage();
 
             // Find product 2 & add to cart
-            homePage.searchForProduct(productTitle2);
-            productDetailPage.clickFirstProduct();
-            productDetailPage.clickAddToCartButton();
-            int productPrice2 = Integer.parseInt(productDetailPage.getProductPrice());
-            logger.info("Product titled " + productTitle2 + " with price " + Integer.toString(productPrice2) + " successfully added to cart.");
+            openProduct(productTitle2);
+            productDetailPage().clickAddToCartButton();
+            Rupiah productPrice2 = productDetailPage().getProductPrice();
+            logger.info("Product titled " + productTitle2 + " with price " + productPrice2 + " successfully added to cart.");
 
             // Verify added product title, price, and quantity is in cart
-            shoppingCartPage.navigateToShoppingCart();
-            shoppingCartPage.verifyProductInCart(productTitle1, productPrice1, 1);
-            shoppingCartPage.verifyProductInCart(productTitle2, productPrice2, 1);
+            shoppingCartPage().navigateToShoppingCart();
+            shoppingCartPage().verifyProductInCart(productTitle1, productPrice1, 1);
+            shoppingCartPage().verifyProductInCart(productTitle2, productPrice2, 1);
             logger.info("Products title successfully added to cart and verified.");
 
             // Verify total price
-            shoppingCartPage.verifyTotalPriceInCart(productPrice1 + productPrice2); // sum of two different products
+            shoppingCartPage().verifyTotalPriceInCart(productPrice1.plus(productPrice2)); // sum of two different products
             logger.info("Total price in cart calculated successfully.");
         } catch (Exception e) {
             logAndFail("Error during TC CART 003 test.", e);
@@ -0,0 +1,148 @@
+package com.testing.periplus;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import com.periplus.pages.CartClearResult;
+import com.periplus.pages.Rupiah;
+import com.periplus.pages.ShoppingCartPage;
+import com.testing.periplus.stub.StubCatalogue;
+import com.testing.periplus.stub.StubServerListener;
+import com.testing.periplus.support.BrowserSessions;
+import com.testing.periplus.support.LoginSessions;
+import com.testing.periplus.support.TestAccount;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+
+// Builds carts far larger than the live-site tests can, so it only runs against the stand-in shop.
+public class CartScalingTest extends BaseTest {
+    private static final Path REPORT = Paths.get("target", "cart-scaling.csv");
+    private static final String HEADER = "timestamp,items,units,navigate_ms,verify_products_ms,verify_product_avg_ms,verify_total_ms,clear_ms";
+
+    // Adds every product to the cart through the shop's add endpoint, one request after another
+    private static final String SEED_SCRIPT =
+            "var done = arguments[arguments.length - 1], items = arguments[0];"
+            + "items.reduce(function (chain, item) {"
+            + "  return chain.then(function (added) {"
+            + "    return fetch('/cart/add', { method: 'POST', credentials: 'same-origin',"
+            + "        headers: { 'Content-Type': 'application/x-www-form-urlencoded' },"
+            + "        body: new URLSearchParams({ product_id: item.id, quantity: item.quantity }).toString() })"
+            + "      .then(function (response) { return added + (response.ok ? 1 : 0); }, function () { return added; });"
+            + "  });"
+            + "}, Promise.resolve(0)).then(done);";
+
+    private ShoppingCartPage shoppingCartPage() {
+        return page(ShoppingCartPage.class, ShoppingCartPage::new);
+    }
+
+    @Override
+    @BeforeClass
+    public void setUp() {
+        if (StubServerListener.server() == null) {
+            throw new SkipException("Cart scaling scenarios need the stand-in shop (-Dperiplus.stub=true).");
+        }
+    }
+
+    @DataProvider(name = "cartSizes", parallel = true)
+    public Object[][] cartSizes() {
+        return new Object[][]{{10}, {50}, {200}};
+    }
+
+    @Test(dataProvider = "cartSizes")
+    public void TC_CART_SCALE_largeCart(int items) {
+        logger.info("Starting cart scaling scenario with " + items + " distinct items...");
+        try {
+            // Every cart size gets its own account so parallel scenarios never share a cart
+            LoginSessions.logIn(getDriver(), getWait(), new TestAccount("cart-scaling-" + items + "@stub.local", "stub"));
+            List<StubCatalogue.Product> products = catalogueProducts(items);
+            List<Integer> quantities = new ArrayList<>();
+            Rupiah expectedTotal = Rupiah.ZERO;
+            List<Map<String, Object>> seed = new ArrayList<>();
+            for (int i = 0; i < products.size(); i++) {
+                int quantity = 1 + (i % 4) * 8;
+                quantities.add(quantity);
+                expectedTotal = expectedTotal.plus(Rupiah.of(products.get(i).getPrice()).times(quantity));
+                seed.add(Map.of("id", products.get(i).getId(), "quantity", quantity));
+            }
+            Object added = ((JavascriptExecutor) getDriver()).executeAsyncScript(SEED_SCRIPT, seed);
+            Assert.assertEquals(((Number) added).intValue(), items, "Not every product could be added to the cart.");
+
+            long start = System.nanoTime();
+            shoppingCartPage().navigateToShoppingCart();
+            long navigateMillis = elapsedMillis(start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < products.size(); i++) {
+                StubCatalogue.Product product = products.get(i);
+                shoppingCartPage().verifyProductInCart(product.getName(), Rupiah.of(product.getPrice()), quantities.get(i));
+            }
+            long verifyProductsMillis = elapsedMillis(start);
+
+            start = System.nanoTime();
+            shoppingCartPage().verifyTotalPriceInCart(expectedTotal);
+            long verifyTotalMillis = elapsedMillis(start);
+
+            start = System.nanoTime();
+            CartClearResult cleared = shoppingCartPage().removeAllProductFromCart();
+            long clearMillis = elapsedMillis(start);
+            Assert.assertEquals(cleared.getRemovedItems(), items, "Not every product was removed from the cart.");
+
+            int units = quantities.stream().mapToInt(Integer::intValue).sum();
+            record(items, units, navigateMillis, verifyProductsMillis, verifyTotalMillis, clearMillis);
+            logger.info("Cart scaling scenario with " + items + " items completed: navigate " + navigateMillis
+                    + " ms, verify products " + verifyProductsMillis + " ms, verify total " + verifyTotalMillis
+                    + " ms, clear " + clearMillis + " ms.");
+        } catch (Exception e) {
+            logAndFail("Error during cart scaling scenario with " + items + " items.", e);
+        } finally {
+            // Data provider threads run no configuration methods, so they return their browser here
+            BrowserSessions.release();
+        }
+    }
+
+    private static List<StubCatalogue.Product> catalogueProducts(int items) {
+        StubCatalogue catalogue = StubServerListener.server().getCatalogue();
+        List<StubCatalogue.Product> products = new ArrayList<>();
+        for (int i = 1; i <= items; i++) {
+            // Zero-padded so that no title is contained in another one
+            products.add(catalogue.search(String.format("Scaling Title %03d", i)).get(0));
+        }
+        return products;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static synchronized void record(int items, int units, long navigateMillis, long verifyProductsMillis,
+                                            long verifyTotalMillis, long clearMillis) {
+        String row = String.join(",", Instant.now().toString(), Integer.toString(items), Integer.toString(units),
+                Long.toString(navigateMillis), Long.toString(verifyProductsMillis),
+                String.format(Locale.ROOT, "%.1f", (double) verifyProductsMillis / items),
+                Long.toString(verifyTotalMillis), Long.toString(clearMillis));
+        try {
+            Files.createDirectories(REPORT.getParent());
+            if (!Files.exists(REPORT)) {
+                Files.write(REPORT, List.of(HEADER), StandardCharsets.UTF_8);
+            }
+            Files.write(REPORT, List.of(row), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write cart scaling report: " + e.getMessage(), e);
+        }
+    }
+}
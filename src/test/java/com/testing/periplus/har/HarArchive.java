@@ -0,0 +1,336 @@
+package com.testing.periplus.har;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A HAR file compiled for replay: an index from request key to response
+ * records, followed by the records themselves (status, headers, recorded
+ * time and body). The file is memory-mapped, so only the index is read into
+ * the heap and bodies are served straight from the page cache.
+ *
+ * <p>Requests are looked up by method and URL, then by method and URL
+ * without the query string (for cache busters). When a URL was recorded
+ * several times, e.g. the cart before and after adding a product, the
+ * responses are replayed in recorded order and the last one repeats; a
+ * request body that matches a recorded one picks that response instead.
+ * URLs and bodies are compared after {@link HarRedaction}, the way they
+ * were recorded.
+ */
+final class HarArchive {
+    private static final int MAGIC = 0x48415258; // "HARX"
+    private static final int VERSION = 2; // 2: keys and request hashes after redaction
+
+    private final MappedByteBuffer buffer;
+    private final Map<String, long[]> index;
+    private final Map<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+
+    private HarArchive(MappedByteBuffer buffer, Map<String, long[]> index) {
+        this.buffer = buffer;
+        this.index = index;
+    }
+
+    /**
+     * A recorded response, with its body still in the mapped file.
+     */
+    static final class Response {
+        final int status;
+        final List<String[]> headers;
+        final long millis;
+        final ByteBuffer body;
+
+        Response(int status, List<String[]> headers, long millis, ByteBuffer body) {
+            this.status = status;
+            this.headers = headers;
+            this.millis = millis;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Opens a compiled archive, compiling the HAR file first when the archive
+     * is missing, older or of another version.
+     */
+    static HarArchive open(Path har, Path archive) throws IOException {
+        if (!Files.exists(archive) || Files.getLastModifiedTime(archive).compareTo(Files.getLastModifiedTime(har)) < 0) {
+            compile(har, archive);
+        }
+        HarArchive opened = map(archive);
+        if (opened == null) {
+            compile(har, archive);
+            opened = map(archive);
+        }
+        if (opened == null) {
+            throw new IOException(archive + " is not a version " + VERSION + " HAR archive.");
+        }
+        return opened;
+    }
+
+    // Returns null when the file is not an archive of the current version
+    private static HarArchive map(Path archive) throws IOException {
+        try (FileChannel channel = FileChannel.open(archive, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("HAR archive " + archive + " is larger than 2 GB.");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.remaining() < 8 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            long recordsStart = buffer.getLong();
+            int keys = buffer.getInt();
+            Map<String, long[]> index = new HashMap<>(keys * 2);
+            for (int i = 0; i < keys; i++) {
+                String key = readString(buffer);
+                long[] offsets = new long[buffer.getInt()];
+                for (int j = 0; j < offsets.length; j++) {
+                    offsets[j] = recordsStart + buffer.getLong();
+                }
+                index.put(key, offsets);
+            }
+            return new HarArchive(buffer, index);
+        }
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Finds the response to replay for a request, or returns null when nothing like it was recorded.
+     */
+    Response find(String method, String url, String contentType, byte[] requestBody) {
+        String normalized = normalize(HarRedaction.url(url));
+        String exact = method + " " + normalized;
+        String key = index.containsKey(exact) ? exact : "~" + method + " " + withoutQuery(normalized);
+        long[] offsets = index.get(key);
+        if (offsets == null) {
+            return null;
+        }
+        if (requestBody.length > 0) {
+            String hash = hash(HarRedaction.body(contentType, requestBody));
+            List<Long> matching = new ArrayList<>();
+            for (long offset : offsets) {
+                if (hash.equals(requestHash(offset))) {
+                    matching.add(offset);
+                }
+            }
+            if (!matching.isEmpty()) {
+                int next = cursors.computeIfAbsent(key + "#" + hash, k -> new AtomicInteger()).getAndIncrement();
+                return read(matching.get(Math.min(next, matching.size() - 1)));
+            }
+        }
+        int next = cursors.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        return read(offsets[Math.min(next, offsets.length - 1)]);
+    }
+
+    /**
+     * Compiles a HAR file, either recorded by the proxy or exported from a
+     * browser's developer tools, into an archive.
+     */
+    @SuppressWarnings("unchecked")
+    static void compile(Path har, Path archive) throws IOException {
+        Map<String, Object> root;
+        try (InputStream in = Files.newInputStream(har)) {
+            root = new Json().toType(new String(in.readAllBytes(), StandardCharsets.UTF_8), Json.MAP_TYPE);
+        }
+        List<Map<String, Object>> entries = (List<Map<String, Object>>) ((Map<String, Object>) root.get("log")).get("entries");
+
+        Path directory = archive.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Map<String, List<Long>> index = new TreeMap<>();
+        Path records = Files.createTempFile(directory, "har-records", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(records)))) {
+                for (Map<String, Object> entry : entries) {
+                    Map<String, Object> request = (Map<String, Object>) entry.get("request");
+                    String method = (String) request.get("method");
+                    String url = normalize(HarRedaction.url((String) request.get("url")));
+                    long offset = out.size();
+                    writeRecord(out, entry, hash(postData(request)));
+                    index.computeIfAbsent(method + " " + url, k -> new ArrayList<>()).add(offset);
+                    index.computeIfAbsent("~" + method + " " + withoutQuery(url), k -> new ArrayList<>()).add(offset);
+                }
+            }
+            Path temporary = Files.createTempFile(directory, "har-archive", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                byte[] indexBytes = indexBytes(index);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(4 + 4 + 8 + indexBytes.length);
+                out.write(indexBytes);
+                Files.copy(records, out);
+            }
+            try {
+                Files.move(temporary, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, archive, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(records);
+        }
+    }
+
+    /**
+     * Lower-cases scheme and host and drops default ports and fragments, so
+     * recorded and requested URLs compare equal.
+     */
+    static String normalize(String url) {
+        try {
+            URI uri = URI.create(url);
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort();
+            boolean defaultPort = port == -1 || (scheme.equals("http") && port == 80) || (scheme.equals("https") && port == 443);
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + (defaultPort ? "" : ":" + port) + path
+                    + (uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            int fragment = url.indexOf('#');
+            return fragment < 0 ? url : url.substring(0, fragment);
+        }
+    }
+
+    private static String withoutQuery(String url) {
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void writeRecord(DataOutputStream out, Map<String, Object> entry, String requestHash) throws IOException {
+        Map<String, Object> response = (Map<String, Object>) entry.get("response");
+        Map<String, Object> content = (Map<String, Object>) response.get("content");
+        boolean raw = Boolean.TRUE.equals(content.get("_raw"));
+        byte[] body = body(content);
+
+        List<String[]> headers = new ArrayList<>();
+        for (Map<String, Object> header : (List<Map<String, Object>>) response.get("headers")) {
+            String name = (String) header.get("name");
+            // Exported HARs hold decoded bodies, so their encoding headers no longer apply
+            if (name.startsWith(":") || HttpWire.isFraming(name) || (!raw && name.equalsIgnoreCase("Content-Encoding"))) {
+                continue;
+            }
+            headers.add(new String[]{name, (String) header.get("value")});
+        }
+
+        out.writeInt(((Number) response.get("status")).intValue());
+        writeString(out, requestHash);
+        out.writeLong(entry.get("time") instanceof Number ? ((Number) entry.get("time")).longValue() : 0);
+        out.writeInt(headers.size());
+        for (String[] header : headers) {
+            writeString(out, header[0]);
+            writeString(out, header[1]);
+        }
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    private Response read(long offset) {
+        ByteBuffer record = buffer.duplicate();
+        record.position((int) offset);
+        int status = record.getInt();
+        readString(record);
+        long millis = record.getLong();
+        int headerCount = record.getInt();
+        List<String[]> headers = new ArrayList<>(headerCount);
+        for (int i = 0; i < headerCount; i++) {
+            headers.add(new String[]{readString(record), readString(record)});
+        }
+        int length = record.getInt();
+        ByteBuffer body = record.slice();
+        body.limit(length);
+        return new Response(status, headers, millis, body);
+    }
+
+    private String requestHash(long offset) {
+        ByteBuffer record = buffer.duplicate();
+        record.position((int) offset + 4);
+        return readString(record);
+    }
+
+    private static byte[] indexBytes(Map<String, List<Long>> index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(index.size());
+            for (Map.Entry<String, List<Long>> key : index.entrySet()) {
+                writeString(out, key.getKey());
+                out.writeInt(key.getValue().size());
+                for (long offset : key.getValue()) {
+                    out.writeLong(offset);
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static byte[] postData(Map<String, Object> request) {
+        Map<String, Object> postData = (Map<String, Object>) request.get("postData");
+        if (postData == null || postData.get("text") == null) {
+            return new byte[0];
+        }
+        String text = (String) postData.get("text");
+        byte[] body = "base64".equals(postData.get("_encoding")) ? Base64.getDecoder().decode(text) : text.getBytes(StandardCharsets.UTF_8);
+        return HarRedaction.body((String) postData.get("mimeType"), body);
+    }
+
+    private static byte[] body(Map<String, Object> content) {
+        String text = (String) content.get("text");
+        if (text == null) {
+            return new byte[0];
+        }
+        return "base64".equals(content.get("encoding")) ? Base64.getDecoder().decode(text) : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String hash(byte[] bytes) {
+        if (bytes.length == 0) {
+            return "";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
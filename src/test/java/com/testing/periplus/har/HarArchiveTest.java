@@ -0,0 +1,226 @@
+package com.testing.periplus.har;
+
+import com.testing.periplus.support.TemporaryDirectoryTest;
+import org.openqa.selenium.json.Json;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class HarArchiveTest extends TemporaryDirectoryTest {
+    private static final String SITE = "https://www.periplus.com";
+
+    private Path har;
+    private Path archive;
+
+    @BeforeMethod
+    public void resolveFiles() {
+        har = directory.resolve("periplus.har");
+        archive = directory.resolve("periplus.har.archive");
+    }
+
+    @Test
+    public void responsesRoundTripThroughTheArchive() throws IOException {
+        Map<String, Object> page = entry("GET", SITE + "/", null, 200, "<html>home</html>", 85);
+        header(page, "Content-Type", "text/html; charset=UTF-8");
+        header(page, "Content-Length", "17");
+        header(page, "Content-Encoding", "gzip");
+        header(page, ":status", "200");
+        Map<String, Object> image = entry("GET", SITE + "/logo.png", null, 200, null, 12);
+        content(image).put("text", Base64.getEncoder().encodeToString(new byte[]{(byte) 0x89, 'P', 'N', 'G'}));
+        content(image).put("encoding", "base64");
+        write(page, image);
+
+        HarArchive opened = HarArchive.open(har, archive);
+
+        HarArchive.Response response = opened.find("GET", SITE + "/", null, new byte[0]);
+        Assert.assertEquals(response.status, 200);
+        Assert.assertEquals(response.millis, 85);
+        Assert.assertEquals(response.headers.size(), 1, "Framing, pseudo and decoded encoding headers are dropped");
+        Assert.assertEquals(response.headers.get(0), new String[]{"Content-Type", "text/html; charset=UTF-8"});
+        Assert.assertEquals(text(response.body), "<html>home</html>");
+        Assert.assertEquals(bytes(opened.find("GET", SITE + "/logo.png", null, new byte[0]).body),
+                new byte[]{(byte) 0x89, 'P', 'N', 'G'});
+    }
+
+    @Test
+    public void rawResponsesKeepTheirContentEncoding() throws IOException {
+        Map<String, Object> page = entry("GET", SITE + "/", null, 200, "gzipped", 1);
+        header(page, "Content-Encoding", "gzip");
+        content(page).put("_raw", true);
+        write(page);
+
+        HarArchive.Response response = HarArchive.open(har, archive).find("GET", SITE + "/", null, new byte[0]);
+
+        Assert.assertEquals(response.headers.get(0), new String[]{"Content-Encoding", "gzip"});
+    }
+
+    @Test
+    public void urlsAreComparedAfterNormalization() throws IOException {
+        write(entry("GET", "HTTPS://WWW.Periplus.com:443/checkout/cart#top", null, 200, "cart", 1));
+
+        HarArchive opened = HarArchive.open(har, archive);
+
+        Assert.assertNotNull(opened.find("GET", SITE + "/checkout/cart", null, new byte[0]));
+        Assert.assertNotNull(opened.find("GET", "https://www.periplus.com:443/checkout/cart#bottom", null, new byte[0]));
+        Assert.assertEquals(HarArchive.normalize("http://Example.com:80"), "http://example.com/");
+        Assert.assertEquals(HarArchive.normalize("http://example.com:8080/a?b=1#c"), "http://example.com:8080/a?b=1");
+    }
+
+    @Test
+    public void unrecordedRequestsAreMisses() throws IOException {
+        write(entry("GET", SITE + "/checkout/cart", null, 200, "cart", 1));
+
+        HarArchive opened = HarArchive.open(har, archive);
+
+        Assert.assertEquals(opened.size(), 2, "Exact and query-less key");
+        Assert.assertNull(opened.find("GET", SITE + "/account/Your-Account", null, new byte[0]));
+        Assert.assertNull(opened.find("POST", SITE + "/checkout/cart", null, new byte[0]));
+        Assert.assertNull(opened.find("GET", "https://staging.periplus.com/checkout/cart", null, new byte[0]));
+    }
+
+    @Test
+    public void queryStringFallsBackToTheRecordedPath() throws IOException {
+        write(entry("GET", SITE + "/product/Search?filter_name=hobbit", null, 200, "results", 1),
+                entry("GET", SITE + "/js/app.js?v=1", null, 200, "app", 1));
+
+        HarArchive opened = HarArchive.open(har, archive);
+
+        Assert.assertEquals(text(opened.find("GET", SITE + "/product/Search?filter_name=hobbit", null, new byte[0]).body), "results");
+        Assert.assertEquals(text(opened.find("GET", SITE + "/js/app.js?v=2", null, new byte[0]).body), "app");
+        Assert.assertEquals(text(opened.find("GET", SITE + "/js/app.js", null, new byte[0]).body), "app");
+    }
+
+    @Test
+    public void repeatedUrlsAreReplayedInRecordedOrder() throws IOException {
+        write(entry("GET", SITE + "/checkout/cart", null, 200, "empty", 1),
+                entry("GET", SITE + "/checkout/cart", null, 200, "one item", 1),
+                entry("GET", SITE + "/checkout/cart", null, 200, "two items", 1));
+
+        HarArchive opened = HarArchive.open(har, archive);
+
+        List<String> bodies = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            bodies.add(text(opened.find("GET", SITE + "/checkout/cart", null, new byte[0]).body));
+        }
+        Assert.assertEquals(bodies, List.of("empty", "one item", "two items", "two items"));
+    }
+
+    @Test
+    public void matchingRequestBodyPicksItsResponse() throws IOException {
+        String form = "application/x-www-form-urlencoded";
+        write(entry("POST", SITE + "/cart/add", "product_id=1&quantity=1", 200, "added 1", 1),
+                entry("POST", SITE + "/cart/add", "product_id=2&quantity=1", 200, "added 2", 1));
+
+        HarArchive opened = HarArchive.open(har, archive);
+
+        Assert.assertEquals(text(opened.find("POST", SITE + "/cart/add", form, body("product_id=2&quantity=1")).body), "added 2");
+        Assert.assertEquals(text(opened.find("POST", SITE + "/cart/add", form, body("product_id=1&quantity=1")).body), "added 1");
+        // An unknown body falls back to recorded order
+        Assert.assertEquals(text(opened.find("POST", SITE + "/cart/add", form, body("product_id=3&quantity=1")).body), "added 1");
+    }
+
+    @Test
+    public void staleArchiveIsRecompiled() throws IOException {
+        write(entry("GET", SITE + "/", null, 200, "old", 1));
+        HarArchive.open(har, archive);
+        write(entry("GET", SITE + "/", null, 200, "new", 1));
+        Files.setLastModifiedTime(archive, FileTime.fromMillis(Files.getLastModifiedTime(har).toMillis() - 60_000));
+
+        HarArchive opened = HarArchive.open(har, archive);
+
+        Assert.assertEquals(text(opened.find("GET", SITE + "/", null, new byte[0]).body), "new");
+    }
+
+    @Test
+    public void archiveOfAnotherVersionIsRecompiled() throws IOException {
+        write(entry("GET", SITE + "/", null, 200, "home", 1));
+        Files.write(archive, new byte[]{0x48, 0x41, 0x52, 0x58, 0, 0, 0, 1, 0, 0, 0, 0});
+        Files.setLastModifiedTime(archive, FileTime.fromMillis(Files.getLastModifiedTime(har).toMillis() + 60_000));
+
+        HarArchive opened = HarArchive.open(har, archive);
+
+        Assert.assertEquals(text(opened.find("GET", SITE + "/", null, new byte[0]).body), "home");
+    }
+
+    @Test
+    public void emptyRecordingGivesAnEmptyArchive() throws IOException {
+        write();
+
+        HarArchive opened = HarArchive.open(har, archive);
+
+        Assert.assertEquals(opened.size(), 0);
+        Assert.assertNull(opened.find("GET", SITE + "/", null, new byte[0]));
+    }
+
+    @SafeVarargs
+    private void write(Map<String, Object>... entries) throws IOException {
+        Map<String, Object> log = new LinkedHashMap<>();
+        log.put("version", "1.2");
+        log.put("entries", List.of(entries));
+        Files.write(har, new Json().toJson(Map.of("log", log)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Object> entry(String method, String url, String requestBody, int status, String text, long time) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("method", method);
+        request.put("url", url);
+        request.put("headers", new ArrayList<>());
+        if (requestBody != null) {
+            Map<String, Object> postData = new LinkedHashMap<>();
+            postData.put("mimeType", "application/x-www-form-urlencoded");
+            postData.put("text", requestBody);
+            request.put("postData", postData);
+        }
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("mimeType", "text/html");
+        content.put("text", text);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", status);
+        response.put("headers", new ArrayList<>());
+        response.put("content", content);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("time", time);
+        entry.put("request", request);
+        entry.put("response", response);
+        return entry;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void header(Map<String, Object> entry, String name, String value) {
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("name", name);
+        header.put("value", value);
+        ((List<Object>) ((Map<String, Object>) entry.get("response")).get("headers")).add(header);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> content(Map<String, Object> entry) {
+        return (Map<String, Object>) ((Map<String, Object>) entry.get("response")).get("content");
+    }
+
+    private static byte[] body(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    private static String text(ByteBuffer buffer) {
+        return new String(bytes(buffer), StandardCharsets.UTF_8);
+    }
+}
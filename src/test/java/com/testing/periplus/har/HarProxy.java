@@ -0,0 +1,410 @@
+package com.testing.periplus.har;
+
+import com.testing.periplus.support.HarnessConfig;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An HTTP proxy inside the test JVM that Chrome sends all its traffic
+ * through. In record mode it forwards every request to the real site and
+ * writes the exchanges to a HAR file; in replay mode it answers from that
+ * file, compiled into a memory-mapped {@link HarArchive}, and never touches
+ * the network, so page loads are deterministic and work offline.
+ *
+ * <p>HTTPS is intercepted: CONNECT tunnels are terminated with a self-signed
+ * certificate that Chrome is told to accept, kept in "har.keystore"
+ * (default .cache/har-proxy.p12); compiled archives are kept in
+ * "har.archive.dir" (default .cache/har).
+ * Replayed responses can be delayed to model a network with
+ * "har.replay.latency" (none, recorded or fixed), "har.replay.latencyMs"
+ * and "har.replay.bandwidthKbps".
+ */
+public final class HarProxy implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(HarProxy.class.getName());
+    private static final char[] KEYSTORE_PASSWORD = "periplus-har".toCharArray();
+    private static final int CHUNK = 16 * 1024;
+    private static volatile HarProxy current;
+
+    public enum Mode { RECORD, REPLAY }
+
+    private final Mode mode;
+    private final Path harFile;
+    private final HarRecorder recorder;
+    private final HarArchive archive;
+    private final HttpClient client;
+    private final SSLContext tls;
+    private final String latency = HarnessConfig.get("har.replay.latency", "none").toLowerCase(Locale.ROOT);
+    private final int fixedLatencyMs = HarnessConfig.getInt("har.replay.latencyMs", 0);
+    private final int bandwidthKbps = HarnessConfig.getInt("har.replay.bandwidthKbps", 0);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong forwarded = new AtomicLong();
+    private final Set<String> missed = ConcurrentHashMap.newKeySet();
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "har-proxy");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private HarProxy(Mode mode, Path harFile) throws IOException {
+        this.mode = mode;
+        this.harFile = harFile;
+        if (mode == Mode.RECORD) {
+            recorder = new HarRecorder();
+            archive = null;
+            client = HttpClient.newBuilder()
+                    .followRedirects(HttpClient.Redirect.NEVER)
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .build();
+        } else {
+            if (!Files.exists(harFile)) {
+                throw new IllegalStateException("No HAR file to replay at " + harFile.toAbsolutePath()
+                        + "; record one first with -Dhar.mode=record.");
+            }
+            recorder = null;
+            Path archiveDirectory = Paths.get(HarnessConfig.get("har.archive.dir", ".cache/har"));
+            archive = HarArchive.open(harFile, archiveDirectory.resolve(harFile.getFileName() + ".archive"));
+            client = null;
+        }
+        tls = serverContext();
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        executor.execute(this::accept);
+    }
+
+    /**
+     * Starts the proxy and makes it the one new browsers are pointed at.
+     */
+    public static synchronized HarProxy start(Mode mode, Path harFile) {
+        if (current != null) {
+            throw new IllegalStateException("A HAR proxy is already running on port " + current.getPort() + ".");
+        }
+        try {
+            current = new HarProxy(mode, harFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the HAR proxy for " + harFile + ".", e);
+        }
+        logger.info("HAR proxy " + mode.name().toLowerCase(Locale.ROOT) + "ing " + harFile + " on 127.0.0.1:" + current.getPort()
+                + (current.archive == null ? "" : " (" + current.archive.size() + " index keys)"));
+        return current;
+    }
+
+    /**
+     * Returns the running proxy, or null when browsers connect directly.
+     */
+    public static HarProxy current() {
+        return current;
+    }
+
+    /**
+     * Combines HAR files recorded separately, e.g. by the shards of one run, into one.
+     */
+    public static void mergeRecordings(List<Path> recordings, Path harFile) throws IOException {
+        HarRecorder.merge(recordings, harFile);
+        logger.info("Merged " + recordings.size() + " HAR recording(s) into " + harFile.toAbsolutePath());
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Stops accepting connections and, when recording, writes the HAR file.
+     */
+    @Override
+    public void close() {
+        synchronized (HarProxy.class) {
+            if (current == this) {
+                current = null;
+            }
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Failed to close the HAR proxy socket.", e);
+        }
+        executor.shutdownNow();
+        if (mode == Mode.RECORD) {
+            try {
+                recorder.write(harFile);
+                logger.info("Recorded " + recorder.size() + " exchanges to " + harFile.toAbsolutePath());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write the HAR file " + harFile + ".", e);
+            }
+        } else {
+            List<String> examples = new ArrayList<>(missed);
+            logger.info(String.format(Locale.ROOT, "HAR replay: %d hits, %d misses%s", hits.get(), misses.get(),
+                    examples.isEmpty() ? "" : "; not recorded: " + String.join(", ", examples.subList(0, Math.min(10, examples.size())))));
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getForwarded() {
+        return forwarded.get();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                executor.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    logger.log(Level.WARNING, "HAR proxy failed to accept a connection.", e);
+                }
+            } catch (RejectedExecutionException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket plain = socket) {
+            plain.setSoTimeout((int) TimeUnit.MINUTES.toMillis(2));
+            InputStream in = new BufferedInputStream(plain.getInputStream());
+            OutputStream out = new BufferedOutputStream(plain.getOutputStream());
+            HttpWire.Request request = HttpWire.readRequest(in);
+            if (request == null) {
+                return;
+            }
+            if (request.method.equals("CONNECT")) {
+                out.write("HTTP/1.1 200 Connection Established\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+                String authority = request.target.endsWith(":443")
+                        ? request.target.substring(0, request.target.length() - 4) : request.target;
+                try (SSLSocket secure = (SSLSocket) tls.getSocketFactory().createSocket(plain, in, true)) {
+                    secure.setUseClientMode(false);
+                    secure.startHandshake();
+                    exchangeAll("https://" + authority, new BufferedInputStream(secure.getInputStream()),
+                            new BufferedOutputStream(secure.getOutputStream()), null);
+                }
+            } else {
+                exchangeAll(null, in, out, request);
+            }
+        } catch (SocketException | SocketTimeoutException | SSLException | EOFException e) {
+            // The browser closed or abandoned the connection
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.FINE, "HAR proxy connection failed.", e);
+        }
+    }
+
+    // Serves requests on one connection until either side closes it; origin is null for plain HTTP proxy requests
+    private void exchangeAll(String origin, InputStream in, OutputStream out, HttpWire.Request first) throws IOException {
+        HttpWire.Request request = first != null ? first : HttpWire.readRequest(in);
+        while (request != null) {
+            String url = origin == null ? request.target : origin + request.target;
+            exchange(request, url, out);
+            out.flush();
+            if (!request.keepAlive()) {
+                return;
+            }
+            request = HttpWire.readRequest(in);
+        }
+    }
+
+    private void exchange(HttpWire.Request request, String url, OutputStream out) throws IOException {
+        boolean bodyless = request.method.equals("HEAD");
+        if (mode == Mode.REPLAY) {
+            HarArchive.Response response = archive.find(request.method, url, request.header("Content-Type"), request.body);
+            if (response == null) {
+                misses.incrementAndGet();
+                missed.add(request.method + " " + url);
+                byte[] body = ("Not in " + harFile.getFileName() + ": " + request.method + " " + url).getBytes(StandardCharsets.UTF_8);
+                HttpWire.writeHead(out, 404, List.<String[]>of(new String[]{"Content-Type", "text/plain; charset=utf-8"}), body.length);
+                out.write(body);
+                return;
+            }
+            hits.incrementAndGet();
+            sleep(latency.equals("recorded") ? response.millis : latency.equals("fixed") ? fixedLatencyMs : 0);
+            boolean noBody = bodyless || hasNoBody(response.status);
+            HttpWire.writeHead(out, response.status, response.headers, noBody ? -1 : response.body.remaining());
+            if (!noBody) {
+                writeThrottled(out, response.body.duplicate());
+            }
+            return;
+        }
+
+        Instant started = Instant.now();
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = client.send(forward(request, url), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException | IllegalArgumentException e) {
+            byte[] body = ("HAR proxy could not reach " + url + ": " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+            HttpWire.writeHead(out, 502, List.<String[]>of(new String[]{"Content-Type", "text/plain; charset=utf-8"}), body.length);
+            out.write(body);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while forwarding " + url, e);
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        forwarded.incrementAndGet();
+
+        List<String[]> headers = new ArrayList<>();
+        for (Map.Entry<String, List<String>> header : response.headers().map().entrySet()) {
+            if (!header.getKey().startsWith(":")) {
+                for (String value : header.getValue()) {
+                    headers.add(new String[]{header.getKey(), value});
+                }
+            }
+        }
+        byte[] body = response.body();
+        boolean noBody = bodyless || hasNoBody(response.statusCode());
+        HttpWire.writeHead(out, response.statusCode(), headers, noBody ? -1 : body.length);
+        if (!noBody) {
+            out.write(body);
+        }
+        recorder.record(started, millis, request, url, response.statusCode(), headers, body);
+    }
+
+    private static HttpRequest forward(HttpWire.Request request, String url) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(60))
+                .method(request.method, request.body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(request.body));
+        for (String[] header : request.headers) {
+            if (HttpWire.isFraming(header[0]) || header[0].equalsIgnoreCase("Host") || header[0].equalsIgnoreCase("Expect")) {
+                continue;
+            }
+            try {
+                builder.header(header[0], header[1]);
+            } catch (IllegalArgumentException e) {
+                // A header HttpClient sets itself
+            }
+        }
+        return builder.build();
+    }
+
+    private static boolean hasNoBody(int status) {
+        return status < 200 || status == 204 || status == 304;
+    }
+
+    private void writeThrottled(OutputStream out, ByteBuffer body) throws IOException {
+        byte[] chunk = new byte[CHUNK];
+        while (body.hasRemaining()) {
+            int length = Math.min(chunk.length, body.remaining());
+            body.get(chunk, 0, length);
+            out.write(chunk, 0, length);
+            if (bandwidthKbps > 0) {
+                out.flush();
+                sleep(length * 8L / bandwidthKbps);
+            }
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while shaping a replayed response.", e);
+        }
+    }
+
+    /**
+     * A TLS context with the proxy's self-signed certificate, generated with
+     * keytool on first use. Chrome runs with --ignore-certificate-errors, so
+     * one certificate serves every host.
+     */
+    private static SSLContext serverContext() throws IOException {
+        Path keystore = Paths.get(HarnessConfig.get("har.keystore", ".cache/har-proxy.p12"));
+        if (!Files.exists(keystore)) {
+            generateKeystore(keystore);
+        }
+        try (InputStream in = Files.newInputStream(keystore)) {
+            KeyStore keyStore = KeyStore.getInstance("PKCS12");
+            keyStore.load(in, KEYSTORE_PASSWORD);
+            KeyManagerFactory keyManagers = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagers.init(keyStore, KEYSTORE_PASSWORD);
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(keyManagers.getKeyManagers(), null, null);
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to load the HAR proxy certificate from " + keystore + ".", e);
+        }
+    }
+
+    private static void generateKeystore(Path keystore) throws IOException {
+        Path directory = keystore.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        // A name of its own, as shards may create the keystore at the same time; keytool wants no file there yet
+        Path temporary = Files.createTempFile(directory, "har-proxy", ".p12.tmp");
+        Files.delete(temporary);
+        String keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool").toString();
+        String password = new String(KEYSTORE_PASSWORD);
+        Process process = new ProcessBuilder(keytool, "-genkeypair", "-alias", "har-proxy", "-keyalg", "RSA", "-keysize", "2048",
+                "-validity", "3650", "-dname", "CN=Periplus HAR proxy", "-ext", "SAN=dns:localhost,ip:127.0.0.1",
+                "-storetype", "PKCS12", "-keystore", temporary.toString(), "-storepass", password, "-keypass", password)
+                .redirectErrorStream(true)
+                .start();
+        try {
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (!process.waitFor(1, TimeUnit.MINUTES) || process.exitValue() != 0) {
+                throw new IOException("keytool failed to create the HAR proxy certificate: " + output.trim());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while creating the HAR proxy certificate.", e);
+        }
+        Files.move(temporary, keystore, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,41 @@
+package com.testing.periplus.har;
+
+import com.testing.periplus.support.HarnessConfig;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Starts the {@link HarProxy} for the suite when "har.mode" is record or
+ * replay (default off), on the HAR file "har.file" (default
+ * har/periplus.har). Registered before BrowserPrestartListener, so every
+ * browser, including the profile template's, goes through the proxy.
+ *
+ * <p>The API precondition client talks to the shop directly, so it is
+ * switched off ("preconditions.api=false") unless set explicitly; carts and
+ * logins are then prepared through the browser and recorded with the rest.
+ */
+public class HarProxyListener implements ISuiteListener {
+
+    @Override
+    public void onStart(ISuite suite) {
+        String mode = HarnessConfig.get("har.mode", "off").toUpperCase(Locale.ROOT);
+        if (mode.equals("OFF") || HarProxy.current() != null) {
+            return;
+        }
+        if (System.getProperty("preconditions.api") == null) {
+            System.setProperty("preconditions.api", "false");
+        }
+        HarProxy.start(HarProxy.Mode.valueOf(mode), Paths.get(HarnessConfig.get("har.file", "har/periplus.har")));
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        HarProxy running = HarProxy.current();
+        if (running != null) {
+            running.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.testing.periplus.har;
+
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects the exchanges the proxy forwards and writes them as a HAR 1.2
+ * file. Response bodies are kept exactly as the server sent them, still
+ * compressed when it compressed them, and marked "_raw" so the
+ * {@link HarArchive} replays them byte for byte with their original headers.
+ * Credentials in URLs, headers and request bodies are redacted by
+ * {@link HarRedaction} before anything is kept.
+ */
+final class HarRecorder {
+    private final ConcurrentLinkedQueue<Map<String, Object>> entries = new ConcurrentLinkedQueue<>();
+
+    void record(Instant started, long millis, HttpWire.Request request, String url,
+                int status, List<String[]> responseHeaders, byte[] responseBody) {
+        String redactedUrl = HarRedaction.url(url);
+        String requestContentType = request.header("Content-Type");
+        byte[] requestBody = HarRedaction.body(requestContentType, request.body);
+        Map<String, Object> requestJson = new LinkedHashMap<>();
+        requestJson.put("method", request.method);
+        requestJson.put("url", redactedUrl);
+        requestJson.put("httpVersion", request.version);
+        requestJson.put("cookies", List.of());
+        requestJson.put("headers", headers(HarRedaction.headers(request.headers)));
+        requestJson.put("queryString", queryString(redactedUrl));
+        if (requestBody.length > 0) {
+            Map<String, Object> postData = new LinkedHashMap<>();
+            postData.put("mimeType", requestContentType == null ? "" : requestContentType);
+            postData.put("text", Base64.getEncoder().encodeToString(requestBody));
+            postData.put("_encoding", "base64");
+            requestJson.put("postData", postData);
+        }
+        requestJson.put("headersSize", -1);
+        requestJson.put("bodySize", requestBody.length);
+
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("size", responseBody.length);
+        String contentType = HttpWire.header(responseHeaders, "Content-Type");
+        content.put("mimeType", contentType == null ? "" : contentType);
+        content.put("text", Base64.getEncoder().encodeToString(responseBody));
+        content.put("encoding", "base64");
+        content.put("_raw", true);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("status", status);
+        response.put("statusText", HttpWire.reason(status));
+        response.put("httpVersion", "HTTP/1.1");
+        response.put("cookies", List.of());
+        response.put("headers", headers(HarRedaction.headers(responseHeaders)));
+        response.put("content", content);
+        String location = HttpWire.header(responseHeaders, "Location");
+        response.put("redirectURL", location == null ? "" : location);
+        response.put("headersSize", -1);
+        response.put("bodySize", responseBody.length);
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("startedDateTime", started.toString());
+        entry.put("time", millis);
+        entry.put("request", requestJson);
+        entry.put("response", response);
+        entry.put("cache", Map.of());
+        entry.put("timings", Map.of("send", 0, "wait", millis, "receive", 0));
+        entries.add(entry);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the recorded entries in the order the requests started.
+     */
+    void write(Path file) throws IOException {
+        write(new ArrayList<>(entries), file);
+    }
+
+    /**
+     * Writes the entries of several recordings, e.g. one per shard, into one
+     * HAR file, in the order the requests started.
+     */
+    @SuppressWarnings("unchecked")
+    static void merge(List<Path> recordings, Path file) throws IOException {
+        List<Map<String, Object>> merged = new ArrayList<>();
+        for (Path recording : recordings) {
+            Map<String, Object> root = new Json().toType(new String(Files.readAllBytes(recording), StandardCharsets.UTF_8), Json.MAP_TYPE);
+            merged.addAll((List<Map<String, Object>>) ((Map<String, Object>) root.get("log")).get("entries"));
+        }
+        write(merged, file);
+    }
+
+    private static void write(List<Map<String, Object>> ordered, Path file) throws IOException {
+        ordered.sort(Comparator.comparing(entry -> Instant.parse((String) entry.get("startedDateTime"))));
+        Map<String, Object> log = new LinkedHashMap<>();
+        log.put("version", "1.2");
+        log.put("creator", Map.of("name", "periplus-har-proxy", "version", "1.0"));
+        log.put("pages", List.of());
+        log.put("entries", ordered);
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "har", ".tmp");
+        Files.write(temporary, new Json().toJson(Map.of("log", log)).getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static List<Map<String, String>> headers(List<String[]> headers) {
+        List<Map<String, String>> json = new ArrayList<>(headers.size());
+        for (String[] header : headers) {
+            Map<String, String> pair = new LinkedHashMap<>();
+            pair.put("name", header[0]);
+            pair.put("value", header[1]);
+            json.add(pair);
+        }
+        return json;
+    }
+
+    private static List<Map<String, String>> queryString(String url) {
+        List<Map<String, String>> json = new ArrayList<>();
+        String query;
+        try {
+            query = URI.create(url).getRawQuery();
+        } catch (IllegalArgumentException e) {
+            return json;
+        }
+        if (query == null) {
+            return json;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            Map<String, String> pair = new LinkedHashMap<>();
+            pair.put("name", equals < 0 ? parameter : parameter.substring(0, equals));
+            pair.put("value", equals < 0 ? "" : parameter.substring(equals + 1));
+            json.add(pair);
+        }
+        return json;
+    }
+}
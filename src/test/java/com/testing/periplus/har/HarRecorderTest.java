@@ -0,0 +1,151 @@
+package com.testing.periplus.har;
+
+import com.testing.periplus.support.TemporaryDirectoryTest;
+import org.openqa.selenium.json.Json;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+public class HarRecorderTest extends TemporaryDirectoryTest {
+    private static final String LOGIN_URL = "https://www.periplus.com/account/Login?return=%2Fcheckout%2Fcart&token=t0k3n";
+    private static final String PASSWORD = "s3cr3t-Pa55";
+    private static final String LOGIN_BODY = "email=user%40example.com&password=" + PASSWORD + "&remember=1";
+
+    @Test
+    public void recordedLoginContainsNoCredentials() throws IOException {
+        Path har = recordLogin();
+        String text = new String(Files.readAllBytes(har), StandardCharsets.UTF_8);
+        for (String secret : new String[]{PASSWORD, "t0k3n", "abc123", "n3wS3ss10n", "dXNlcjpwYXNz", "c5rf"}) {
+            Assert.assertFalse(text.contains(secret), "HAR contains " + secret);
+        }
+
+        Map<String, Object> request = entry(har, "request");
+        Assert.assertEquals(request.get("url"), "https://www.periplus.com/account/Login?return=%2Fcheckout%2Fcart&token=redacted");
+        Assert.assertEquals(header(request, "Cookie"), "PHPSESSID=redacted; currency=redacted");
+        Assert.assertEquals(header(request, "Authorization"), "Basic redacted");
+        Assert.assertEquals(header(request, "X-CSRF-Token"), "redacted");
+        Assert.assertEquals(header(request, "User-Agent"), "Chrome");
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> postData = (Map<String, Object>) request.get("postData");
+        String body = new String(Base64.getDecoder().decode((String) postData.get("text")), StandardCharsets.UTF_8);
+        Assert.assertEquals(body, "email=user%40example.com&password=redacted&remember=1");
+
+        Map<String, Object> response = entry(har, "response");
+        Assert.assertEquals(header(response, "Set-Cookie"), "PHPSESSID=redacted; path=/; HttpOnly");
+        Assert.assertEquals(header(response, "Location"), "https://www.periplus.com/account/Your-Account");
+    }
+
+    @Test
+    public void redactedLoginIsReplayedForTheRealRequest() throws IOException {
+        Path har = recordLogin();
+        HarArchive archive = HarArchive.open(har, directory.resolve("periplus.har.archive"));
+
+        HarArchive.Response response = archive.find("POST", LOGIN_URL, "application/x-www-form-urlencoded",
+                LOGIN_BODY.getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertNotNull(response, "Replayed login");
+        Assert.assertEquals(response.status, 302);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void mergesRecordingsInStartOrder() throws IOException {
+        HarRecorder shard1 = new HarRecorder();
+        get(shard1, "2026-01-01T00:00:02Z", "https://www.periplus.com/checkout/cart");
+        HarRecorder shard2 = new HarRecorder();
+        get(shard2, "2026-01-01T00:00:03Z", "https://www.periplus.com/account/Your-Account");
+        get(shard2, "2026-01-01T00:00:01Z", "https://www.periplus.com/");
+        Path first = directory.resolve("shard-1.har");
+        Path second = directory.resolve("shard-2.har");
+        shard1.write(first);
+        shard2.write(second);
+        Path merged = directory.resolve("periplus.har");
+
+        HarRecorder.merge(List.of(first, second), merged);
+
+        Map<String, Object> root = new Json().toType(new String(Files.readAllBytes(merged), StandardCharsets.UTF_8), Json.MAP_TYPE);
+        List<String> urls = new ArrayList<>();
+        for (Map<String, Object> entry : (List<Map<String, Object>>) ((Map<String, Object>) root.get("log")).get("entries")) {
+            urls.add((String) ((Map<String, Object>) entry.get("request")).get("url"));
+        }
+        Assert.assertEquals(urls, List.of("https://www.periplus.com/", "https://www.periplus.com/checkout/cart",
+                "https://www.periplus.com/account/Your-Account"));
+    }
+
+    @DataProvider
+    public Object[][] bodies() {
+        return new Object[][]{
+                {"application/x-www-form-urlencoded", "a=1&pass%77ord=x&b=", "a=1&pass%77ord=redacted&b="},
+                {"application/x-www-form-urlencoded; charset=UTF-8", "api_key=k&q=books", "api_key=redacted&q=books"},
+                {"application/json", "{\"email\":\"e\",\"password\":\"p\"}", "{\"email\":\"e\",\"password\":\"redacted\"}"},
+                {"application/json", "{\"user\":{\"sessionToken\":\"s\"},\"items\":[{\"secret\":1}]}",
+                        "{\"user\":{\"sessionToken\":\"redacted\"},\"items\":[{\"secret\":\"redacted\"}]}"},
+                {"application/json", "{\"product_id\":\"42\"}", "{\"product_id\":\"42\"}"},
+                {"application/json", "not json password=p", "not json password=p"},
+                {"multipart/form-data; boundary=x", "password=p", "password=p"},
+                {null, "password=p", "password=p"},
+        };
+    }
+
+    @Test(dataProvider = "bodies")
+    public void redactsSensitiveFieldsOfBodies(String contentType, String body, String expected) {
+        byte[] redacted = HarRedaction.body(contentType, body.getBytes(StandardCharsets.UTF_8));
+        String actual = new String(redacted, StandardCharsets.UTF_8).replaceAll("\\s", "");
+        Assert.assertEquals(actual, expected.replaceAll("\\s", ""));
+        Assert.assertEquals(HarRedaction.body(contentType, redacted), redacted, "Redaction is idempotent");
+    }
+
+    private Path recordLogin() throws IOException {
+        List<String[]> requestHeaders = new ArrayList<>();
+        requestHeaders.add(new String[]{"Content-Type", "application/x-www-form-urlencoded"});
+        requestHeaders.add(new String[]{"Cookie", "PHPSESSID=abc123; currency=IDR"});
+        requestHeaders.add(new String[]{"Authorization", "Basic dXNlcjpwYXNz"});
+        requestHeaders.add(new String[]{"X-CSRF-Token", "c5rf"});
+        requestHeaders.add(new String[]{"User-Agent", "Chrome"});
+        HttpWire.Request request = new HttpWire.Request("POST", LOGIN_URL, "HTTP/1.1", requestHeaders,
+                LOGIN_BODY.getBytes(StandardCharsets.UTF_8));
+        List<String[]> responseHeaders = new ArrayList<>();
+        responseHeaders.add(new String[]{"Set-Cookie", "PHPSESSID=n3wS3ss10n; path=/; HttpOnly"});
+        responseHeaders.add(new String[]{"Location", "https://www.periplus.com/account/Your-Account"});
+
+        HarRecorder recorder = new HarRecorder();
+        recorder.record(Instant.parse("2026-01-01T00:00:00Z"), 120, request, LOGIN_URL, 302, responseHeaders, new byte[0]);
+        Path har = directory.resolve("periplus.har");
+        recorder.write(har);
+        return har;
+    }
+
+    private static void get(HarRecorder recorder, String started, String url) {
+        recorder.record(Instant.parse(started), 10, new HttpWire.Request("GET", url, "HTTP/1.1", List.of(), new byte[0]),
+                url, 200, List.of(), new byte[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> entry(Path har, String part) throws IOException {
+        Map<String, Object> root = new Json().toType(new String(Files.readAllBytes(har), StandardCharsets.UTF_8), Json.MAP_TYPE);
+        List<Map<String, Object>> entries = (List<Map<String, Object>>) ((Map<String, Object>) root.get("log")).get("entries");
+        Assert.assertEquals(entries.size(), 1);
+        return (Map<String, Object>) entries.get(0).get(part);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String header(Map<String, Object> message, String name) {
+        for (Map<String, Object> header : (List<Map<String, Object>>) message.get("headers")) {
+            if (name.equalsIgnoreCase((String) header.get("name"))) {
+                return (String) header.get("value");
+            }
+        }
+        return null;
+    }
+}
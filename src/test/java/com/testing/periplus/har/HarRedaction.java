@@ -0,0 +1,169 @@
+package com.testing.periplus.har;
+
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonException;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps credentials out of recorded HAR files, which are meant to be shared
+ * and committed: passwords, secrets and tokens in form fields, JSON bodies
+ * and query strings, cookie values and Authorization credentials are
+ * replaced by {@link #REDACTED}. Names are kept, so a HAR still shows which
+ * fields and cookies were sent.
+ *
+ * <p>Redaction is idempotent. {@link HarArchive} applies it to incoming
+ * requests as well, so a login replayed with the real password still finds
+ * the recorded, redacted one.
+ */
+final class HarRedaction {
+    static final String REDACTED = "redacted";
+
+    private static final String[] SENSITIVE_PARTS = {"pass", "pwd", "secret", "token", "session", "auth", "csrf", "apikey", "api_key", "api-key"};
+
+    private HarRedaction() {
+    }
+
+    /**
+     * Tells whether a form field, query parameter, JSON key or header with this name holds a credential.
+     */
+    static boolean isSensitive(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        if (lower.equals("sid") || lower.endsWith("sessid")) {
+            return true;
+        }
+        for (String part : SENSITIVE_PARTS) {
+            if (lower.contains(part)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the header value with its credentials replaced: every cookie
+     * value of Cookie and Set-Cookie, the credentials after the scheme of
+     * Authorization, and the whole value of other sensitive headers.
+     */
+    static String header(String name, String value) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        switch (lower) {
+            case "cookie":
+                List<String> cookies = new ArrayList<>();
+                for (String cookie : value.split(";")) {
+                    cookies.add(cookie(cookie));
+                }
+                return String.join("; ", cookies);
+            case "set-cookie":
+                int attributes = value.indexOf(';');
+                return attributes < 0 ? cookie(value) : cookie(value.substring(0, attributes)) + value.substring(attributes);
+            case "authorization":
+            case "proxy-authorization":
+                int space = value.trim().indexOf(' ');
+                return space < 0 ? REDACTED : value.trim().substring(0, space) + " " + REDACTED;
+            default:
+                return isSensitive(lower) ? REDACTED : value;
+        }
+    }
+
+    static List<String[]> headers(List<String[]> headers) {
+        List<String[]> redacted = new ArrayList<>(headers.size());
+        for (String[] header : headers) {
+            redacted.add(new String[]{header[0], header(header[0], header[1])});
+        }
+        return redacted;
+    }
+
+    /**
+     * Returns the URL with the values of sensitive query parameters replaced.
+     */
+    static String url(String url) {
+        int query = url.indexOf('?');
+        if (query < 0) {
+            return url;
+        }
+        int fragment = url.indexOf('#', query);
+        String end = fragment < 0 ? "" : url.substring(fragment);
+        String parameters = fragment < 0 ? url.substring(query + 1) : url.substring(query + 1, fragment);
+        return url.substring(0, query + 1) + form(parameters) + end;
+    }
+
+    /**
+     * Returns the request body with sensitive form fields or JSON members
+     * replaced; other bodies, e.g. multipart ones, are returned unchanged.
+     */
+    static byte[] body(String contentType, byte[] body) {
+        if (body.length == 0 || contentType == null) {
+            return body;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        if (type.contains("x-www-form-urlencoded")) {
+            return form(new String(body, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        }
+        if (type.contains("json")) {
+            Json json = new Json();
+            try {
+                Object value = json.toType(new String(body, StandardCharsets.UTF_8), Json.OBJECT_TYPE);
+                boolean[] found = new boolean[1];
+                Object redacted = redactJson(value, found);
+                return found[0] ? json.toJson(redacted).getBytes(StandardCharsets.UTF_8) : body;
+            } catch (JsonException e) {
+                return body;
+            }
+        }
+        return body;
+    }
+
+    private static String form(String parameters) {
+        List<String> redacted = new ArrayList<>();
+        for (String parameter : parameters.split("&", -1)) {
+            int equals = parameter.indexOf('=');
+            String name = equals < 0 ? parameter : parameter.substring(0, equals);
+            redacted.add(equals >= 0 && isSensitive(decode(name)) ? name + "=" + REDACTED : parameter);
+        }
+        return String.join("&", redacted);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object redactJson(Object value, boolean[] found) {
+        if (value instanceof Map) {
+            Map<String, Object> redacted = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> member : ((Map<String, Object>) value).entrySet()) {
+                if (isSensitive(member.getKey()) && !(member.getValue() instanceof Map) && !(member.getValue() instanceof List)) {
+                    found[0] = true;
+                    redacted.put(member.getKey(), REDACTED);
+                } else {
+                    redacted.put(member.getKey(), redactJson(member.getValue(), found));
+                }
+            }
+            return redacted;
+        }
+        if (value instanceof List) {
+            List<Object> redacted = new ArrayList<>();
+            for (Object element : (List<Object>) value) {
+                redacted.add(redactJson(element, found));
+            }
+            return redacted;
+        }
+        return value;
+    }
+
+    private static String cookie(String cookie) {
+        int equals = cookie.indexOf('=');
+        return equals < 0 ? REDACTED : cookie.substring(0, equals).trim() + "=" + REDACTED;
+    }
+
+    private static String decode(String name) {
+        try {
+            return URLDecoder.decode(name, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return name;
+        }
+    }
+}
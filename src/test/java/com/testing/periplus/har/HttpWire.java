@@ -0,0 +1,188 @@
+package com.testing.periplus.har;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Just enough HTTP/1.1 for the proxy: reading a request (with a fixed-length
+ * or chunked body) from a browser connection and writing a response head.
+ */
+final class HttpWire {
+    private static final int MAX_LINE = 64 * 1024;
+    private static final Map<Integer, String> REASONS = Map.ofEntries(
+            Map.entry(200, "OK"), Map.entry(201, "Created"), Map.entry(204, "No Content"),
+            Map.entry(206, "Partial Content"), Map.entry(301, "Moved Permanently"), Map.entry(302, "Found"),
+            Map.entry(303, "See Other"), Map.entry(304, "Not Modified"), Map.entry(307, "Temporary Redirect"),
+            Map.entry(308, "Permanent Redirect"), Map.entry(400, "Bad Request"), Map.entry(401, "Unauthorized"),
+            Map.entry(403, "Forbidden"), Map.entry(404, "Not Found"), Map.entry(500, "Internal Server Error"),
+            Map.entry(501, "Not Implemented"), Map.entry(502, "Bad Gateway"), Map.entry(503, "Service Unavailable"),
+            Map.entry(504, "Gateway Timeout"));
+
+    private HttpWire() {
+    }
+
+    static final class Request {
+        final String method;
+        final String target;
+        final String version;
+        final List<String[]> headers;
+        final byte[] body;
+
+        Request(String method, String target, String version, List<String[]> headers, byte[] body) {
+            this.method = method;
+            this.target = target;
+            this.version = version;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        String header(String name) {
+            return HttpWire.header(headers, name);
+        }
+
+        boolean keepAlive() {
+            String connection = header("Connection");
+            if (connection == null) {
+                connection = header("Proxy-Connection");
+            }
+            return connection == null ? !version.equals("HTTP/1.0") : !connection.equalsIgnoreCase("close");
+        }
+    }
+
+    /**
+     * Reads the next request, or returns null when the client closed the connection between requests.
+     */
+    static Request readRequest(InputStream in) throws IOException {
+        String requestLine = readLine(in);
+        while (requestLine != null && requestLine.isEmpty()) {
+            requestLine = readLine(in);
+        }
+        if (requestLine == null) {
+            return null;
+        }
+        String[] parts = requestLine.split(" ");
+        if (parts.length != 3) {
+            throw new IOException("Malformed request line: " + requestLine);
+        }
+        List<String[]> headers = new ArrayList<>();
+        for (String line = readLine(in); line != null && !line.isEmpty(); line = readLine(in)) {
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.add(new String[]{line.substring(0, colon).trim(), line.substring(colon + 1).trim()});
+            }
+        }
+
+        byte[] body;
+        String transferEncoding = header(headers, "Transfer-Encoding");
+        String contentLength = header(headers, "Content-Length");
+        if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            body = readChunked(in);
+        } else if (contentLength != null) {
+            body = readFully(in, Integer.parseInt(contentLength.trim()));
+        } else {
+            body = new byte[0];
+        }
+        return new Request(parts[0], parts[1], parts[2], headers, body);
+    }
+
+    /**
+     * Writes a status line and headers, replacing any framing headers with the given content length.
+     */
+    static void writeHead(OutputStream out, int status, List<String[]> headers, long contentLength) throws IOException {
+        StringBuilder head = new StringBuilder("HTTP/1.1 ").append(status).append(' ').append(reason(status)).append("\r\n");
+        for (String[] header : headers) {
+            if (!isFraming(header[0])) {
+                head.append(header[0]).append(": ").append(header[1]).append("\r\n");
+            }
+        }
+        if (contentLength >= 0) {
+            head.append("Content-Length: ").append(contentLength).append("\r\n");
+        }
+        head.append("\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    static String reason(int status) {
+        return REASONS.getOrDefault(status, "Status " + status);
+    }
+
+    static String header(List<String[]> headers, String name) {
+        for (String[] header : headers) {
+            if (header[0].equalsIgnoreCase(name)) {
+                return header[1];
+            }
+        }
+        return null;
+    }
+
+    // Headers that describe one hop's connection or framing, which the proxy sets itself
+    static boolean isFraming(String name) {
+        switch (name.toLowerCase(Locale.ROOT)) {
+            case "connection":
+            case "proxy-connection":
+            case "keep-alive":
+            case "transfer-encoding":
+            case "content-length":
+            case "te":
+            case "trailer":
+            case "upgrade":
+            case "proxy-authorization":
+            case "proxy-authenticate":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                int length = line.length();
+                return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+            }
+            if (line.length() >= MAX_LINE) {
+                throw new IOException("Header line longer than " + MAX_LINE + " bytes.");
+            }
+            line.append((char) b);
+        }
+        return line.length() == 0 ? null : line.toString();
+    }
+
+    private static byte[] readChunked(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String sizeLine = readLine(in);
+            if (sizeLine == null) {
+                throw new EOFException("Connection closed inside a chunked body.");
+            }
+            int semicolon = sizeLine.indexOf(';');
+            int size = Integer.parseInt((semicolon >= 0 ? sizeLine.substring(0, semicolon) : sizeLine).trim(), 16);
+            if (size == 0) {
+                for (String trailer = readLine(in); trailer != null && !trailer.isEmpty(); trailer = readLine(in)) {
+                    // Trailers are not forwarded
+                }
+                return body.toByteArray();
+            }
+            body.write(readFully(in, size));
+            readLine(in);
+        }
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Expected " + length + " body bytes but the connection closed after " + bytes.length + ".");
+        }
+        return bytes;
+    }
+}
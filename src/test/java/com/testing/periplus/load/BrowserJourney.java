@@ -0,0 +1,69 @@
+package com.testing.periplus.load;
+
+import com.periplus.pages.CartClearResult;
+import com.periplus.pages.HomePage;
+import com.periplus.pages.ProductDetailPage;
+import com.periplus.pages.ShoppingCartPage;
+import com.testing.periplus.support.BrowserFactory;
+import com.testing.periplus.support.LoginSessions;
+import com.testing.periplus.support.TestAccount;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+
+/**
+ * Drives the journey through the page objects in a browser of its own, the
+ * same calls as {@code CartCheckoutTest}. The browser is launched by
+ * {@link BrowserFactory}, so the runner picks the headless lean profile.
+ */
+public class BrowserJourney implements Journey {
+    private final TestAccount account;
+    private final String productTitle;
+    private final WebDriver driver;
+    private final WebDriverWait wait;
+    private final HomePage homePage;
+    private final ProductDetailPage productDetailPage;
+    private final ShoppingCartPage shoppingCartPage;
+
+    public BrowserJourney(TestAccount account, String productTitle) {
+        this.account = account;
+        this.productTitle = productTitle;
+        this.driver = BrowserFactory.launch();
+        this.wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+        this.homePage = new HomePage(driver, wait);
+        this.productDetailPage = new ProductDetailPage(driver, wait);
+        this.shoppingCartPage = new ShoppingCartPage(driver, wait);
+    }
+
+    @Override
+    public void logIn(LoadStatistics statistics) throws Exception {
+        statistics.time(LOGIN, () -> LoginSessions.logIn(driver, wait, account));
+    }
+
+    @Override
+    public void runIteration(LoadStatistics statistics, Runnable thinkTime) throws Exception {
+        statistics.time(SEARCH, () -> homePage.searchForProduct(productTitle));
+        thinkTime.run();
+        statistics.time(PRODUCT, productDetailPage::clickFirstProduct);
+        thinkTime.run();
+        statistics.time(ADD_TO_CART, productDetailPage::clickAddToCartButton);
+        thinkTime.run();
+        statistics.time(CART, shoppingCartPage::navigateToShoppingCart);
+        thinkTime.run();
+        statistics.time(CHECKOUT, shoppingCartPage::proceedToCheckout);
+        thinkTime.run();
+        statistics.time(CLEAR_CART, () -> {
+            shoppingCartPage.navigateToShoppingCart();
+            CartClearResult cleared = shoppingCartPage.removeAllProductFromCart();
+            if (!cleared.isCartEmpty()) {
+                throw new IllegalStateException("Cart still contains items after clearing: " + cleared);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        driver.quit();
+    }
+}
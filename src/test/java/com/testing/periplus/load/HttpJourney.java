@@ -0,0 +1,60 @@
+package com.testing.periplus.load;
+
+import com.periplus.api.PeriplusApiClient;
+import com.periplus.api.PeriplusApiException;
+import com.periplus.api.SearchResult;
+import com.testing.periplus.support.TestAccount;
+
+import java.util.List;
+
+/**
+ * Runs the journey as the plain HTTP requests the pages make, through a
+ * {@link PeriplusApiClient} (and so a cookie jar) per virtual user, so far
+ * more users fit on one machine than with browsers.
+ */
+public class HttpJourney implements Journey {
+    private final TestAccount account;
+    private final String productTitle;
+    private final PeriplusApiClient api = new PeriplusApiClient();
+    private SearchResult product;
+
+    public HttpJourney(TestAccount account, String productTitle) {
+        this.account = account;
+        this.productTitle = productTitle;
+    }
+
+    @Override
+    public void logIn(LoadStatistics statistics) throws Exception {
+        statistics.time(LOGIN, () -> {
+            if (!api.logIn(account.getEmail(), account.getPassword())) {
+                throw new PeriplusApiException("Login as " + account.getEmail() + " was rejected.");
+            }
+        });
+    }
+
+    @Override
+    public void runIteration(LoadStatistics statistics, Runnable thinkTime) throws Exception {
+        statistics.time(SEARCH, () -> {
+            List<SearchResult> results = api.search(productTitle);
+            if (results.isEmpty()) {
+                throw new PeriplusApiException("No product found for '" + productTitle + "'.");
+            }
+            product = results.get(0);
+        });
+        thinkTime.run();
+        statistics.time(PRODUCT, () -> api.fetch(product.getUrl()));
+        thinkTime.run();
+        statistics.time(ADD_TO_CART, () -> api.addToCart(product.getProductId(), 1));
+        thinkTime.run();
+        statistics.time(CART, () -> api.fetch("checkout/cart"));
+        thinkTime.run();
+        statistics.time(CHECKOUT, () -> api.fetch("checkout/shipping_address"));
+        thinkTime.run();
+        statistics.time(CLEAR_CART, () -> api.removeFromCart(product.getProductId()));
+    }
+
+    @Override
+    public void close() {
+        // HttpClient has no close() before Java 21; its connections are released with the client.
+    }
+}
@@ -0,0 +1,31 @@
+package com.testing.periplus.load;
+
+/**
+ * The shopping journey of one virtual user: log in once, then repeatedly
+ * search, open the product, add it to the cart, open the cart, proceed to
+ * checkout and clear the cart again. Each step is timed through
+ * {@link LoadStatistics} under the step names below.
+ */
+public interface Journey extends AutoCloseable {
+    /** Starting the user's browser or HTTP client, timed by the runner. */
+    String SESSION = "session";
+    String LOGIN = "login";
+    String SEARCH = "search";
+    String PRODUCT = "product";
+    String ADD_TO_CART = "addToCart";
+    String CART = "cart";
+    /** From the cart until the shipping address page has been loaded. */
+    String CHECKOUT = "checkout";
+    String CLEAR_CART = "clearCart";
+
+    void logIn(LoadStatistics statistics) throws Exception;
+
+    /**
+     * Runs one iteration of the journey after login; think time is applied by
+     * the runner through the given pause between steps.
+     */
+    void runIteration(LoadStatistics statistics, Runnable thinkTime) throws Exception;
+
+    @Override
+    void close();
+}
@@ -0,0 +1,201 @@
+package com.testing.periplus.load;
+
+import com.periplus.pages.PeriplusUrls;
+import com.periplus.support.EventLog;
+import com.testing.periplus.stub.PeriplusStubServer;
+import com.testing.periplus.stub.StubServerListener;
+import com.testing.periplus.support.HarnessConfig;
+import com.testing.periplus.support.TestAccount;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Load mode: runs the checkout journey with many concurrent virtual users
+ * and reports throughput and latency percentiles per step. Each user is a
+ * task on a virtual thread when the JVM has them (Java 21+), otherwise on a
+ * platform thread of its own.
+ *
+ * <p>Settings, as system properties: load.users, load.rampUpSeconds (users
+ * start evenly spread over it), load.iterations and load.durationSeconds
+ * (each user stops at whichever comes first; 0 means no time limit),
+ * load.thinkTimeMs and load.thinkJitterMs (pause between steps),
+ * load.client (http or browser), load.product, load.accountPattern,
+ * load.password and load.report. Without -Dperiplus.baseUrl the embedded
+ * stand-in shop is started, configured by the usual stub.* settings.
+ */
+public final class LoadRunner {
+    private static final Logger logger = Logger.getLogger(LoadRunner.class.getName());
+    private static final int LOGGED_FAILURES = 10;
+
+    private final int users = HarnessConfig.getInt("load.users", 10);
+    private final Duration rampUp = Duration.ofSeconds(HarnessConfig.getInt("load.rampUpSeconds", 10));
+    private final int iterations = HarnessConfig.getInt("load.iterations", 5);
+    private final Duration duration = Duration.ofSeconds(HarnessConfig.getInt("load.durationSeconds", 0));
+    private final int thinkTimeMillis = HarnessConfig.getInt("load.thinkTimeMs", 500);
+    private final int thinkJitterMillis = HarnessConfig.getInt("load.thinkJitterMs", 0);
+    private final String client = HarnessConfig.get("load.client", "http");
+    private final String productTitle = HarnessConfig.get("load.product", "Atomic Habits");
+    private final String accountPattern = HarnessConfig.get("load.accountPattern", "load-user-%d@stub.local");
+    private final String password = HarnessConfig.get("load.password", "stub");
+    private final Path report = Paths.get(HarnessConfig.get("load.report", "target/load-report.csv"));
+
+    private final LoadStatistics statistics = new LoadStatistics();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private LoadRunner() {
+        if (!client.equals("http") && !client.equals("browser")) {
+            throw new IllegalArgumentException("Unsupported load.client '" + client + "'. Use http or browser.");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadRunner().run();
+    }
+
+    private void run() throws InterruptedException, IOException {
+        PeriplusStubServer stub = null;
+        if (System.getProperty("periplus.baseUrl") == null) {
+            stub = StubServerListener.startConfigured();
+            PeriplusUrls.setBaseUrl(stub.getBaseUrl());
+        }
+        if (client.equals("browser") && System.getProperty("browser.profile") == null) {
+            // Virtual users never need a visible window
+            System.setProperty("browser.profile", "lean");
+        }
+        logger.info("Starting " + users + " " + client + " virtual user(s) against " + PeriplusUrls.baseUrl()
+                + " (ramp-up " + rampUp.getSeconds() + " s, " + iterations + " iteration(s), think time "
+                + thinkTimeMillis + " ms).");
+
+        long start = System.nanoTime();
+        long stopAt = duration.isZero() ? Long.MAX_VALUE : start + rampUp.toNanos() + duration.toNanos();
+        ExecutorService executor = newUserExecutor();
+        try {
+            for (int user = 1; user <= users; user++) {
+                int id = user;
+                long startAt = start + rampUp.toNanos() * (user - 1) / Math.max(1, users);
+                executor.execute(() -> runUser(id, startAt, stopAt));
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.info(statistics.getCount(LoadStatistics.JOURNEY) + " journey(s) completed, "
+                        + statistics.getErrors(LoadStatistics.JOURNEY) + " failed so far.");
+            }
+        } finally {
+            executor.shutdownNow();
+            if (stub != null) {
+                stub.close();
+            }
+            EventLog.flush(Duration.ofSeconds(10));
+        }
+
+        double windowSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        List<String> rows = statistics.write(report, windowSeconds);
+        logger.info(String.format("Load run finished in %.1f s (%s):%n%s", windowSeconds, report, String.join("\n", rows)));
+    }
+
+    private void runUser(int user, long startAt, long stopAt) {
+        if (!sleepUntil(startAt)) {
+            return;
+        }
+        TestAccount account = new TestAccount(String.format(accountPattern, user), password);
+        Journey journey;
+        try {
+            long launch = System.nanoTime();
+            journey = client.equals("browser")
+                    ? new BrowserJourney(account, productTitle)
+                    : new HttpJourney(account, productTitle);
+            statistics.record(Journey.SESSION, System.nanoTime() - launch);
+        } catch (RuntimeException e) {
+            statistics.recordError(Journey.SESSION);
+            logFailure("Virtual user " + user + " could not start its session", e);
+            return;
+        }
+        try (journey) {
+            journey.logIn(statistics);
+            for (int iteration = 0; iteration < iterations && System.nanoTime() < stopAt
+                    && !Thread.currentThread().isInterrupted(); iteration++) {
+                think();
+                long iterationStart = System.nanoTime();
+                try {
+                    journey.runIteration(statistics, this::think);
+                    statistics.record(LoadStatistics.JOURNEY, System.nanoTime() - iterationStart);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    statistics.recordError(LoadStatistics.JOURNEY);
+                    logFailure("Virtual user " + user + " failed iteration " + (iteration + 1), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logFailure("Virtual user " + user + " could not log in", e);
+        }
+    }
+
+    private void think() {
+        long millis = thinkTimeMillis + (thinkJitterMillis > 0 ? ThreadLocalRandom.current().nextLong(thinkJitterMillis + 1) : 0);
+        if (millis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static boolean sleepUntil(long nanoTime) {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Only the first failures are logged in full; the report counts all of them
+    private void logFailure(String message, Exception e) {
+        int count = failures.incrementAndGet();
+        if (count <= LOGGED_FAILURES) {
+            logger.log(Level.WARNING, message + ": " + e.getMessage(), count == 1 ? e : null);
+        } else if (count == LOGGED_FAILURES + 1) {
+            logger.warning("Further failures are only counted in the report.");
+        }
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() exists from Java 21; the build targets Java 11
+    private ExecutorService newUserExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (NoSuchMethodException e) {
+            logger.info("Virtual threads are not available on Java " + Runtime.version().feature()
+                    + "; running every virtual user on a platform thread.");
+        } catch (ReflectiveOperationException e) {
+            logger.log(Level.WARNING, "Failed to create a virtual thread executor: " + e.getMessage(), e);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        return Executors.newFixedThreadPool(users, task -> {
+            Thread thread = new Thread(task, "virtual-user-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
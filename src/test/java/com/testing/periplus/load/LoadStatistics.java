@@ -0,0 +1,115 @@
+package com.testing.periplus.load;
+
+import com.testing.periplus.support.LatencyHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency and error counts of a load run, per journey step. Steps are kept in
+ * the order they were first timed, so the report follows the journey.
+ */
+public class LoadStatistics {
+    /** Name of the row that times a whole journey iteration. */
+    public static final String JOURNEY = "journey";
+
+    private final Map<String, StepEntry> steps = new ConcurrentHashMap<>();
+    private final List<String> order = new ArrayList<>();
+
+    /**
+     * Runs one journey step and records its latency, or an error when it throws.
+     */
+    public void time(String step, Step action) throws Exception {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (Exception e) {
+            entry(step).errors.incrementAndGet();
+            throw e;
+        }
+        record(step, System.nanoTime() - start);
+    }
+
+    public void record(String step, long nanos) {
+        entry(step).histogram.record(nanos);
+    }
+
+    public void recordError(String step) {
+        entry(step).errors.incrementAndGet();
+    }
+
+    /**
+     * Writes one row per step with count, errors, throughput over the given
+     * wall-clock window and latency percentiles, and returns the rows.
+     */
+    public List<String> write(Path report, double windowSeconds) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("step,count,errors,throughput_per_s,p50_ms,p90_ms,p95_ms,p99_ms,max_ms");
+        for (String step : stepNames()) {
+            StepEntry entry = steps.get(step);
+            LatencyHistogram histogram = entry.histogram;
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.2f,%.1f,%.1f,%.1f,%.1f,%.1f", step, histogram.getCount(),
+                    entry.errors.get(), windowSeconds > 0 ? histogram.getCount() / windowSeconds : 0,
+                    histogram.percentileMillis(50), histogram.percentileMillis(90), histogram.percentileMillis(95),
+                    histogram.percentileMillis(99), histogram.getMaxMillis()));
+        }
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        Files.write(report, lines, StandardCharsets.UTF_8);
+        return lines;
+    }
+
+    public long getCount(String step) {
+        StepEntry entry = steps.get(step);
+        return entry == null ? 0 : entry.histogram.getCount();
+    }
+
+    public long getErrors(String step) {
+        StepEntry entry = steps.get(step);
+        return entry == null ? 0 : entry.errors.get();
+    }
+
+    // Journey steps first in encounter order, the whole-journey row last
+    private List<String> stepNames() {
+        List<String> names;
+        synchronized (order) {
+            names = new ArrayList<>(order);
+        }
+        if (names.remove(JOURNEY)) {
+            names.add(JOURNEY);
+        }
+        return names;
+    }
+
+    private StepEntry entry(String step) {
+        StepEntry entry = steps.get(step);
+        if (entry == null) {
+            synchronized (order) {
+                entry = steps.computeIfAbsent(step, key -> {
+                    order.add(key);
+                    return new StepEntry();
+                });
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * A journey step; any exception counts as an error of that step.
+     */
+    public interface Step {
+        void run() throws Exception;
+    }
+
+    private static final class StepEntry {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+    }
+}
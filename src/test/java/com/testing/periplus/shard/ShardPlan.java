@@ -0,0 +1,209 @@
+package com.testing.periplus.shard;
+
+import com.testing.periplus.support.TimingHistory;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
+import org.testng.annotations.AfterTest;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.BeforeTest;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Splits the test methods of a suite into time-balanced shards. A
+ * singleThreaded class is one unit, since its methods share state; any other
+ * method is a unit of its own. Units are estimated from the
+ * {@link TimingHistory} and dealt out longest first to the least loaded
+ * shard, with ties broken by name, so the same suite and history always give
+ * the same shards.
+ */
+public class ShardPlan {
+    private static final long DEFAULT_ESTIMATE_MILLIS = 10_000;
+    private static final List<Class<? extends Annotation>> CONFIGURATION_ANNOTATIONS = List.of(
+            BeforeSuite.class, AfterSuite.class, BeforeTest.class, AfterTest.class,
+            BeforeClass.class, AfterClass.class, BeforeMethod.class, AfterMethod.class);
+
+    private final List<Shard> shards = new ArrayList<>();
+
+    public ShardPlan(XmlSuite suite, int shardCount, TimingHistory history) throws ClassNotFoundException {
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new Shard(i));
+        }
+        double defaultEstimate = history.averages().stream().mapToDouble(Double::doubleValue)
+                .filter(millis -> millis > 0).average().orElse(DEFAULT_ESTIMATE_MILLIS);
+        List<Unit> units = new ArrayList<>();
+        for (XmlTest test : suite.getTests()) {
+            for (XmlClass xmlClass : test.getXmlClasses()) {
+                units.addAll(units(test, xmlClass, history, defaultEstimate));
+            }
+        }
+        units.sort(Comparator.comparingDouble((Unit unit) -> unit.estimateMillis).reversed()
+                .thenComparing(unit -> unit.name));
+        for (Unit unit : units) {
+            Shard target = shards.get(0);
+            for (Shard shard : shards) {
+                if (shard.estimateMillis < target.estimateMillis) {
+                    target = shard;
+                }
+            }
+            target.add(unit);
+        }
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    /**
+     * Builds the suite a shard runs: the original suite's parameters and
+     * listeners with only the shard's methods, grouped by the original tests.
+     */
+    public XmlSuite suiteFor(XmlSuite original, Shard shard) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName(original.getName());
+        suite.setParameters(original.getParameters());
+        suite.setListeners(original.getListeners());
+        suite.setParallel(original.getParallel());
+        suite.setThreadCount(original.getThreadCount());
+        suite.setPreserveOrder(original.getPreserveOrder());
+        for (XmlTest originalTest : original.getTests()) {
+            Map<String, Set<String>> methodsByClass = shard.methodsByClass.get(originalTest.getName());
+            if (methodsByClass == null) {
+                continue;
+            }
+            XmlTest test = new XmlTest(suite);
+            test.setName(originalTest.getName());
+            test.setParameters(originalTest.getLocalParameters());
+            List<XmlClass> classes = new ArrayList<>();
+            methodsByClass.forEach((className, methods) -> {
+                XmlClass xmlClass = new XmlClass(className, false);
+                List<XmlInclude> includes = new ArrayList<>();
+                methods.forEach(method -> includes.add(new XmlInclude(method)));
+                xmlClass.setIncludedMethods(includes);
+                classes.add(xmlClass);
+            });
+            test.setXmlClasses(classes);
+        }
+        return suite;
+    }
+
+    private static List<Unit> units(XmlTest test, XmlClass xmlClass, TimingHistory history, double defaultEstimate)
+            throws ClassNotFoundException {
+        Class<?> type = Class.forName(xmlClass.getName(), false, Thread.currentThread().getContextClassLoader());
+        Test classTest = type.getAnnotation(Test.class);
+        Set<String> included = new TreeSet<>();
+        xmlClass.getIncludedMethods().forEach(include -> included.add(include.getName()));
+        // getMethods() lists overridden methods once, but overloads share a name
+        Set<String> methods = new TreeSet<>();
+        double configurationMillis = 0;
+        for (Method method : type.getMethods()) {
+            if (method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            if (isConfiguration(method)) {
+                configurationMillis += Math.max(0, history.averageMillis(type.getName() + "#" + method.getName()));
+            } else if ((method.isAnnotationPresent(Test.class) || method.getDeclaringClass().isAnnotationPresent(Test.class))
+                    && (included.isEmpty() || included.contains(method.getName()))
+                    && !xmlClass.getExcludedMethods().contains(method.getName())) {
+                methods.add(method.getName());
+            }
+        }
+
+        List<Unit> units = new ArrayList<>();
+        boolean wholeClass = classTest != null && classTest.singleThreaded();
+        for (String method : methods) {
+            double estimate = history.averageMillis(type.getName() + "#" + method);
+            double millis = (estimate < 0 ? defaultEstimate : estimate) + configurationMillis / methods.size();
+            if (wholeClass && !units.isEmpty()) {
+                units.get(0).addMethod(method, millis);
+            } else {
+                Unit unit = new Unit(test.getName(), type.getName(), wholeClass ? type.getSimpleName() : type.getSimpleName() + "." + method);
+                unit.addMethod(method, millis);
+                units.add(unit);
+            }
+        }
+        return units;
+    }
+
+    private static boolean isConfiguration(Method method) {
+        for (Class<? extends Annotation> annotation : CONFIGURATION_ANNOTATIONS) {
+            if (method.isAnnotationPresent(annotation)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The methods one JVM runs, per test and class, and their estimated total time.
+     */
+    public static final class Shard {
+        private final int index;
+        private final Map<String, Map<String, Set<String>>> methodsByClass = new TreeMap<>();
+        private final List<String> units = new ArrayList<>();
+        private double estimateMillis;
+
+        Shard(int index) {
+            this.index = index;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public List<String> getUnits() {
+            return units;
+        }
+
+        public long getEstimateMillis() {
+            return Math.round(estimateMillis);
+        }
+
+        public boolean isEmpty() {
+            return units.isEmpty();
+        }
+
+        private void add(Unit unit) {
+            units.add(unit.name);
+            estimateMillis += unit.estimateMillis;
+            methodsByClass.computeIfAbsent(unit.test, key -> new TreeMap<>())
+                    .computeIfAbsent(unit.className, key -> new TreeSet<>())
+                    .addAll(unit.methods);
+        }
+    }
+
+    private static final class Unit {
+        private final String test;
+        private final String className;
+        private final String name;
+        private final List<String> methods = new ArrayList<>();
+        private double estimateMillis;
+
+        Unit(String test, String className, String name) {
+            this.test = test;
+            this.className = className;
+            this.name = name;
+        }
+
+        void addMethod(String method, double millis) {
+            methods.add(method);
+            estimateMillis += millis;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.testing.periplus.shard;
+
+import com.testing.periplus.support.TimingHistory;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class ShardPlanTest {
+    private Path history;
+
+    // Method times in seconds: 3, 3, 2, 2, 2 is the classic instance where LPT needs 7 against an optimum of 6
+    public static class Jobs {
+        @Test
+        public void a3() {
+        }
+
+        @Test
+        public void b3() {
+        }
+
+        @Test
+        public void c2() {
+        }
+
+        @Test
+        public void d2() {
+        }
+
+        @Test
+        public void e2() {
+        }
+    }
+
+    @Test(singleThreaded = true)
+    public static class Together {
+        @BeforeClass
+        public void setUp() {
+        }
+
+        public void one() {
+        }
+
+        public void two() {
+        }
+
+        public void three() {
+        }
+    }
+
+    public static class Unknown {
+        @Test
+        public void first() {
+        }
+
+        @Test
+        public void second() {
+        }
+
+        public void notATest() {
+        }
+    }
+
+    @BeforeMethod
+    public void writeHistory() throws IOException {
+        history = Files.createTempFile("test-timings", ".tsv");
+        List<String> lines = new ArrayList<>();
+        lines.add("# key\tavg_ms\truns\toutcomes");
+        for (String[] entry : new String[][]{{"a3", "3000"}, {"b3", "3000"}, {"c2", "2000"}, {"d2", "2000"}, {"e2", "2000"}}) {
+            lines.add(Jobs.class.getName() + "#" + entry[0] + "\t" + entry[1] + ".0\t1\tP");
+        }
+        lines.add(Together.class.getName() + "#setUp\t3000.0\t1\tP");
+        lines.add(Together.class.getName() + "#one\t1000.0\t1\tP");
+        lines.add(Together.class.getName() + "#two\t1000.0\t1\tP");
+        lines.add(Together.class.getName() + "#three\t1000.0\t1\tP");
+        Files.write(history, lines, StandardCharsets.UTF_8);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteHistory() throws IOException {
+        Files.deleteIfExists(history);
+    }
+
+    @Test
+    public void lptPacksTheClassicInstanceWithinFourThirdsOfTheOptimum() throws Exception {
+        ShardPlan plan = new ShardPlan(suite(Jobs.class), 2, new TimingHistory(history));
+
+        List<Long> estimates = new ArrayList<>();
+        plan.getShards().forEach(shard -> estimates.add(shard.getEstimateMillis()));
+        Collections.sort(estimates);
+        Assert.assertEquals(estimates, List.of(5000L, 7000L));
+        Assert.assertTrue(estimates.get(1) <= 4.0 / 3 * 6000);
+    }
+
+    @Test
+    public void everyMethodIsAssignedExactlyOnce() throws Exception {
+        XmlSuite suite = suite(Jobs.class, Together.class, Unknown.class);
+        for (int shards = 1; shards <= 6; shards++) {
+            ShardPlan plan = new ShardPlan(suite, shards, new TimingHistory(history));
+            Map<String, Integer> assigned = new TreeMap<>();
+            for (ShardPlan.Shard shard : plan.getShards()) {
+                for (XmlTest test : plan.suiteFor(suite, shard).getTests()) {
+                    for (XmlClass xmlClass : test.getXmlClasses()) {
+                        for (XmlInclude include : xmlClass.getIncludedMethods()) {
+                            assigned.merge(test.getName() + "/" + simpleName(xmlClass) + "." + include.getName(), 1, Integer::sum);
+                        }
+                    }
+                }
+            }
+            Assert.assertEquals(assigned.keySet(), Set.of("T/Jobs.a3", "T/Jobs.b3", "T/Jobs.c2", "T/Jobs.d2", "T/Jobs.e2",
+                    "T/Together.one", "T/Together.two", "T/Together.three", "T/Unknown.first", "T/Unknown.second"), shards + " shard(s)");
+            Assert.assertTrue(assigned.values().stream().allMatch(count -> count == 1), shards + " shard(s): " + assigned);
+        }
+    }
+
+    @Test
+    public void loadStaysWithinTheListSchedulingBound() throws Exception {
+        XmlSuite suite = suite(Jobs.class, Together.class, Unknown.class);
+        // Jobs 12 s, Together 3 x 1 s + 3 s setUp in one unit, Unknown 2 x the mean of the history
+        double mean = (3000 + 3000 + 2000 + 2000 + 2000 + 3000 + 1000 + 1000 + 1000) / 9.0;
+        double total = 12000 + 6000 + 2 * mean;
+        double longest = 6000;
+        for (int shards = 1; shards <= 6; shards++) {
+            ShardPlan plan = new ShardPlan(suite, shards, new TimingHistory(history));
+            long sum = 0;
+            long max = 0;
+            for (ShardPlan.Shard shard : plan.getShards()) {
+                sum += shard.getEstimateMillis();
+                max = Math.max(max, shard.getEstimateMillis());
+            }
+            Assert.assertEquals(sum, total, shards, shards + " shard(s)");
+            double lowerBound = Math.max(total / shards, longest);
+            Assert.assertTrue(max <= total / shards + (1 - 1.0 / shards) * longest + 1, shards + " shard(s): " + max);
+            Assert.assertTrue(max <= 4.0 / 3 * lowerBound + 1, shards + " shard(s): " + max + " against " + lowerBound);
+        }
+    }
+
+    @Test
+    public void singleThreadedClassStaysInOneShard() throws Exception {
+        ShardPlan plan = new ShardPlan(suite(Jobs.class, Together.class), 3, new TimingHistory(history));
+
+        List<ShardPlan.Shard> holding = new ArrayList<>();
+        for (ShardPlan.Shard shard : plan.getShards()) {
+            if (shard.getUnits().contains("Together")) {
+                holding.add(shard);
+            }
+            Assert.assertFalse(shard.getUnits().stream().anyMatch(unit -> unit.startsWith("Together.")), shard.getUnits().toString());
+        }
+        Assert.assertEquals(holding.size(), 1);
+        XmlClass together = plan.suiteFor(suite(Jobs.class, Together.class), holding.get(0)).getTests().get(0).getXmlClasses().stream()
+                .filter(xmlClass -> xmlClass.getName().equals(Together.class.getName())).findFirst().orElseThrow();
+        Assert.assertEquals(together.getIncludedMethods().size(), 3);
+    }
+
+    @Test
+    public void sameSuiteAndHistoryGiveTheSameShards() throws Exception {
+        XmlSuite suite = suite(Jobs.class, Together.class, Unknown.class);
+        List<List<String>> first = new ArrayList<>();
+        new ShardPlan(suite, 3, new TimingHistory(history)).getShards().forEach(shard -> first.add(shard.getUnits()));
+        for (int i = 0; i < 5; i++) {
+            List<List<String>> again = new ArrayList<>();
+            new ShardPlan(suite, 3, new TimingHistory(history)).getShards().forEach(shard -> again.add(shard.getUnits()));
+            Assert.assertEquals(again, first);
+        }
+    }
+
+    @Test
+    public void moreShardsThanUnitsLeavesShardsEmpty() throws Exception {
+        ShardPlan plan = new ShardPlan(suite(Unknown.class), 4, new TimingHistory(history));
+
+        Assert.assertEquals(plan.getShards().stream().filter(ShardPlan.Shard::isEmpty).count(), 2L);
+        Assert.assertTrue(plan.getShards().stream().noneMatch(shard -> shard.getUnits().contains("Unknown.notATest")));
+    }
+
+    @Test
+    public void shardSuiteKeepsTheSuiteSettings() throws Exception {
+        XmlSuite suite = suite(Jobs.class);
+        suite.setParameters(Map.of("parallel.mode", "methods"));
+        suite.setListeners(List.of("com.example.Listener"));
+        ShardPlan plan = new ShardPlan(suite, 2, new TimingHistory(history));
+
+        XmlSuite shardSuite = plan.suiteFor(suite, plan.getShards().get(0));
+
+        Assert.assertEquals(shardSuite.getName(), "S");
+        Assert.assertEquals(shardSuite.getParameters(), Map.of("parallel.mode", "methods"));
+        Assert.assertEquals(shardSuite.getListeners(), List.of("com.example.Listener"));
+        Assert.assertEquals(shardSuite.getTests().get(0).getName(), "T");
+    }
+
+    private static XmlSuite suite(Class<?>... classes) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("S");
+        XmlTest test = new XmlTest(suite);
+        test.setName("T");
+        List<XmlClass> xmlClasses = new ArrayList<>();
+        for (Class<?> type : classes) {
+            xmlClasses.add(new XmlClass(type.getName(), false));
+        }
+        test.setXmlClasses(xmlClasses);
+        return suite;
+    }
+
+    private static String simpleName(XmlClass xmlClass) {
+        return xmlClass.getName().substring(xmlClass.getName().lastIndexOf('$') + 1);
+    }
+}
@@ -0,0 +1,158 @@
+package com.testing.periplus.shard;
+
+import com.testing.periplus.support.PerformanceBudgetReporter;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Merges what the shard JVMs wrote into one suite report: their
+ * testng-results.xml files into a single one with summed totals, and each
+ * CSV report under their target/ directories into one file with a leading
+ * shard column. Page performance budgets are computed again over the
+ * samples of all shards, as medians and percentiles do not add up.
+ */
+public class ShardResults {
+    private static final String[] TOTALS = {"total", "passed", "failed", "skipped", "ignored"};
+
+    private final Map<String, Long> totals = new TreeMap<>();
+    private final Map<Integer, Map<String, Long>> shardTotals = new TreeMap<>();
+
+    /** A total of the merged results, e.g. "failed". */
+    public long getTotal(String kind) {
+        return totals.getOrDefault(kind, 0L);
+    }
+
+    /** A total of one shard's results; 0 when the shard wrote none. */
+    public long getTotal(int shard, String kind) {
+        return shardTotals.getOrDefault(shard, Map.of()).getOrDefault(kind, 0L);
+    }
+
+    /**
+     * Writes the merged testng-results.xml; shards without results (e.g. a
+     * JVM that crashed) are skipped.
+     * @param results testng-results.xml of each shard, by shard index.
+     */
+    public void mergeTestNgResults(Map<Integer, Path> results, int shardCount, Path target)
+            throws IOException, ParserConfigurationException, SAXException, TransformerException {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        Document merged = factory.newDocumentBuilder().newDocument();
+        Element root = merged.createElement("testng-results");
+        merged.appendChild(root);
+        for (Map.Entry<Integer, Path> shard : results.entrySet()) {
+            if (!Files.exists(shard.getValue())) {
+                continue;
+            }
+            Element shardRoot = factory.newDocumentBuilder().parse(shard.getValue().toFile()).getDocumentElement();
+            for (String kind : TOTALS) {
+                String value = shardRoot.getAttribute(kind);
+                if (!value.isEmpty()) {
+                    totals.merge(kind, Long.parseLong(value), Long::sum);
+                    shardTotals.computeIfAbsent(shard.getKey(), key -> new TreeMap<>()).put(kind, Long.parseLong(value));
+                }
+            }
+            NodeList suites = shardRoot.getElementsByTagName("suite");
+            for (int i = 0; i < suites.getLength(); i++) {
+                Element suite = (Element) merged.importNode(suites.item(i), true);
+                suite.setAttribute("name", suite.getAttribute("name") + " [shard " + (shard.getKey() + 1) + "/" + shardCount + "]");
+                root.appendChild(suite);
+            }
+            NodeList outputs = shardRoot.getChildNodes();
+            for (int i = 0; i < outputs.getLength(); i++) {
+                Node node = outputs.item(i);
+                if (node.getNodeName().equals("reporter-output") && node.hasChildNodes()) {
+                    root.insertBefore(merged.importNode(node, true), root.getFirstChild());
+                }
+            }
+        }
+        for (String kind : TOTALS) {
+            root.setAttribute(kind, Long.toString(getTotal(kind)));
+        }
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        transformer.transform(new DOMSource(merged), new StreamResult(target.toFile()));
+    }
+
+    /**
+     * Concatenates every CSV report of the shards' report directories into
+     * the target directory, prefixing each row with the shard number.
+     * @param reportDirectories The target/ directory of each shard, by shard index.
+     * @return The merged report files.
+     */
+    public List<Path> mergeCsvReports(Map<Integer, Path> reportDirectories, Path targetDirectory) throws IOException {
+        Map<String, List<String>> merged = new TreeMap<>();
+        for (Map.Entry<Integer, Path> shard : reportDirectories.entrySet()) {
+            if (!Files.isDirectory(shard.getValue())) {
+                continue;
+            }
+            try (DirectoryStream<Path> reports = Files.newDirectoryStream(shard.getValue(), "*.csv")) {
+                for (Path report : reports) {
+                    List<String> lines = Files.readAllLines(report, StandardCharsets.UTF_8);
+                    if (lines.isEmpty()) {
+                        continue;
+                    }
+                    List<String> rows = merged.computeIfAbsent(report.getFileName().toString(), name -> {
+                        List<String> header = new ArrayList<>();
+                        header.add("shard," + lines.get(0));
+                        return header;
+                    });
+                    for (String line : lines.subList(1, lines.size())) {
+                        rows.add((shard.getKey() + 1) + "," + line);
+                    }
+                }
+            }
+        }
+        Files.createDirectories(targetDirectory);
+        List<Path> written = new ArrayList<>();
+        for (Map.Entry<String, List<String>> report : merged.entrySet()) {
+            Path file = targetDirectory.resolve(report.getKey());
+            Files.write(file, report.getValue(), StandardCharsets.UTF_8);
+            written.add(file);
+        }
+        return written;
+    }
+
+    /**
+     * Replaces the concatenated perf-budgets.csv in the target directory by
+     * one computed over the page timing samples of every shard. Returns the
+     * report, or null when no shard captured timings.
+     */
+    public Path mergePerformanceBudgets(Map<Integer, Path> reportDirectories, Path targetDirectory) throws IOException {
+        List<Path> samples = new ArrayList<>();
+        for (Path directory : reportDirectories.values()) {
+            Path file = directory.resolve(PerformanceBudgetReporter.SAMPLES.getFileName());
+            if (Files.exists(file)) {
+                samples.add(file);
+            }
+        }
+        Map<String, List<Double>> merged = PerformanceBudgetReporter.readSamples(samples);
+        if (merged.isEmpty()) {
+            return null;
+        }
+        Path report = targetDirectory.resolve(PerformanceBudgetReporter.REPORT.getFileName());
+        PerformanceBudgetReporter.summarize(merged, report);
+        return report;
+    }
+}
@@ -0,0 +1,142 @@
+package com.testing.periplus.shard;
+
+import com.testing.periplus.support.TemporaryDirectoryTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ShardResultsTest extends TemporaryDirectoryTest {
+    private static final List<String> PROPERTIES = List.of("perf.budgets", "perf.trend.file", "perf.trend.update");
+
+    private final Map<String, String> previousProperties = new LinkedHashMap<>();
+
+    @BeforeMethod
+    public void saveProperties() {
+        PROPERTIES.forEach(name -> previousProperties.put(name, System.getProperty(name)));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restoreProperties() {
+        previousProperties.forEach((name, value) -> {
+            if (value == null) {
+                System.clearProperty(name);
+            } else {
+                System.setProperty(name, value);
+            }
+        });
+    }
+
+    @Test
+    public void mergedResultsKeepFailuresAndSkipsOfEveryShard() throws Exception {
+        Map<Integer, Path> results = new LinkedHashMap<>();
+        results.put(0, write("shard-1/testng-results.xml", results(1, "3", "2", "1", "0",
+                method("TC_CART_001", "PASS") + method("TC_CART_002", "PASS") + method("TC_CART_003", "FAIL"))));
+        results.put(1, write("shard-2/testng-results.xml", results(2, "2", "1", "0", "1",
+                method("TC_HOME_001", "PASS") + method("TC_HOME_002", "SKIP"))));
+        // A shard whose JVM crashed before writing its results
+        results.put(2, directory.resolve("shard-3/testng-results.xml"));
+        Path target = directory.resolve("merged/testng-results.xml");
+
+        ShardResults merged = new ShardResults();
+        merged.mergeTestNgResults(results, 3, target);
+
+        Assert.assertEquals(merged.getTotal("total"), 5);
+        Assert.assertEquals(merged.getTotal("passed"), 3);
+        Assert.assertEquals(merged.getTotal("failed"), 1);
+        Assert.assertEquals(merged.getTotal("skipped"), 1);
+        Assert.assertEquals(merged.getTotal(0, "failed"), 1);
+        Assert.assertEquals(merged.getTotal(1, "skipped"), 1);
+        Assert.assertEquals(merged.getTotal(2, "total"), 0);
+
+        String xml = new String(Files.readAllBytes(target), StandardCharsets.UTF_8);
+        Assert.assertTrue(xml.contains("total=\"5\""), xml);
+        Assert.assertTrue(xml.contains("failed=\"1\""), xml);
+        Assert.assertTrue(xml.contains("skipped=\"1\""), xml);
+        Assert.assertTrue(xml.contains("Periplus [shard 1/3]"), xml);
+        Assert.assertTrue(xml.contains("Periplus [shard 2/3]"), xml);
+        Assert.assertFalse(xml.contains("[shard 3/3]"), xml);
+        Assert.assertTrue(xml.contains("name=\"TC_CART_003\" status=\"FAIL\""), xml);
+        Assert.assertTrue(xml.contains("name=\"TC_HOME_002\" status=\"SKIP\""), xml);
+        Assert.assertTrue(xml.contains("output of shard 1") && xml.contains("output of shard 2"), xml);
+    }
+
+    @Test
+    public void csvReportsGetALeadingShardColumn() throws IOException {
+        write("shard-1/target/wait-stats.csv", "method,count\nHomePage.search,3\n");
+        write("shard-2/target/wait-stats.csv", "method,count\nShoppingCartPage.open,2\nHomePage.search,1\n");
+        write("shard-2/target/empty.csv", "");
+        Map<Integer, Path> directories = new LinkedHashMap<>();
+        directories.put(0, directory.resolve("shard-1/target"));
+        directories.put(1, directory.resolve("shard-2/target"));
+        directories.put(2, directory.resolve("shard-3/target"));
+
+        List<Path> written = new ShardResults().mergeCsvReports(directories, directory.resolve("merged"));
+
+        Assert.assertEquals(written, List.of(directory.resolve("merged/wait-stats.csv")));
+        Assert.assertEquals(Files.readAllLines(written.get(0), StandardCharsets.UTF_8), List.of("shard,method,count",
+                "1,HomePage.search,3", "2,ShoppingCartPage.open,2", "2,HomePage.search,1"));
+    }
+
+    @Test
+    public void performanceBudgetsAreComputedOverTheSamplesOfAllShards() throws IOException {
+        System.setProperty("perf.budgets", write("perf-budgets.properties", "*.load_ms=250\n").toString());
+        Path trend = directory.resolve("perf-trend.csv");
+        System.setProperty("perf.trend.file", trend.toString());
+        System.clearProperty("perf.trend.update");
+        // Shard 1 alone has a median of 100, shard 2 alone of 300; together they have one of 200
+        write("shard-1/target/perf-samples.csv", "page,metric,value\ncart,load_ms,100.0\ncart,load_ms,100.0\ncart,load_ms,200.0\n");
+        write("shard-2/target/perf-samples.csv", "page,metric,value\ncart,load_ms,300.0\ncart,load_ms,300.0\n");
+        write("shard-1/target/perf-budgets.csv", "page,metric,samples,median\ncart,load_ms,3,100.0\n");
+        write("shard-2/target/perf-budgets.csv", "page,metric,samples,median\ncart,load_ms,2,300.0\n");
+        Map<Integer, Path> directories = new LinkedHashMap<>();
+        directories.put(0, directory.resolve("shard-1/target"));
+        directories.put(1, directory.resolve("shard-2/target"));
+        ShardResults results = new ShardResults();
+        results.mergeCsvReports(directories, directory.resolve("merged"));
+
+        Path report = results.mergePerformanceBudgets(directories, directory.resolve("merged"));
+
+        Assert.assertEquals(report, directory.resolve("merged/perf-budgets.csv"));
+        Assert.assertEquals(Files.readAllLines(report, StandardCharsets.UTF_8), List.of(
+                "page,metric,samples,median,p90,max,budget,breaches,status,previous_median,delta,delta_pct",
+                "cart,load_ms,5,200.0,300.0,300.0,250.0,2,ok,,,"));
+        Assert.assertEquals(Files.readAllLines(trend, StandardCharsets.UTF_8), List.of("page,metric,median", "cart,load_ms,200.0"));
+    }
+
+    @Test
+    public void noSamplesLeaveNoBudgetReport() throws IOException {
+        Map<Integer, Path> directories = Map.of(0, directory.resolve("shard-1/target"));
+
+        Assert.assertNull(new ShardResults().mergePerformanceBudgets(directories, directory.resolve("merged")));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String results(int shard, String total, String passed, String failed, String skipped, String methods) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<testng-results ignored=\"0\" total=\"" + total + "\" passed=\"" + passed + "\" failed=\"" + failed
+                + "\" skipped=\"" + skipped + "\">\n"
+                + "  <reporter-output><line>output of shard " + shard + "</line></reporter-output>\n"
+                + "  <suite name=\"Periplus\">\n    <test name=\"Periplus\">\n      <class name=\"com.testing.periplus.CartCheckoutTest\">\n"
+                + methods
+                + "      </class>\n    </test>\n  </suite>\n</testng-results>\n";
+    }
+
+    private static String method(String name, String status) {
+        return "        <test-method name=\"" + name + "\" status=\"" + status + "\"/>\n";
+    }
+}
@@ -0,0 +1,251 @@
+package com.testing.periplus.shard;
+
+import com.testing.periplus.har.HarProxy;
+import com.testing.periplus.startup.StartupArchive;
+import com.testing.periplus.support.DriverPin;
+import com.testing.periplus.support.ForkedJvm;
+import com.testing.periplus.support.HarnessConfig;
+import com.testing.periplus.support.TimingHistory;
+import io.github.cdimascio.dotenv.Dotenv;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.internal.Parser;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Shard mode: splits the suite into time-balanced {@link ShardPlan shards}
+ * and runs each in a JVM of its own on this machine, so no single JVM has to
+ * drive every browser session. Every shard works in target/shards/shard-N,
+ * which keeps its target/*.csv reports apart; when all are done, their
+ * results are merged into target/shards/testng-results.xml and
+ * target/shards/merged/*.csv, and target/shards/shards.csv compares each
+ * shard's predicted and actual time.
+ *
+ * <p>Settings, as system properties: shards (default 2), shards.suite
+ * (default testng.xml), shards.timeoutMinutes (default 60),
+ * shards.forward (extra comma separated property prefixes to pass on) and
+ * shards.appcds (start the shards on the {@link StartupArchive}). The
+ * harness settings (periplus.*, parallel.*, browser.*, stub.* and so on) are
+ * passed to every shard, and each shard gets its own range of test accounts
+ * through accounts.offset. With har.mode=record every shard records its
+ * own HAR file in its directory, and these are merged into har.file.
+ */
+public final class ShardRunner {
+    private static final Logger logger = Logger.getLogger(ShardRunner.class.getName());
+    private static final Path SHARDS = Paths.get("target", "shards");
+    private static final String HEADER = "shard,units,predicted_ms,wall_ms,exit_code,total,passed,failed,skipped";
+    private static final List<String> FORWARDED_PREFIXES = List.of("periplus.", "parallel.", "browser.", "stub.",
+            "lean.", "login.", "traffic.", "webdriver.", "screenshots.", "preconditions.", "products.", "schedule.",
+            "accounts.", "perf.", "har.", "wdm.", "java.util.logging.");
+    // Set per shard, or passed on as absolute paths by forwardedProperties
+    private static final Set<String> NOT_FORWARDED = Set.of("accounts.offset", "schedule.history", "products.cache.file",
+            "perf.budgets", "perf.trend.file", "perf.trend.update", "webdriver.pin.file", "har.file", "har.archive.dir", "har.keystore");
+
+    private final int shardCount = HarnessConfig.getInt("shards", 2);
+    private final Path suiteFile = Paths.get(HarnessConfig.get("shards.suite", "testng.xml"));
+    private final long timeoutMinutes = HarnessConfig.getInt("shards.timeoutMinutes", 60);
+    private final Path harFile = Paths.get(HarnessConfig.get("har.file", "har/periplus.har")).toAbsolutePath();
+    private final boolean recordingHar = HarnessConfig.get("har.mode", "off").equalsIgnoreCase("record");
+
+    private ShardRunner() {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Setting 'shards' must be at least 1 but was " + shardCount + ".");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new ShardRunner().run();
+    }
+
+    private void run() throws Exception {
+        XmlSuite suite = new Parser(suiteFile.toString()).parseToList().get(0);
+        // Settings resolve as in the shards: system property, then suite parameter, then default
+        HarnessConfig.registerSuiteParameters(suite.getParameters());
+        Path history = Paths.get(HarnessConfig.get("schedule.history", ".cache/test-timings.tsv")).toAbsolutePath();
+        ShardPlan plan = new ShardPlan(suite, shardCount, new TimingHistory(history));
+
+        List<String> command = new ArrayList<>();
+        command.add(ForkedJvm.javaExecutable());
+        List<Path> classpath = ForkedJvm.classpath();
+        if (HarnessConfig.getBoolean("shards.appcds", false)) {
+            List<Path> jarClasspath = StartupArchive.jarClasspath(classpath);
+            if (StartupArchive.isCurrent(jarClasspath)) {
+                classpath = jarClasspath;
+                command.addAll(StartupArchive.useOptions());
+            } else {
+                logger.warning("No current AppCDS archive at " + StartupArchive.file() + "; run mvn -Pstartup test to dump one.");
+            }
+        }
+        command.add("-cp");
+        command.add(ForkedJvm.join(classpath));
+        command.addAll(forwardedProperties(history));
+        if (!recordingHar) {
+            command.add("-Dhar.file=" + harFile);
+        }
+        Map<String, String> environment = Dotenv.configure().ignoreIfMissing().load()
+                .entries(Dotenv.Filter.DECLARED_IN_ENV_FILE).stream()
+                .collect(LinkedHashMap::new, (map, entry) -> map.put(entry.getKey(), entry.getValue()), Map::putAll);
+        int threadsPerShard = threadsPerShard();
+
+        Map<Integer, Process> processes = new LinkedHashMap<>();
+        Map<Integer, Long> started = new LinkedHashMap<>();
+        for (ShardPlan.Shard shard : plan.getShards()) {
+            if (shard.isEmpty()) {
+                logger.info("Shard " + (shard.getIndex() + 1) + " has nothing to run.");
+                continue;
+            }
+            Path directory = shardDirectory(shard.getIndex()).toAbsolutePath();
+            Files.createDirectories(directory);
+            Files.write(directory.resolve("testng.xml"), plan.suiteFor(suite, shard).toXml().getBytes(StandardCharsets.UTF_8));
+
+            List<String> shardCommand = new ArrayList<>(command);
+            // Shards log in with disjoint accounts, so parallel sessions never share a cart
+            shardCommand.add("-Daccounts.offset=" + (HarnessConfig.getInt("accounts.offset", 0) + shard.getIndex() * threadsPerShard));
+            if (recordingHar) {
+                // One recording per shard; a shared file would keep only the shard that finished last
+                shardCommand.add("-Dhar.file=" + directory.resolve(harFile.getFileName()));
+            }
+            shardCommand.addAll(List.of("org.testng.TestNG", "-d", "testng-output", "testng.xml"));
+            ProcessBuilder builder = new ProcessBuilder(shardCommand)
+                    .directory(directory.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(directory.resolve("output.log").toFile());
+            builder.environment().putAll(environment);
+            logger.info(String.format(Locale.ROOT, "Starting shard %d/%d with %d unit(s), predicted %d ms: %s",
+                    shard.getIndex() + 1, shardCount, shard.getUnits().size(), shard.getEstimateMillis(), shard.getUnits()));
+            started.put(shard.getIndex(), System.nanoTime());
+            processes.put(shard.getIndex(), builder.start());
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(timeoutMinutes);
+        Map<Integer, Integer> exitCodes = new LinkedHashMap<>();
+        Map<Integer, Long> wallMillis = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Integer, Process> shard : processes.entrySet()) {
+                Process process = shard.getValue();
+                if (!process.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    logger.warning("Shard " + (shard.getKey() + 1) + " did not finish within " + timeoutMinutes + " minute(s); stopping it.");
+                    process.destroyForcibly().waitFor();
+                }
+                exitCodes.put(shard.getKey(), process.exitValue());
+                wallMillis.put(shard.getKey(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started.get(shard.getKey())));
+            }
+        } finally {
+            processes.values().forEach(Process::destroyForcibly);
+        }
+
+        if (recordingHar) {
+            mergeHarRecordings(exitCodes.keySet());
+        }
+        merge(plan, exitCodes, wallMillis);
+    }
+
+    private void mergeHarRecordings(Iterable<Integer> shards) throws Exception {
+        List<Path> recordings = new ArrayList<>();
+        for (Integer index : shards) {
+            Path recording = shardDirectory(index).resolve(harFile.getFileName());
+            if (Files.exists(recording)) {
+                recordings.add(recording);
+            } else {
+                logger.warning("Shard " + (index + 1) + " recorded no HAR file at " + recording + ".");
+            }
+        }
+        if (!recordings.isEmpty()) {
+            HarProxy.mergeRecordings(recordings, harFile);
+        }
+    }
+
+    private void merge(ShardPlan plan, Map<Integer, Integer> exitCodes, Map<Integer, Long> wallMillis) throws Exception {
+        ShardResults results = new ShardResults();
+        Map<Integer, Path> resultFiles = new LinkedHashMap<>();
+        Map<Integer, Path> reportDirectories = new LinkedHashMap<>();
+        for (Integer index : exitCodes.keySet()) {
+            resultFiles.put(index, shardDirectory(index).resolve(Paths.get("testng-output", "testng-results.xml")));
+            reportDirectories.put(index, shardDirectory(index).resolve("target"));
+        }
+        results.mergeTestNgResults(resultFiles, shardCount, SHARDS.resolve("testng-results.xml"));
+        List<Path> reports = results.mergeCsvReports(reportDirectories, SHARDS.resolve("merged"));
+        results.mergePerformanceBudgets(reportDirectories, SHARDS.resolve("merged"));
+
+        List<String> rows = new ArrayList<>();
+        rows.add(HEADER);
+        List<String> failed = new ArrayList<>();
+        for (ShardPlan.Shard shard : plan.getShards()) {
+            Integer exitCode = exitCodes.get(shard.getIndex());
+            if (exitCode == null) {
+                continue;
+            }
+            rows.add(String.join(",", Integer.toString(shard.getIndex() + 1), Integer.toString(shard.getUnits().size()),
+                    Long.toString(shard.getEstimateMillis()), Long.toString(wallMillis.get(shard.getIndex())),
+                    Integer.toString(exitCode), Long.toString(results.getTotal(shard.getIndex(), "total")),
+                    Long.toString(results.getTotal(shard.getIndex(), "passed")),
+                    Long.toString(results.getTotal(shard.getIndex(), "failed")),
+                    Long.toString(results.getTotal(shard.getIndex(), "skipped"))));
+            // TestNG's exit code has bit 1 set for failures, 2 for skips and 8 when no test ran
+            if ((exitCode & 1) != 0 || !Files.exists(resultFiles.get(shard.getIndex()))) {
+                failed.add("shard " + (shard.getIndex() + 1) + " (exit code " + exitCode + ", see "
+                        + shardDirectory(shard.getIndex()).resolve("output.log") + ")");
+            }
+        }
+        Files.write(SHARDS.resolve("shards.csv"), rows, StandardCharsets.UTF_8);
+        logger.info(String.format(Locale.ROOT, "%d shard(s) ran %d test(s): %d passed, %d failed, %d skipped. "
+                        + "Merged results in %s, %d report(s) in %s:%n%s",
+                exitCodes.size(), results.getTotal("total"), results.getTotal("passed"), results.getTotal("failed"),
+                results.getTotal("skipped"), SHARDS.resolve("testng-results.xml"), reports.size(), SHARDS.resolve("merged"),
+                String.join("\n", rows)));
+        if (!failed.isEmpty()) {
+            throw new IllegalStateException("Failures in " + String.join(", ", failed) + ".");
+        }
+    }
+
+    private static Path shardDirectory(int index) {
+        return SHARDS.resolve("shard-" + (index + 1));
+    }
+
+    private static List<String> forwardedProperties(Path history) {
+        List<String> prefixes = new ArrayList<>(FORWARDED_PREFIXES);
+        Arrays.stream(HarnessConfig.get("shards.forward", "").split(","))
+                .map(String::trim).filter(prefix -> !prefix.isEmpty()).forEach(prefixes::add);
+        List<String> properties = new ArrayList<>();
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (prefixes.stream().anyMatch(name::startsWith) && !NOT_FORWARDED.contains(name)) {
+                properties.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        // Relative paths would resolve against the shard directory; the shards share the caches
+        properties.add("-Dschedule.history=" + history);
+        properties.add("-Dproducts.cache.file="
+                + Paths.get(HarnessConfig.get("products.cache.file", ".cache/products.tsv")).toAbsolutePath());
+        properties.add("-Dperf.budgets="
+                + Paths.get(HarnessConfig.get("perf.budgets", "perf-budgets.properties")).toAbsolutePath());
+        properties.add("-Dperf.trend.file="
+                + Paths.get(HarnessConfig.get("perf.trend.file", ".cache/perf-trend.csv")).toAbsolutePath());
+        // The trend is updated once, from the merged samples, by ShardResults
+        properties.add("-Dperf.trend.update=false");
+        properties.add("-Dwebdriver.pin.file=" + DriverPin.file());
+        properties.add("-Dhar.archive.dir=" + Paths.get(HarnessConfig.get("har.archive.dir", ".cache/har")).toAbsolutePath());
+        properties.add("-Dhar.keystore=" + Paths.get(HarnessConfig.get("har.keystore", ".cache/har-proxy.p12")).toAbsolutePath());
+        return properties;
+    }
+
+    // Resolved the way ParallelSuiteConfigurer resolves it in the shards, so the account offsets match their threads
+    private static int threadsPerShard() {
+        String mode = HarnessConfig.get("parallel.mode", "none").toLowerCase(Locale.ROOT);
+        if (mode.equals("none") || mode.equals("false")) {
+            return 1;
+        }
+        return Math.max(1, HarnessConfig.getInt("parallel.threads", 3));
+    }
+}
@@ -0,0 +1,130 @@
+package com.testing.periplus.startup;
+
+import com.testing.periplus.support.HarnessConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An AppCDS archive of the classes a test JVM loads up to its first test,
+ * so forked JVMs map them from the archive instead of loading and verifying
+ * them again. The archive is a dynamic one (Java 13+), written by a JVM run
+ * with {@link #dumpOptions()} and used through {@link #useOptions()}.
+ *
+ * <p>CDS only archives classes from jar files and refuses class
+ * directories on the classpath, so target/classes and target/test-classes
+ * are packed into jars under target/startup first. A jar is only repacked
+ * when its directory changed, because the JVM ignores the archive once a
+ * jar's size or modification time differs from dump time.
+ */
+public final class StartupArchive {
+    private static final Path JARS = Paths.get("target", "startup");
+
+    private StartupArchive() {
+    }
+
+    /**
+     * The archive file, "startup.archive" (default target/startup/test-classpath.jsa).
+     */
+    public static Path file() {
+        return Paths.get(HarnessConfig.get("startup.archive", JARS.resolve("test-classpath.jsa").toString())).toAbsolutePath();
+    }
+
+    /**
+     * Returns the classpath with every directory replaced by a jar of its contents.
+     */
+    public static List<Path> jarClasspath(List<Path> classpath) throws IOException {
+        List<Path> jars = new ArrayList<>();
+        for (Path entry : classpath) {
+            if (Files.isDirectory(entry)) {
+                Path jar = JARS.resolve(entry.getFileName() + ".jar").toAbsolutePath();
+                if (!Files.exists(jar) || newestModification(entry) > Files.getLastModifiedTime(jar).toMillis()) {
+                    pack(entry, jar);
+                }
+                jars.add(jar);
+            } else {
+                jars.add(entry);
+            }
+        }
+        return jars;
+    }
+
+    /**
+     * Whether the archive was dumped after every jar of the classpath last changed.
+     */
+    public static boolean isCurrent(List<Path> jarClasspath) throws IOException {
+        Path archive = file();
+        if (!Files.exists(archive)) {
+            return false;
+        }
+        long dumped = Files.getLastModifiedTime(archive).toMillis();
+        for (Path jar : jarClasspath) {
+            if (Files.exists(jar) && Files.getLastModifiedTime(jar).toMillis() > dumped) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static List<String> dumpOptions() {
+        requireDynamicArchives();
+        return List.of("-XX:ArchiveClassesAtExit=" + file());
+    }
+
+    // -Xshare:auto falls back to loading classes normally if the archive does not match
+    public static List<String> useOptions() {
+        requireDynamicArchives();
+        return List.of("-XX:SharedArchiveFile=" + file(), "-Xshare:auto");
+    }
+
+    private static void requireDynamicArchives() {
+        if (Runtime.version().feature() < 13) {
+            throw new IllegalStateException("Dynamic AppCDS archives need Java 13 or later; this is Java "
+                    + Runtime.version().feature() + ".");
+        }
+    }
+
+    private static long newestModification(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.mapToLong(file -> file.toFile().lastModified()).max().orElse(0);
+        }
+    }
+
+    // Entries are written in a fixed order with fixed times, so the same classes give the same jar
+    private static void pack(Path directory, Path jar) throws IOException {
+        Files.createDirectories(jar.getParent());
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(file -> !file.equals(directory)).sorted().collect(Collectors.toList());
+        }
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        Path temporary = Files.createTempFile(jar.getParent(), jar.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary); JarOutputStream stream = new JarOutputStream(out, manifest)) {
+            for (Path file : files) {
+                String name = directory.relativize(file).toString().replace('\\', '/');
+                JarEntry entry = new JarEntry(Files.isDirectory(file) ? name + "/" : name);
+                entry.setLastModifiedTime(FileTime.fromMillis(0));
+                stream.putNextEntry(entry);
+                if (!Files.isDirectory(file)) {
+                    Files.copy(file, stream);
+                }
+                stream.closeEntry();
+            }
+        }
+        Files.move(temporary, jar, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,163 @@
+package com.testing.periplus.startup;
+
+import com.testing.periplus.support.DriverPin;
+import com.testing.periplus.support.ForkedJvm;
+import com.testing.periplus.support.HarnessConfig;
+import com.testing.periplus.support.StartupProbe;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Startup benchmark: times a fresh test JVM from start to its first test
+ * ({@link StartupCheck}, recorded by {@link StartupProbe}) in three setups,
+ * interleaved over "startup.runs" (default 5) rounds after one discarded
+ * warm-up round:
+ * <ul>
+ *     <li>cold: the driver resolved by WebDriverManager, classes loaded from target/;</li>
+ *     <li>pinned: the driver taken from the {@link DriverPin};</li>
+ *     <li>pinned+appcds: also mapping the classes from the {@link StartupArchive}.</li>
+ * </ul>
+ * It pins the driver and dumps the archive first when they are missing or
+ * stale, and writes the medians to target/startup-benchmark.csv.
+ */
+public final class StartupBenchmark {
+    private static final Logger logger = Logger.getLogger(StartupBenchmark.class.getName());
+    private static final Path DIRECTORY = Paths.get("target", "startup").toAbsolutePath();
+    private static final Path RUNS = DIRECTORY.resolve("runs.csv");
+    private static final Path REPORT = Paths.get("target", "startup-benchmark.csv");
+    private static final String HEADER = "label,runs,median_first_test_ms,min_first_test_ms,max_first_test_ms,"
+            + "median_suite_ms,median_loaded_classes,speedup";
+
+    private final int runs = HarnessConfig.getInt("startup.runs", 5);
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        new StartupBenchmark().run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        Files.createDirectories(DIRECTORY);
+        Path suite = DIRECTORY.resolve("startup-suite.xml");
+        Files.write(suite, probeSuite().toXml().getBytes(StandardCharsets.UTF_8));
+        List<Path> classpath = ForkedJvm.classpath();
+        List<Path> jarClasspath = StartupArchive.jarClasspath(classpath);
+
+        boolean pinned = DriverPin.pinned() != null;
+        if (!pinned) {
+            try {
+                DriverPin.pin();
+                pinned = true;
+            } catch (IOException | RuntimeException e) {
+                logger.warning("Could not pin the driver, so the pinned setups resolve it like the cold one: " + e.getMessage());
+            }
+        }
+        if (!StartupArchive.isCurrent(jarClasspath)) {
+            logger.info("Dumping the AppCDS archive " + StartupArchive.file() + ".");
+            List<String> dump = new ArrayList<>(StartupArchive.dumpOptions());
+            dump.add("-Dstartup.label=dump");
+            runJvm(jarClasspath, dump, suite);
+        }
+
+        Map<String, List<String>> setups = new LinkedHashMap<>();
+        setups.put("cold", List.of("-Dwebdriver.pin=false"));
+        setups.put("pinned", List.of());
+        setups.put("pinned+appcds", StartupArchive.useOptions());
+        Files.deleteIfExists(RUNS);
+        for (int round = 0; round <= runs; round++) {
+            for (Map.Entry<String, List<String>> setup : setups.entrySet()) {
+                List<String> options = new ArrayList<>(setup.getValue());
+                // Round 0 only warms the OS file cache and is not reported
+                options.add("-Dstartup.label=" + (round == 0 ? "warmup" : setup.getKey()));
+                runJvm(setup.getKey().endsWith("appcds") ? jarClasspath : classpath, options, suite);
+            }
+        }
+        report(setups.keySet(), pinned);
+    }
+
+    private static XmlSuite probeSuite() {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("StartupBenchmark");
+        suite.setListeners(List.of(StartupProbe.class.getName()));
+        XmlTest test = new XmlTest(suite);
+        test.setName("Startup");
+        test.setXmlClasses(List.of(new XmlClass(StartupCheck.class.getName(), false)));
+        return suite;
+    }
+
+    private static void runJvm(List<Path> classpath, List<String> options, Path suite) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ForkedJvm.javaExecutable());
+        command.addAll(options);
+        command.add("-Dstartup.report=" + RUNS);
+        command.add("-cp");
+        command.add(ForkedJvm.join(classpath));
+        command.addAll(List.of("org.testng.TestNG", "-d", DIRECTORY.resolve("testng-output").toString(), suite.toString()));
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(DIRECTORY.resolve("output.log").toFile()))
+                .start();
+        if (!process.waitFor(5, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            throw new IllegalStateException("A startup run did not finish within 5 minutes; see " + DIRECTORY.resolve("output.log"));
+        }
+        if (process.exitValue() != 0) {
+            throw new IllegalStateException("A startup run failed with exit code " + process.exitValue() + "; see "
+                    + DIRECTORY.resolve("output.log"));
+        }
+    }
+
+    private void report(Iterable<String> labels, boolean pinned) throws IOException {
+        Map<String, List<long[]>> byLabel = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(RUNS, StandardCharsets.UTF_8)) {
+            String[] columns = line.split(",");
+            if (line.startsWith("timestamp") || columns.length < 7) {
+                continue;
+            }
+            byLabel.computeIfAbsent(columns[1], label -> new ArrayList<>()).add(new long[]{
+                    Long.parseLong(columns[5]), Long.parseLong(columns[4]), Long.parseLong(columns[6])});
+        }
+
+        List<String> rows = new ArrayList<>();
+        rows.add(HEADER);
+        double baseline = 0;
+        for (String label : labels) {
+            List<long[]> samples = byLabel.getOrDefault(label, List.of());
+            if (samples.isEmpty()) {
+                continue;
+            }
+            double firstTest = median(samples, 0);
+            if (baseline == 0) {
+                baseline = firstTest;
+            }
+            rows.add(String.format(Locale.ROOT, "%s,%d,%.0f,%d,%d,%.0f,%.0f,%.2f", label, samples.size(), firstTest,
+                    samples.stream().mapToLong(sample -> sample[0]).min().getAsLong(),
+                    samples.stream().mapToLong(sample -> sample[0]).max().getAsLong(),
+                    median(samples, 1), median(samples, 2), baseline / firstTest));
+        }
+        Files.write(REPORT, rows, StandardCharsets.UTF_8);
+        logger.info("Time from JVM start to first test" + (pinned ? "" : " (no driver pin available)") + ", " + REPORT
+                + ":\n" + String.join("\n", rows));
+    }
+
+    private static double median(List<long[]> samples, int column) {
+        long[] values = samples.stream().mapToLong(sample -> sample[column]).sorted().toArray();
+        int middle = values.length / 2;
+        return values.length % 2 == 1 ? values[middle] : (values[middle - 1] + values[middle]) / 2.0;
+    }
+}
@@ -0,0 +1,36 @@
+package com.testing.periplus.startup;
+
+import com.testing.periplus.support.BrowserFactory;
+import com.testing.periplus.support.TestAccounts;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The startup work of a cart test class up to its first test, without
+ * launching Chrome: reading the accounts from .env, resolving the driver
+ * binary and loading Selenium's Chrome classes. {@link StartupBenchmark}
+ * runs it to time JVM startup where no browser is installed.
+ */
+public class StartupCheck {
+    private static final Logger logger = Logger.getLogger(StartupCheck.class.getName());
+
+    @BeforeClass
+    public void setUp() {
+        TestAccounts.all();
+        try {
+            BrowserFactory.resolveDriver();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Driver resolution failed; timing the rest of the startup: " + e.getMessage());
+        }
+        new ChromeOptions().addArguments("--headless=new");
+    }
+
+    @Test
+    public void firstTest() {
+        logger.info("Startup check reached its first test.");
+    }
+}
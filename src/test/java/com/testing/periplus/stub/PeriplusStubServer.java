@@ -0,0 +1,374 @@
+package com.testing.periplus.stub;
+
+import com.periplus.pages.Rupiah;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Embedded stand-in for the Periplus shop. It serves home, search, product,
+ * login, account, cart and checkout pages whose markup matches the locators
+ * in the page objects, keeps carts per account, and can add latency and fail
+ * a share of requests so runs are reproducible offline.
+ */
+public class PeriplusStubServer implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(PeriplusStubServer.class.getName());
+    private static final String SESSION_COOKIE = "PERIPLUS_STUB_SESSION";
+
+    private final StubCatalogue catalogue = new StubCatalogue();
+    private final StubShop shop = new StubShop();
+    private final Map<String, String> templates = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedFaults = new AtomicLong();
+    private final AtomicLong faultDraws = new AtomicLong();
+
+    private volatile Duration latency = Duration.ZERO;
+    private volatile Duration jitter = Duration.ZERO;
+    private volatile double faultRate;
+    private volatile String faultPathPrefix = "/";
+    private volatile long faultSeed;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /**
+     * Starts listening on the loopback interface; port 0 picks a free port.
+     */
+    public PeriplusStubServer start(int port) {
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the Periplus stub server on port " + port + ".", e);
+        }
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        logger.info("Periplus stub server listening on " + getBaseUrl());
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Delays every response by the given latency plus a uniformly distributed
+     * jitter of up to the given amount.
+     */
+    public void setLatency(Duration latency, Duration jitter) {
+        this.latency = latency;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Answers the given share (0..1) of requests under the path prefix with a
+     * 503 instead of the page. The seed makes the failure pattern repeatable:
+     * the n-th request under the prefix fails or not depending only on the
+     * seed and n, however the handler threads interleave.
+     */
+    public void setFaults(double rate, String pathPrefix, long seed) {
+        this.faultRate = rate;
+        this.faultPathPrefix = pathPrefix;
+        this.faultSeed = seed;
+        faultDraws.set(0);
+    }
+
+    public StubCatalogue getCatalogue() {
+        return catalogue;
+    }
+
+    public StubShop getShop() {
+        return shop;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getInjectedFaultCount() {
+        return injectedFaults.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            logger.info("Periplus stub server stopped after " + requests.get() + " request(s), "
+                    + injectedFaults.get() + " injected fault(s).");
+        }
+    }
+
+    private void handle(HttpExchange exchange) {
+        requests.incrementAndGet();
+        try {
+            delay();
+            String path = exchange.getRequestURI().getPath();
+            if (faultRate > 0 && path.startsWith(faultPathPrefix) && injectFault()) {
+                injectedFaults.incrementAndGet();
+                send(exchange, 503, "text/plain", "Injected fault");
+                return;
+            }
+            route(exchange, path, session(exchange));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Stub server failed to handle " + exchange.getRequestURI() + ": " + e.getMessage(), e);
+            try {
+                send(exchange, 500, "text/plain", "Internal error");
+            } catch (IOException ignored) {
+                // The client is gone; nothing left to report.
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, String path, String session) throws IOException {
+        boolean post = "POST".equalsIgnoreCase(exchange.getRequestMethod());
+        Map<String, String> params = post ? parseForm(readBody(exchange)) : parseForm(exchange.getRequestURI().getRawQuery());
+
+        if (path.equals("/") || path.equals("/index.php")) {
+            page(exchange, session, "Online Bookstore", render("home.html", Map.of()));
+        } else if (path.equals("/robots.txt")) {
+            send(exchange, 200, "text/plain", "User-agent: *\nDisallow:\n");
+        } else if (path.equals("/product/Search")) {
+            search(exchange, session, params.getOrDefault("filter_name", ""));
+        } else if (path.startsWith("/p/")) {
+            product(exchange, session, path.split("/")[2]);
+        } else if (path.equals("/account/Login")) {
+            login(exchange, session, post, params);
+        } else if (path.equals("/account/Your-Account")) {
+            String account = shop.accountOf(session);
+            if (account == null) {
+                redirect(exchange, "/account/Login");
+            } else {
+                page(exchange, session, "My Account", render("account.html", Map.of("email", escape(account))));
+            }
+        } else if (path.equals("/_index_/Logout")) {
+            shop.logOut(session);
+            redirect(exchange, "/");
+        } else if (path.equals("/checkout/cart")) {
+            cart(exchange, session);
+        } else if (path.equals("/checkout/cart/remove")) {
+            shop.remove(session, params.getOrDefault("product_id", ""));
+            redirect(exchange, "/checkout/cart");
+        } else if (path.equals("/checkout/shipping_address")) {
+            page(exchange, session, "Checkout", render("shipping.html", Map.of()));
+        } else if (post && path.equals("/cart/add")) {
+            if (catalogue.find(params.getOrDefault("product_id", "")) == null) {
+                send(exchange, 404, "application/json", "{\"success\":false}");
+                return;
+            }
+            shop.add(session, params.get("product_id"), parseQuantity(params.get("quantity"), 1));
+            cartResponse(exchange, session);
+        } else if (post && path.equals("/cart/update")) {
+            shop.update(session, params.getOrDefault("product_id", ""), parseQuantity(params.get("quantity"), 0));
+            cartResponse(exchange, session);
+        } else if (post && path.equals("/cart/remove")) {
+            shop.remove(session, params.getOrDefault("product_id", ""));
+            cartResponse(exchange, session);
+        } else {
+            send(exchange, 404, "text/html; charset=utf-8", "<html><head><title>Not Found</title></head><body>Not Found</body></html>");
+        }
+    }
+
+    private void search(HttpExchange exchange, String session, String query) throws IOException {
+        StringBuilder products = new StringBuilder();
+        for (StubCatalogue.Product product : catalogue.search(query)) {
+            products.append(render("search-item.html", Map.of(
+                    "id", product.getId(),
+                    "slug", product.slug(),
+                    "name", escape(product.getName()),
+                    "price", Rupiah.format(product.getPrice()))));
+        }
+        page(exchange, session, "Search", render("search.html", Map.of("query", escape(query), "products", products.toString())));
+    }
+
+    private void product(HttpExchange exchange, String session, String id) throws IOException {
+        StubCatalogue.Product product = catalogue.find(id);
+        if (product == null) {
+            send(exchange, 404, "text/html; charset=utf-8", "<html><head><title>Not Found</title></head><body>Not Found</body></html>");
+            return;
+        }
+        page(exchange, session, product.getName(), render("product.html", Map.of(
+                "id", product.getId(),
+                "name", escape(product.getName()),
+                "price", Rupiah.format(product.getPrice()))));
+    }
+
+    private void login(HttpExchange exchange, String session, boolean post, Map<String, String> params) throws IOException {
+        if (!post) {
+            page(exchange, session, "Login", render("login.html", Map.of("error", "")));
+            return;
+        }
+        String email = params.getOrDefault("email", "");
+        if (email.isBlank() || params.getOrDefault("password", "").isBlank()) {
+            page(exchange, session, "Login", render("login.html", Map.of("error", "Email and password are required.")));
+            return;
+        }
+        shop.logIn(session, email);
+        redirect(exchange, "/account/Your-Account");
+    }
+
+    private void cart(HttpExchange exchange, String session) throws IOException {
+        Map<String, Integer> cart = shop.cartOf(session);
+        StringBuilder rows = new StringBuilder();
+        long subTotal = 0;
+        synchronized (cart) {
+            for (Map.Entry<String, Integer> item : cart.entrySet()) {
+                StubCatalogue.Product product = catalogue.find(item.getKey());
+                subTotal += product.getPrice() * item.getValue();
+                rows.append(render("cart-row.html", Map.of(
+                        "id", product.getId(),
+                        "name", escape(product.getName()),
+                        "price", Rupiah.format(product.getPrice()),
+                        "quantity", Integer.toString(item.getValue()))));
+            }
+        }
+        String content = rows.length() == 0
+                ? render("cart-empty.html", Map.of())
+                : render("cart.html", Map.of("rows", rows.toString(), "subTotal", Rupiah.format(subTotal)));
+        page(exchange, session, "Shopping Cart", content);
+    }
+
+    private void cartResponse(HttpExchange exchange, String session) throws IOException {
+        Map<String, Integer> cart = shop.cartOf(session);
+        int items;
+        synchronized (cart) {
+            items = cart.values().stream().mapToInt(Integer::intValue).sum();
+        }
+        send(exchange, 200, "application/json", "{\"success\":true,\"items\":" + items + "}");
+    }
+
+    private void page(HttpExchange exchange, String session, String title, String content) throws IOException {
+        String accountLink = shop.accountOf(session) == null
+                ? "<a href=\"/account/Login\">Sign In</a>"
+                : "<a href=\"/account/Your-Account\">My Account</a> <a href=\"/_index_/Logout\">Logout</a>";
+        send(exchange, 200, "text/html; charset=utf-8", render("layout.html", Map.of(
+                "title", escape(title),
+                "accountLink", accountLink,
+                "content", content)));
+    }
+
+    private String session(HttpExchange exchange) {
+        List<String> cookieHeaders = exchange.getRequestHeaders().get("Cookie");
+        if (cookieHeaders != null) {
+            for (String header : cookieHeaders) {
+                for (String part : header.split(";")) {
+                    String[] pair = part.trim().split("=", 2);
+                    if (pair.length == 2 && pair[0].equals(SESSION_COOKIE)) {
+                        return pair[1];
+                    }
+                }
+            }
+        }
+        String session = shop.newSession();
+        exchange.getResponseHeaders().add("Set-Cookie", SESSION_COOKIE + "=" + session + "; Path=/; HttpOnly");
+        return session;
+    }
+
+    // One generator per draw, seeded from the seed and the draw number, so no state is shared between handlers
+    private boolean injectFault() {
+        long draw = faultDraws.getAndIncrement();
+        return new SplittableRandom(faultSeed + draw * 0x9E3779B97F4A7C15L).nextDouble() < faultRate;
+    }
+
+    private void delay() throws InterruptedException {
+        long millis = latency.toMillis();
+        long jitterMillis = jitter.toMillis();
+        if (jitterMillis > 0) {
+            millis += (long) (ThreadLocalRandom.current().nextDouble() * jitterMillis);
+        }
+        if (millis > 0) {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }
+    }
+
+    private String render(String template, Map<String, String> values) {
+        String result = templates.computeIfAbsent(template, this::loadTemplate);
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            result = result.replace("${" + value.getKey() + "}", value.getValue());
+        }
+        return result;
+    }
+
+    private String loadTemplate(String name) {
+        try (InputStream in = PeriplusStubServer.class.getResourceAsStream("/stub/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Stub template '" + name + "' is missing from the test resources.");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void redirect(HttpExchange exchange, String location) throws IOException {
+        exchange.getResponseHeaders().set("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Cache-Control", "no-store");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseForm(String encoded) {
+        Map<String, String> params = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return params;
+        }
+        for (String pair : encoded.split("&")) {
+            String[] parts = pair.split("=", 2);
+            String key = URLDecoder.decode(parts[0], StandardCharsets.UTF_8);
+            params.put(key, parts.length > 1 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : "");
+        }
+        return params;
+    }
+
+    private static int parseQuantity(String value, int fallback) {
+        try {
+            return value == null ? fallback : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
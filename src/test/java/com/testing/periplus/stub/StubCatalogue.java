@@ -0,0 +1,80 @@
+package com.testing.periplus.stub;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Products served by the stand-in shop. The titles used by the cart tests are
+ * always present; any other search term gets a deterministic product of its
+ * own, so data-driven tests can build carts of arbitrary size.
+ */
+public class StubCatalogue {
+    private final Map<String, Product> productsById = new LinkedHashMap<>();
+
+    public StubCatalogue() {
+        add("9781529932512", "Sunrise on the Reaping", 305_000);
+        add("9781847941831", "Atomic Habits", 180_000);
+    }
+
+    public synchronized List<Product> search(String query) {
+        String needle = query == null ? "" : query.trim().toLowerCase(Locale.ROOT);
+        List<Product> matches = new ArrayList<>();
+        for (Product product : productsById.values()) {
+            if (product.name.toLowerCase(Locale.ROOT).contains(needle)) {
+                matches.add(product);
+            }
+        }
+        if (matches.isEmpty() && !needle.isEmpty()) {
+            matches.add(synthesize(query.trim()));
+        }
+        return matches;
+    }
+
+    public synchronized Product find(String id) {
+        return productsById.get(id);
+    }
+
+    private Product synthesize(String name) {
+        int hash = name.hashCode() & 0x7fffffff;
+        String id = String.format("978%010d", hash);
+        long price = 50_000 + (hash % 400) * 1_000L;
+        return add(id, name, price);
+    }
+
+    private Product add(String id, String name, long price) {
+        Product product = new Product(id, name, price);
+        productsById.put(id, product);
+        return product;
+    }
+
+    public static final class Product {
+        private final String id;
+        private final String name;
+        private final long price;
+
+        Product(String id, String name, long price) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getPrice() {
+            return price;
+        }
+
+        String slug() {
+            return name.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.testing.periplus.stub;
+
+import com.periplus.pages.PeriplusUrls;
+import com.testing.periplus.support.HarnessConfig;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.time.Duration;
+
+/**
+ * Starts the {@link PeriplusStubServer} for the suite when "periplus.stub" is
+ * true and points the page objects at it. Latency and faults are configured
+ * with stub.latencyMs, stub.jitterMs, stub.faultRate, stub.faultPath and
+ * stub.seed; stub.port picks the port (0 = any free port).
+ */
+public class StubServerListener implements ISuiteListener {
+    private static volatile PeriplusStubServer server;
+
+    /**
+     * Returns the running stub server, or null when the suite uses the live site.
+     */
+    public static PeriplusStubServer server() {
+        return server;
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (!HarnessConfig.getBoolean("periplus.stub", false) || server != null) {
+            return;
+        }
+        PeriplusStubServer started = startConfigured();
+        PeriplusUrls.setBaseUrl(started.getBaseUrl());
+        server = started;
+    }
+
+    /**
+     * Starts a stub server with the latency, fault and port settings above,
+     * without pointing the page objects at it.
+     */
+    public static PeriplusStubServer startConfigured() {
+        PeriplusStubServer started = new PeriplusStubServer().start(HarnessConfig.getInt("stub.port", 0));
+        started.setLatency(Duration.ofMillis(HarnessConfig.getInt("stub.latencyMs", 0)),
+                Duration.ofMillis(HarnessConfig.getInt("stub.jitterMs", 0)));
+        started.setFaults(Double.parseDouble(HarnessConfig.get("stub.faultRate", "0")),
+                HarnessConfig.get("stub.faultPath", "/"), HarnessConfig.getInt("stub.seed", 0));
+        return started;
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        PeriplusStubServer running = server;
+        if (running != null) {
+            running.close();
+            server = null;
+            PeriplusUrls.setBaseUrl(PeriplusUrls.LIVE_BASE_URL);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.testing.periplus.stub;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Server-side state of the stand-in shop. Carts belong to the logged-in
+ * account, as on the live site, so a cart survives logging out and in again;
+ * anonymous visitors get a cart per browser session.
+ */
+public class StubShop {
+    private final Map<String, String> accountsBySession = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Integer>> carts = new ConcurrentHashMap<>();
+
+    public String newSession() {
+        return UUID.randomUUID().toString();
+    }
+
+    public void logIn(String session, String email) {
+        accountsBySession.put(session, email);
+    }
+
+    public void logOut(String session) {
+        accountsBySession.remove(session);
+    }
+
+    public String accountOf(String session) {
+        return session == null ? null : accountsBySession.get(session);
+    }
+
+    /**
+     * Returns the cart of the session's account (or of the session itself when
+     * nobody is logged in) as product id to quantity, in insertion order.
+     */
+    public Map<String, Integer> cartOf(String session) {
+        String account = accountOf(session);
+        String owner = account != null ? "account:" + account : "session:" + session;
+        return carts.computeIfAbsent(owner, key -> new LinkedHashMap<>());
+    }
+
+    public void add(String session, String productId, int quantity) {
+        Map<String, Integer> cart = cartOf(session);
+        synchronized (cart) {
+            cart.merge(productId, Math.max(quantity, 1), Integer::sum);
+        }
+    }
+
+    public void update(String session, String productId, int quantity) {
+        Map<String, Integer> cart = cartOf(session);
+        synchronized (cart) {
+            if (quantity <= 0) {
+                cart.remove(productId);
+            } else if (cart.containsKey(productId)) {
+                cart.put(productId, quantity);
+            }
+        }
+    }
+
+    public void remove(String session, String productId) {
+        Map<String, Integer> cart = cartOf(session);
+        synchronized (cart) {
+            cart.remove(productId);
+        }
+    }
+
+    public void reset() {
+        accountsBySession.clear();
+        carts.clear();
+    }
+}
@@ -0,0 +1,138 @@
+package com.testing.periplus.support;
+
+import com.testing.periplus.har.HarProxy;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Launches the Chrome instances used by the suite.
+ */
+public final class BrowserFactory {
+    private static final Logger logger = Logger.getLogger(BrowserFactory.class.getName());
+    private static volatile String driverSource;
+
+    private BrowserFactory() {
+    }
+
+    public static WebDriver launch() {
+        return launch(null);
+    }
+
+    /**
+     * Launches Chrome on the given user-data-dir, or on a fresh temporary
+     * profile when it is null. The command timing and the given listeners
+     * share one {@link EventFiringDecorator}, so commands pass through a
+     * single proxy layer.
+     */
+    public static WebDriver launch(Path userDataDir, WebDriverListener... listeners) {
+        BrowserProfile profile = BrowserProfile.current();
+        ChromeDriver driver = launchUninstrumented(userDataDir);
+        if (profile == BrowserProfile.LEAN) {
+            NetworkTraffic.attach(driver, RequestFilter.fromConfig());
+        } else if (HarnessConfig.getBoolean("traffic.record", true)) {
+            NetworkTraffic.attach(driver, null);
+        }
+        logger.info("Chrome browser successfully opened with the " + profile.name().toLowerCase() + " profile");
+        List<WebDriverListener> all = new ArrayList<>();
+        if (HarnessConfig.getBoolean("webdriver.latency", true)) {
+            all.add(new CommandLatency());
+        }
+        all.addAll(Arrays.asList(listeners));
+        if (all.isEmpty()) {
+            return driver;
+        }
+        return new EventFiringDecorator<WebDriver>(all.toArray(new WebDriverListener[0])).decorate(driver);
+    }
+
+    /**
+     * Launches Chrome with the current profile's options but without traffic
+     * recording or command timing, e.g. to warm a {@link ProfileTemplate}.
+     */
+    static ChromeDriver launchUninstrumented(Path userDataDir) {
+        resolveDriver();
+
+        ChromeOptions options = new ChromeOptions();
+        if (BrowserProfile.current() == BrowserProfile.LEAN) {
+            options.addArguments("--headless=new");
+            options.addArguments("--window-size=1920,1080");
+            options.addArguments("--disable-extensions");
+        } else {
+            options.addArguments("--start-maximized");
+        }
+        options.addArguments("--disable-notifications");
+        options.addArguments("--disable-popup-blocking");
+        options.addArguments("--disable-web-security");
+        options.addArguments("--allow-running-insecure-content");
+        if (userDataDir != null) {
+            options.addArguments("--user-data-dir=" + userDataDir.toAbsolutePath());
+        }
+        HarProxy proxy = HarProxy.current();
+        if (proxy != null) {
+            // "<-loopback>" sends localhost through the proxy too, e.g. the stand-in shop
+            options.addArguments("--proxy-server=127.0.0.1:" + proxy.getPort());
+            options.addArguments("--proxy-bypass-list=<-loopback>");
+            options.addArguments("--ignore-certificate-errors");
+            options.addArguments("--disable-background-networking");
+            options.setAcceptInsecureCerts(true);
+        }
+        try {
+            return new ChromeDriver(options);
+        } catch (SessionNotCreatedException e) {
+            if (!"pinned".equals(driverSource)) {
+                throw e;
+            }
+            // Typically Chrome updated past the pinned driver; resolve a matching one once
+            logger.warning("Chrome did not start with the pinned driver, resolving it again: " + e.getMessage());
+            synchronized (BrowserFactory.class) {
+                if ("pinned".equals(driverSource)) {
+                    DriverPin.invalidate();
+                    WebDriverManager.chromedriver().setup();
+                    driverSource = "resolved";
+                }
+            }
+            return new ChromeDriver(options);
+        }
+    }
+
+    /**
+     * Points Selenium at the chromedriver binary: the {@link DriverPin pinned}
+     * one when there is a usable pin, without touching the network, otherwise
+     * one resolved by WebDriverManager. Runs once per JVM.
+     */
+    public static void resolveDriver() {
+        if (driverSource == null) {
+            synchronized (BrowserFactory.class) {
+                if (driverSource == null) {
+                    Path pinned = DriverPin.pinned();
+                    if (pinned != null) {
+                        System.setProperty("webdriver.chrome.driver", pinned.toString());
+                        driverSource = "pinned";
+                    } else {
+                        WebDriverManager.chromedriver().setup();
+                        driverSource = "resolved";
+                    }
+                    logger.info("Using the " + driverSource + " chromedriver " + System.getProperty("webdriver.chrome.driver"));
+                }
+            }
+        }
+    }
+
+    /**
+     * How the driver binary was found: "pinned", "resolved", or "none" before the first launch.
+     */
+    public static String driverSource() {
+        String source = driverSource;
+        return source == null ? "none" : source;
+    }
+}
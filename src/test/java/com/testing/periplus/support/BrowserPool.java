@@ -0,0 +1,294 @@
+package com.testing.periplus.support;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Suite-scoped pool of warm browser sessions. Test classes lease a session
+ * instead of launching Chrome, and returned sessions are reset (tabs, cookies,
+ * storage) so the next lease starts clean without a cold browser start. The
+ * pool can also keep a number of idle sessions pre-started in the background,
+ * so a lease that would otherwise wait for a launch finds one ready.
+ */
+public class BrowserPool {
+    private static final Logger logger = Logger.getLogger(BrowserPool.class.getName());
+    private static final Path REPORT = Paths.get("target", "browser-pool.csv");
+
+    private final int maxSize;
+    private final int prestart;
+    private final Duration waitTimeout;
+    private final Supplier<BrowserSession> launcher;
+    private final ExecutorService prestarter;
+    private final AtomicInteger prestarting = new AtomicInteger();
+    private final LinkedBlockingDeque<BrowserSession> idle = new LinkedBlockingDeque<>();
+    private final Set<BrowserSession> all = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+    private final PoolMetrics metrics = new PoolMetrics();
+    private volatile boolean closed;
+
+    public BrowserPool(int maxSize, Duration waitTimeout, Supplier<WebDriver> launcher) {
+        this(maxSize, 0, waitTimeout, () -> new BrowserSession(launcher.get(), Duration.ofSeconds(20)));
+    }
+
+    /**
+     * @param prestart How many idle sessions to keep launched ahead of
+     *                 demand, within the maximum size.
+     */
+    public BrowserPool(int maxSize, int prestart, Duration waitTimeout, Supplier<BrowserSession> launcher) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Browser pool size must be at least 1 but was " + maxSize + ".");
+        }
+        this.maxSize = maxSize;
+        this.prestart = Math.max(0, Math.min(prestart, maxSize));
+        this.waitTimeout = waitTimeout;
+        this.launcher = launcher;
+        AtomicInteger threads = new AtomicInteger();
+        this.prestarter = this.prestart == 0 ? null : Executors.newFixedThreadPool(this.prestart, task -> {
+            Thread thread = new Thread(task, "browser-prestart-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts launching the pre-started sessions, e.g. at suite start before the first lease.
+     */
+    public void prestart() {
+        replenish();
+    }
+
+    /**
+     * Leases an idle session, launching a browser while the pool is below its
+     * maximum size and waiting for a returned session otherwise.
+     */
+    public BrowserSession lease() {
+        if (closed) {
+            throw new IllegalStateException("Browser pool is already shut down.");
+        }
+        long start = System.nanoTime();
+        long deadline = start + waitTimeout.toNanos();
+        BrowserSession session = idle.pollFirst();
+        // A slot can free up while waiting, e.g. when a pre-start fails, so the wait re-checks it every second
+        while (session == null) {
+            if (reserveSlot()) {
+                session = launch();
+                break;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new IllegalStateException("No browser session became available within " + waitTimeout.getSeconds()
+                        + " seconds (pool size " + maxSize + ").");
+            }
+            try {
+                session = idle.pollFirst(Math.min(remaining, TimeUnit.SECONDS.toNanos(1)), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a browser session.", e);
+            }
+        }
+        metrics.recordLease(System.nanoTime() - start);
+        session.leased(start, metrics::recordFirstGet);
+        replenish();
+        return session;
+    }
+
+    /**
+     * Resets a leased session and puts it back for the next lease. A session
+     * that cannot be reset is closed and its slot freed.
+     */
+    public void release(BrowserSession session) {
+        long start = System.nanoTime();
+        session.leaseEnded();
+        try {
+            reset(session);
+            metrics.recordReset(System.nanoTime() - start);
+            if (closed) {
+                discard(session);
+            } else {
+                idle.offerFirst(session);
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Browser session could not be reset and is discarded: " + e.getMessage(), e);
+            metrics.recordDiscard();
+            discard(session);
+            replenish();
+        }
+    }
+
+    /**
+     * Closes every browser owned by the pool and writes its metrics report.
+     */
+    public void shutdown() {
+        closed = true;
+        if (prestarter != null) {
+            prestarter.shutdownNow();
+        }
+        for (BrowserSession session : all) {
+            discard(session);
+        }
+        idle.clear();
+        logger.info("Browser pool metrics: " + metrics);
+        writeReport();
+    }
+
+    public PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    // Launches into a slot already reserved, freeing it again when the launch fails
+    private BrowserSession launch() {
+        try {
+            long launchStart = System.nanoTime();
+            BrowserSession session = launcher.get();
+            metrics.recordLaunch(System.nanoTime() - launchStart);
+            all.add(session);
+            return session;
+        } catch (RuntimeException e) {
+            size.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean reserveSlot() {
+        while (true) {
+            int current = size.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Keeps idle plus launching sessions at the prestart count, as far as free slots allow
+    private void replenish() {
+        while (!closed && idle.size() + prestarting.get() < prestart && reserveSlot()) {
+            prestarting.incrementAndGet();
+            try {
+                prestarter.execute(this::prestartSession);
+            } catch (RuntimeException e) {
+                prestarting.decrementAndGet();
+                size.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void prestartSession() {
+        try {
+            BrowserSession session = launch();
+            metrics.recordPrestart();
+            if (closed) {
+                discard(session);
+            } else {
+                idle.offerLast(session);
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to pre-start a browser session: " + e.getMessage(), e);
+        } finally {
+            prestarting.decrementAndGet();
+        }
+    }
+
+    private void discard(BrowserSession session) {
+        if (all.remove(session)) {
+            size.decrementAndGet();
+            try {
+                session.close();
+                logger.info("Browser successfully closed");
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Failed to close browser: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Clears what a test left behind: the local storage, IndexedDB and
+     * cookies of every origin the session visited or holds cookies for, not
+     * only the one loaded now, and the tabs with their session storage, by
+     * moving to a fresh tab.
+     */
+    private void reset(BrowserSession session) {
+        WebDriver driver = session.getDriver();
+        Set<String> origins = session.takeVisitedOrigins();
+        String current = BrowserSession.origin(driver.getCurrentUrl());
+        if (current != null) {
+            origins.add(current);
+        }
+        if (driver instanceof HasCdp) {
+            HasCdp cdp = (HasCdp) driver;
+            origins.addAll(cookieOrigins(cdp));
+            for (String origin : origins) {
+                cdp.executeCdpCommand("Storage.clearDataForOrigin",
+                        Map.of("origin", origin, "storageTypes", "local_storage,indexeddb,websql,file_systems"));
+            }
+            cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+        } else {
+            if (current != null) {
+                ((JavascriptExecutor) driver).executeScript(
+                        "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) {}");
+            }
+            driver.manage().deleteAllCookies();
+        }
+
+        // Session storage lives per tab and origin, so it only goes away with the tab
+        List<String> handles = List.copyOf(driver.getWindowHandles());
+        String fresh = driver.switchTo().newWindow(WindowType.TAB).getWindowHandle();
+        for (String handle : handles) {
+            driver.switchTo().window(handle).close();
+        }
+        driver.switchTo().window(fresh);
+        driver.get("about:blank");
+    }
+
+    // Sites reached without driver.get, e.g. a login subdomain after a redirect, still hold cookies
+    private static Collection<String> cookieOrigins(HasCdp cdp) {
+        Set<String> origins = new TreeSet<>();
+        Object cookies = cdp.executeCdpCommand("Network.getAllCookies", Map.of()).get("cookies");
+        if (cookies instanceof List) {
+            for (Object cookie : (List<?>) cookies) {
+                Object domain = ((Map<?, ?>) cookie).get("domain");
+                if (domain instanceof String && !((String) domain).isEmpty()) {
+                    String host = ((String) domain).startsWith(".") ? ((String) domain).substring(1) : (String) domain;
+                    origins.add("https://" + host);
+                    origins.add("http://" + host);
+                }
+            }
+        }
+        return origins;
+    }
+
+    private void writeReport() {
+        try {
+            Files.createDirectories(REPORT.getParent());
+            Files.write(REPORT, List.of(PoolMetrics.CSV_HEADER, Instant.now() + "," + metrics.toCsv()), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write browser pool report: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.testing.periplus.support;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Starts warming the browser profile template and launching the pool's
+ * pre-started browsers when the suite starts, instead of at the first test
+ * class. Registered after StubServerListener, so the template is warmed
+ * against the shop the suite actually uses.
+ */
+public class BrowserPrestartListener implements ISuiteListener {
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (HarnessConfig.getInt("browser.pool.prestart", 1) > 0) {
+            BrowserSessions.prestart();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.testing.periplus.support;
+
+/**
+ * Execution profile of the launched browsers, selected with "browser.profile".
+ * FULL is the headed, maximized Chrome the suite always used. LEAN runs
+ * headless and blocks non-essential requests through DevTools.
+ */
+public enum BrowserProfile {
+    FULL,
+    LEAN;
+
+    public static BrowserProfile current() {
+        String value = HarnessConfig.get("browser.profile", "full");
+        try {
+            return valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported browser.profile '" + value + "'. Use full or lean.", e);
+        }
+    }
+}
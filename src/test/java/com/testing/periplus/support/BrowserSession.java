@@ -0,0 +1,160 @@
+package com.testing.periplus.support;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * A browser owned by exactly one test thread at a time, together with the
+ * explicit wait bound to it and the profile directory it was started on.
+ * It remembers the origins it navigated to, so the pool can clear their
+ * storage when the session is returned.
+ */
+public class BrowserSession {
+    private final WebDriver driver;
+    private final WebDriverWait wait;
+    private final Path profileDirectory;
+    private final Navigations navigations;
+
+    public BrowserSession(WebDriver driver, Duration timeout) {
+        this(driver, timeout, null);
+    }
+
+    /**
+     * Wraps a driver launched elsewhere, decorating it with the session's
+     * navigation listener.
+     * @param profileDirectory The user-data-dir cloned for this browser,
+     *                         deleted on {@link #close()}; null for a
+     *                         temporary profile Chrome cleans up itself.
+     */
+    public BrowserSession(WebDriver driver, Duration timeout, Path profileDirectory) {
+        this(new Navigations(), driver, timeout, profileDirectory);
+    }
+
+    private BrowserSession(Navigations navigations, WebDriver driver, Duration timeout, Path profileDirectory) {
+        this(navigations, timeout, profileDirectory, new EventFiringDecorator<WebDriver>(navigations).decorate(driver));
+    }
+
+    private BrowserSession(Navigations navigations, Duration timeout, Path profileDirectory, WebDriver decorated) {
+        this.navigations = navigations;
+        this.driver = decorated;
+        this.wait = new WebDriverWait(decorated, timeout);
+        this.profileDirectory = profileDirectory;
+    }
+
+    /**
+     * Launches Chrome through {@link BrowserFactory} with the session's
+     * navigation listener in the same decorator as the factory's own
+     * listeners, so every command passes through one proxy layer.
+     */
+    static BrowserSession launch(Duration timeout, Path profileDirectory) {
+        Navigations navigations = new Navigations();
+        return new BrowserSession(navigations, timeout, profileDirectory,
+                BrowserFactory.launch(profileDirectory, navigations));
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    public WebDriverWait getWait() {
+        return wait;
+    }
+
+    public Path getProfileDirectory() {
+        return profileDirectory;
+    }
+
+    /**
+     * Starts timing a lease: the time from the request to the first
+     * {@code driver.get} of the lease is passed to the recorder.
+     */
+    void leased(long requestNanos, LongConsumer recorder) {
+        navigations.firstGetRecorder = recorder;
+        navigations.leaseStartNanos.set(requestNanos);
+    }
+
+    /**
+     * Ends a lease without timing anything, e.g. before the pool's own reset navigation.
+     */
+    void leaseEnded() {
+        navigations.leaseStartNanos.set(0);
+    }
+
+    /**
+     * Returns the origins navigated to since the last call and forgets them.
+     */
+    Set<String> takeVisitedOrigins() {
+        Set<String> origins = new TreeSet<>();
+        for (String origin : navigations.visitedOrigins) {
+            navigations.visitedOrigins.remove(origin);
+            origins.add(origin);
+        }
+        return origins;
+    }
+
+    /**
+     * Returns the scheme, host and port of an http(s) URL, or null for any other URL.
+     */
+    static String origin(String url) {
+        if (url == null || !url.startsWith("http")) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(url);
+            if (uri.getHost() == null) {
+                return null;
+            }
+            return uri.getScheme().toLowerCase(Locale.ROOT) + "://" + uri.getHost().toLowerCase(Locale.ROOT)
+                    + (uri.getPort() == -1 ? "" : ":" + uri.getPort());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Remembers the origins navigated to and times the first navigation of a lease.
+     */
+    private static final class Navigations implements WebDriverListener {
+        private final AtomicLong leaseStartNanos = new AtomicLong();
+        private final Set<String> visitedOrigins = ConcurrentHashMap.newKeySet();
+        private volatile LongConsumer firstGetRecorder;
+
+        @Override
+        public void beforeGet(WebDriver target, String url) {
+            String origin = origin(url);
+            if (origin != null) {
+                visitedOrigins.add(origin);
+            }
+            long start = leaseStartNanos.getAndSet(0);
+            LongConsumer recorder = firstGetRecorder;
+            if (start != 0 && recorder != null) {
+                recorder.accept(System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Quits the browser and deletes the profile directory it ran on.
+     */
+    public void close() {
+        try {
+            driver.quit();
+        } finally {
+            if (profileDirectory != null) {
+                ProfileTemplate.delete(profileDirectory);
+            }
+        }
+    }
+}
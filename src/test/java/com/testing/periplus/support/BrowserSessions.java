@@ -0,0 +1,102 @@
+package com.testing.periplus.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Thread-confined browser ownership. Every test thread lazily leases its own
+ * {@link BrowserSession} from the suite's {@link BrowserPool}, so page objects
+ * built on the current thread never share a driver with another worker when
+ * the suite runs in parallel. Browsers start on a clone of the suite's
+ * {@link ProfileTemplate}, and "browser.pool.prestart" (default 1) idle
+ * browsers are kept launched ahead of demand.
+ */
+public final class BrowserSessions {
+    private static final ThreadLocal<BrowserSession> current = new ThreadLocal<>();
+    private static volatile BrowserPool pool;
+
+    private BrowserSessions() {
+    }
+
+    /**
+     * Returns the session leased by the calling thread, leasing one if needed.
+     */
+    public static BrowserSession current() {
+        BrowserSession session = current.get();
+        if (session == null) {
+            session = pool().lease();
+            current.set(session);
+        }
+        return session;
+    }
+
+    /**
+     * Returns the calling thread's session without leasing one, or null.
+     */
+    public static BrowserSession currentOrNull() {
+        return current.get();
+    }
+
+    /**
+     * Returns the calling thread's session to the pool, if it has one.
+     */
+    public static void release() {
+        BrowserSession session = current.get();
+        current.remove();
+        if (session != null) {
+            pool().release(session);
+        }
+    }
+
+    /**
+     * Creates the pool and starts its pre-started browsers, e.g. at suite
+     * start, so the template warm-up and first launches overlap other setup.
+     */
+    public static void prestart() {
+        pool().prestart();
+    }
+
+    /**
+     * Shuts the pool down, closing every browser including those still leased
+     * by pool threads that will not run any more configuration methods.
+     */
+    public static synchronized void releaseAll() {
+        current.remove();
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        ProfileTemplate.discardShared();
+    }
+
+    private static BrowserPool pool() {
+        BrowserPool result = pool;
+        if (result == null) {
+            synchronized (BrowserSessions.class) {
+                result = pool;
+                if (result == null) {
+                    int size = HarnessConfig.getInt("browser.pool.size", HarnessConfig.getInt("parallel.threads", 1));
+                    result = new BrowserPool(size, HarnessConfig.getInt("browser.pool.prestart", 1), Duration.ofMinutes(5),
+                            BrowserSessions::launch);
+                    pool = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static BrowserSession launch() {
+        ProfileTemplate template = ProfileTemplate.shared();
+        Path profile = null;
+        if (template != null) {
+            try {
+                profile = template.cloneForSession();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to clone the browser profile template.", e);
+            }
+        }
+        return BrowserSession.launch(Duration.ofSeconds(20), profile);
+    }
+}
@@ -0,0 +1,98 @@
+package com.testing.periplus.support;
+
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the latency of every WebDriver command and tags it with the
+ * page-object method that issued it (e.g. "ShoppingCartPage.setQuantity"),
+ * found by walking the stack to the first frame in com.periplus.pages.
+ * Commands issued from elsewhere are tagged with their first harness frame.
+ */
+public class CommandLatency implements WebDriverListener {
+    private static final String PAGES_PACKAGE = "com.periplus.pages.";
+    private static final String HARNESS_PACKAGE = "com.testing.periplus.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final Map<String, Map<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Deque<Long>> startTimes = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Returns the histograms recorded so far as caller -> command -> histogram, sorted by name.
+     */
+    public static Map<String, Map<String, LatencyHistogram>> snapshot() {
+        Map<String, Map<String, LatencyHistogram>> copy = new TreeMap<>();
+        histograms.forEach((caller, commands) -> copy.put(caller, new TreeMap<>(commands)));
+        return copy;
+    }
+
+    public static void reset() {
+        histograms.clear();
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        startTimes.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        record(target, method);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        record(target, method);
+    }
+
+    private void record(Object target, Method method) {
+        Deque<Long> starts = startTimes.get();
+        if (starts.isEmpty()) {
+            return;
+        }
+        long nanos = System.nanoTime() - starts.pop();
+        String command = target instanceof WebElement ? "element." + method.getName() : method.getName();
+        histograms.computeIfAbsent(caller(), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(command, key -> new LatencyHistogram())
+                .record(nanos);
+    }
+
+    private static String caller() {
+        return STACK_WALKER.walk(frames -> {
+            Optional<StackWalker.StackFrame> fallback = Optional.empty();
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String className = frame.getClassName();
+                if (className.startsWith(PAGES_PACKAGE)) {
+                    return label(frame);
+                }
+                if (fallback.isEmpty() && className.startsWith(HARNESS_PACKAGE)
+                        && !className.equals(CommandLatency.class.getName())) {
+                    fallback = Optional.of(frame);
+                }
+            }
+            return fallback.map(CommandLatency::label).orElse("(unknown)");
+        });
+    }
+
+    private static String label(StackWalker.StackFrame frame) {
+        String className = frame.getClassName();
+        String simpleName = className.substring(className.lastIndexOf('.') + 1);
+        int nested = simpleName.indexOf('$');
+        String methodName = frame.getMethodName();
+        // lambda$waitForCartRows$0 -> waitForCartRows
+        if (methodName.startsWith("lambda$")) {
+            int end = methodName.indexOf('$', "lambda$".length());
+            methodName = methodName.substring("lambda$".length(), end < 0 ? methodName.length() : end);
+        }
+        return (nested < 0 ? simpleName : simpleName.substring(0, nested)) + "." + methodName;
+    }
+}
@@ -0,0 +1,78 @@
+package com.testing.periplus.support;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the WebDriver command latencies recorded by {@link CommandLatency}
+ * to target/webdriver-latency.csv, one row per page-object method and
+ * command plus an "*" row per method, and logs the most expensive methods.
+ */
+public class CommandLatencyReporter implements ISuiteListener {
+    private static final Logger logger = Logger.getLogger(CommandLatencyReporter.class.getName());
+    private static final Path REPORT = Paths.get("target", "webdriver-latency.csv");
+    private static final int TOP_METHODS = 10;
+
+    @Override
+    public void onStart(ISuite suite) {
+        CommandLatency.reset();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Map<String, Map<String, LatencyHistogram>> histograms = CommandLatency.snapshot();
+        if (histograms.isEmpty()) {
+            return;
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("caller,command,count,total_ms,p50_ms,p95_ms,p99_ms,max_ms");
+        List<String[]> totals = new ArrayList<>();
+        for (Map.Entry<String, Map<String, LatencyHistogram>> caller : histograms.entrySet()) {
+            long count = 0;
+            double totalMillis = 0;
+            for (Map.Entry<String, LatencyHistogram> command : caller.getValue().entrySet()) {
+                LatencyHistogram histogram = command.getValue();
+                lines.add(row(caller.getKey(), command.getKey(), histogram));
+                count += histogram.getCount();
+                totalMillis += histogram.getTotalMillis();
+            }
+            totals.add(new String[]{caller.getKey(), Long.toString(count), String.format(Locale.ROOT, "%.1f", totalMillis)});
+            lines.add(String.format(Locale.ROOT, "%s,*,%d,%.1f,,,,", caller.getKey(), count, totalMillis));
+        }
+
+        try {
+            Files.createDirectories(REPORT.getParent());
+            Files.write(REPORT, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write WebDriver latency report: " + e.getMessage(), e);
+            return;
+        }
+
+        totals.sort(Comparator.comparingDouble((String[] total) -> Double.parseDouble(total[2])).reversed());
+        List<String> summary = new ArrayList<>();
+        summary.add(String.format("%-45s %9s %11s", "page-object method", "commands", "total_ms"));
+        for (String[] total : totals.subList(0, Math.min(TOP_METHODS, totals.size()))) {
+            summary.add(String.format("%-45s %9s %11s", total[0], total[1], total[2]));
+        }
+        logger.info("WebDriver time by page-object method (" + REPORT + "):\n" + String.join("\n", summary));
+    }
+
+    private static String row(String caller, String command, LatencyHistogram histogram) {
+        return String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.2f,%.2f,%.2f,%.2f", caller, command, histogram.getCount(),
+                histogram.getTotalMillis(), histogram.percentileMillis(50), histogram.percentileMillis(95),
+                histogram.percentileMillis(99), histogram.getMaxMillis());
+    }
+}
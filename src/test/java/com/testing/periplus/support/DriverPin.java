@@ -0,0 +1,107 @@
+package com.testing.periplus.support;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The chromedriver binary pinned at build time, so test JVMs can skip
+ * WebDriverManager's version detection and lookups. "mvn -Ppin-driver
+ * process-test-classes" resolves the driver into .cache/drivers and records
+ * it in "webdriver.pin.file" (default .cache/drivers/chromedriver.properties);
+ * at runtime a pin whose binary still exists is used as is.
+ * "webdriver.pin=false" ignores the pin. Relative paths resolve against the
+ * project directory ("basedir", as set by Maven, else the working
+ * directory), so forked JVMs working elsewhere find the same pin.
+ */
+public final class DriverPin {
+    private static final Logger logger = Logger.getLogger(DriverPin.class.getName());
+    private static final Path CACHE = baseDirectory().resolve(Paths.get(".cache", "drivers"));
+
+    private DriverPin() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        pin();
+    }
+
+    /**
+     * Resolves chromedriver through WebDriverManager into the local driver
+     * cache and pins it. Needs the network unless the driver is cached.
+     */
+    public static Path pin() throws IOException {
+        WebDriverManager manager = WebDriverManager.chromedriver().cachePath(CACHE.toString());
+        manager.setup();
+        Path driver = Paths.get(manager.getDownloadedDriverPath()).toAbsolutePath();
+
+        Properties properties = new Properties();
+        properties.setProperty("driver.path", driver.toString());
+        properties.setProperty("driver.version", String.valueOf(manager.getDownloadedDriverVersion()));
+        manager.getBrowserPath().ifPresent(browser -> properties.setProperty("browser.path", browser.toString()));
+        properties.setProperty("os", System.getProperty("os.name") + "/" + System.getProperty("os.arch"));
+        properties.setProperty("resolved.at", Instant.now().toString());
+        Path file = file();
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            properties.store(writer, "chromedriver pinned by DriverPin; delete to resolve again");
+        }
+        logger.info("Pinned chromedriver " + properties.getProperty("driver.version") + " at " + driver + " in " + file + ".");
+        return driver;
+    }
+
+    /**
+     * Returns the pinned driver binary, or null when there is no usable pin.
+     */
+    public static Path pinned() {
+        Path file = file();
+        if (!HarnessConfig.getBoolean("webdriver.pin", true) || !Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to read driver pin " + file + ": " + e.getMessage(), e);
+            return null;
+        }
+        String path = properties.getProperty("driver.path");
+        String os = System.getProperty("os.name") + "/" + System.getProperty("os.arch");
+        if (path == null || !os.equals(properties.getProperty("os")) || !Files.isExecutable(Paths.get(path))) {
+            logger.info("Ignoring stale driver pin " + file + ".");
+            return null;
+        }
+        return Paths.get(path);
+    }
+
+    /**
+     * Drops a pin that no longer works, e.g. after Chrome updated past the pinned driver.
+     */
+    public static void invalidate() {
+        try {
+            Files.deleteIfExists(file());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to delete driver pin " + file() + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the absolute path of the pin file.
+     */
+    public static Path file() {
+        return baseDirectory().resolve(HarnessConfig.get("webdriver.pin.file", CACHE.resolve("chromedriver.properties").toString()));
+    }
+
+    private static Path baseDirectory() {
+        return Paths.get(System.getProperty("basedir", "")).toAbsolutePath();
+    }
+}
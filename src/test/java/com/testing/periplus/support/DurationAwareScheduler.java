@@ -0,0 +1,241 @@
+package com.testing.periplus.support;
+
+import org.testng.IConfigurationListener;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestClass;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
+import org.testng.ITestResult;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Orders each &lt;test&gt; by the timing history in "schedule.history"
+ * (default .cache/test-timings.tsv). Tests that failed in their last
+ * "schedule.recentRuns" (default 3) runs go first for fail-fast feedback;
+ * the rest run longest first, which packs them onto the workers with little
+ * idle time at the end of a parallel run. A singleThreaded class, and any
+ * class when running in classes mode, is one unit that keeps its method
+ * order and carries the time of its configuration methods. The predicted
+ * makespan is compared with the actual one in target/schedule.csv.
+ * "schedule.enabled=false" keeps the testng.xml order but still records timings.
+ */
+public class DurationAwareScheduler implements IMethodInterceptor, ITestListener, IConfigurationListener, ISuiteListener {
+    private static final Logger logger = Logger.getLogger(DurationAwareScheduler.class.getName());
+    private static final Path REPORT = Paths.get("target", "schedule.csv");
+    private static final String HEADER = "timestamp,suite,test,mode,threads,methods,predicted_ms,actual_ms,error_pct";
+    private static final long DEFAULT_ESTIMATE_MILLIS = 10_000;
+
+    private static volatile TimingHistory history;
+    private static final Map<String, Long> predictedByTest = new ConcurrentHashMap<>();
+    // Per-run totals of each test and configuration method, folded into the history at suite end
+    private static final Map<String, AtomicLong> runMillis = new ConcurrentHashMap<>();
+    private static final Set<String> runFailures = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void onStart(ISuite suite) {
+        history();
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        XmlTest xmlTest = context.getCurrentXmlTest();
+        XmlSuite.ParallelMode mode = xmlTest.getParallel();
+        int threads = mode == null || !mode.isParallel() ? 1 : Math.max(1, xmlTest.getThreadCount());
+        List<Unit> units = units(methods, mode == XmlSuite.ParallelMode.METHODS);
+        if (HarnessConfig.getBoolean("schedule.enabled", true)) {
+            // Stable sort: equal units keep their testng.xml order
+            units.sort(Comparator.comparing((Unit unit) -> !unit.failedRecently)
+                    .thenComparing(Comparator.comparingDouble((Unit unit) -> unit.estimateMillis).reversed()));
+        }
+        long predicted = makespan(units, threads);
+        predictedByTest.put(context.getName(), predicted);
+
+        List<IMethodInstance> ordered = new ArrayList<>(methods.size());
+        List<String> plan = new ArrayList<>();
+        for (Unit unit : units) {
+            ordered.addAll(unit.methods);
+            plan.add(String.format(Locale.ROOT, "%s%-55s %8.0f ms", unit.failedRecently ? "! " : "  ", unit.name, unit.estimateMillis));
+        }
+        logger.info("Schedule of '" + context.getName() + "' on " + threads + " worker(s), predicted makespan "
+                + predicted + " ms (! = failed recently):\n" + String.join("\n", plan));
+        return ordered;
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        add(result, true);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        add(result, false);
+    }
+
+    @Override
+    public void onTestFailedWithTimeout(ITestResult result) {
+        add(result, false);
+    }
+
+    @Override
+    public void onConfigurationSuccess(ITestResult result) {
+        add(result, true);
+    }
+
+    @Override
+    public void onConfigurationFailure(ITestResult result) {
+        add(result, false);
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        Long predicted = predictedByTest.remove(context.getName());
+        if (predicted == null) {
+            return;
+        }
+        long actual = context.getEndDate().getTime() - context.getStartDate().getTime();
+        XmlTest xmlTest = context.getCurrentXmlTest();
+        String error = predicted == 0 ? "" : String.format(Locale.ROOT, "%.1f", 100.0 * (predicted - actual) / actual);
+        String row = String.join(",", Instant.now().toString(), context.getSuite().getName(), context.getName(),
+                String.valueOf(xmlTest.getParallel()), Integer.toString(xmlTest.getThreadCount()),
+                Integer.toString(context.getAllTestMethods().length), Long.toString(predicted), Long.toString(actual), error);
+        try {
+            Files.createDirectories(REPORT.getParent());
+            if (!Files.exists(REPORT)) {
+                Files.write(REPORT, List.of(HEADER), StandardCharsets.UTF_8);
+            }
+            Files.write(REPORT, List.of(row), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write schedule report: " + e.getMessage(), e);
+        }
+        logger.info("Test '" + context.getName() + "' took " + actual + " ms against a predicted " + predicted + " ms.");
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        TimingHistory timings = history();
+        runMillis.forEach((key, millis) -> timings.record(key, millis.get(), !runFailures.contains(key)));
+        runMillis.clear();
+        runFailures.clear();
+        timings.save();
+    }
+
+    private static void add(ITestResult result, boolean passed) {
+        String key = key(result.getMethod());
+        runMillis.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(result.getEndMillis() - result.getStartMillis());
+        if (!passed) {
+            runFailures.add(key);
+        }
+    }
+
+    // One unit per method, except classes that must stay together on one thread
+    private static List<Unit> units(List<IMethodInstance> methods, boolean methodUnits) {
+        TimingHistory timings = history();
+        double defaultEstimate = timings.averages().stream().mapToDouble(Double::doubleValue)
+                .filter(millis -> millis > 0).average().orElse(DEFAULT_ESTIMATE_MILLIS);
+        int recentRuns = HarnessConfig.getInt("schedule.recentRuns", 3);
+
+        Map<String, Unit> units = new LinkedHashMap<>();
+        Set<ITestClass> chargedClasses = new HashSet<>();
+        for (IMethodInstance instance : methods) {
+            ITestNGMethod method = instance.getMethod();
+            Class<?> type = method.getRealClass();
+            Test classTest = type.getAnnotation(Test.class);
+            boolean wholeClass = !methodUnits || (classTest != null && classTest.singleThreaded());
+            String name = wholeClass ? type.getSimpleName() : type.getSimpleName() + "." + method.getMethodName();
+            Unit unit = units.computeIfAbsent(name, Unit::new);
+            unit.methods.add(instance);
+
+            double estimate = timings.averageMillis(key(method));
+            unit.estimateMillis += estimate < 0 ? defaultEstimate : estimate;
+            unit.failedRecently |= timings.failedRecently(key(method), recentRuns);
+            // Class-level configuration (e.g. a slow @BeforeClass precondition) is charged to the class's first unit
+            if (chargedClasses.add(method.getTestClass())) {
+                for (ITestNGMethod configuration : configurationMethods(method.getTestClass())) {
+                    unit.estimateMillis += Math.max(0, timings.averageMillis(key(configuration)));
+                    unit.failedRecently |= timings.failedRecently(key(configuration), recentRuns);
+                }
+            }
+        }
+        return new ArrayList<>(units.values());
+    }
+
+    private static List<ITestNGMethod> configurationMethods(ITestClass testClass) {
+        List<ITestNGMethod> configurations = new ArrayList<>();
+        configurations.addAll(List.of(testClass.getBeforeClassMethods()));
+        configurations.addAll(List.of(testClass.getAfterClassMethods()));
+        configurations.addAll(List.of(testClass.getBeforeTestMethods()));
+        configurations.addAll(List.of(testClass.getAfterTestMethods()));
+        return configurations;
+    }
+
+    // Greedy list scheduling: every unit goes to the worker that becomes free first, as TestNG's pool does
+    private static long makespan(List<Unit> units, int threads) {
+        PriorityQueue<Double> workers = new PriorityQueue<>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(0.0);
+        }
+        double makespan = 0;
+        for (Unit unit : units) {
+            double finish = workers.poll() + unit.estimateMillis;
+            workers.add(finish);
+            makespan = Math.max(makespan, finish);
+        }
+        return Math.round(makespan);
+    }
+
+    private static String key(ITestNGMethod method) {
+        return method.getRealClass().getName() + "#" + method.getMethodName();
+    }
+
+    private static TimingHistory history() {
+        TimingHistory result = history;
+        if (result == null) {
+            synchronized (DurationAwareScheduler.class) {
+                result = history;
+                if (result == null) {
+                    result = new TimingHistory(Paths.get(HarnessConfig.get("schedule.history", ".cache/test-timings.tsv")));
+                    history = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static final class Unit {
+        private final String name;
+        private final List<IMethodInstance> methods = new ArrayList<>();
+        private double estimateMillis;
+        private boolean failedRecently;
+
+        Unit(String name) {
+            this.name = name;
+        }
+    }
+}
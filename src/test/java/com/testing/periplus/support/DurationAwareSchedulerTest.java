@@ -0,0 +1,154 @@
+package com.testing.periplus.support;
+
+import org.testng.Assert;
+import org.testng.IMethodInstance;
+import org.testng.ITestContext;
+import org.testng.TestNG;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs two small fixture classes through TestNG with the scheduler and checks
+ * the order it hands back, against a timing history written up front.
+ */
+public class DurationAwareSchedulerTest {
+    private static final Map<String, List<String>> schedules = new ConcurrentHashMap<>();
+
+    private Path history;
+    private String previousHistory;
+
+    public static class Methods {
+        @Test
+        public void fast() {
+        }
+
+        @Test
+        public void medium() {
+        }
+
+        @Test
+        public void slow() {
+        }
+
+        @Test
+        public void flaky() {
+        }
+
+        @Test
+        public void unknown() {
+        }
+    }
+
+    @Test(singleThreaded = true)
+    public static class Together {
+        @BeforeClass
+        public void setUp() {
+        }
+
+        public void first() {
+        }
+
+        public void second() {
+        }
+    }
+
+    // Records the order the scheduler returns per <test>
+    public static class Capturing extends DurationAwareScheduler {
+        @Override
+        public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+            List<IMethodInstance> ordered = super.intercept(methods, context);
+            List<String> names = new ArrayList<>();
+            ordered.forEach(method -> names.add(method.getMethod().getRealClass().getSimpleName() + "."
+                    + method.getMethod().getMethodName()));
+            schedules.put(context.getName(), names);
+            return ordered;
+        }
+    }
+
+    @BeforeClass
+    public void runFixtures() throws IOException {
+        history = Files.createTempFile("test-timings", ".tsv");
+        String methods = Methods.class.getName() + "#";
+        String together = Together.class.getName() + "#";
+        Files.write(history, List.of(
+                "# key\tavg_ms\truns\toutcomes",
+                methods + "fast\t100.0\t3\tPPP",
+                methods + "medium\t1000.0\t3\tPPP",
+                methods + "slow\t5000.0\t3\tPPP",
+                methods + "flaky\t200.0\t3\tPFP",
+                together + "setUp\t20000.0\t3\tPPP",
+                together + "first\t3000.0\t3\tPPP",
+                together + "second\t3000.0\t3\tPPP"), StandardCharsets.UTF_8);
+        previousHistory = System.getProperty("schedule.history");
+        System.setProperty("schedule.history", history.toString());
+
+        XmlSuite suite = new XmlSuite();
+        suite.setName("Scheduled");
+        test(suite, "methods", XmlSuite.ParallelMode.METHODS);
+        test(suite, "classes", XmlSuite.ParallelMode.CLASSES);
+        TestNG testng = new TestNG();
+        testng.setUseDefaultListeners(false);
+        testng.setVerbose(0);
+        testng.setXmlSuites(List.of(suite));
+        testng.addListener(new Capturing());
+        testng.run();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restore() throws IOException {
+        if (previousHistory == null) {
+            System.clearProperty("schedule.history");
+        } else {
+            System.setProperty("schedule.history", previousHistory);
+        }
+        Files.deleteIfExists(history);
+    }
+
+    @Test
+    public void everyMethodIsScheduledExactlyOnce() {
+        for (String test : List.of("methods", "classes")) {
+            List<String> schedule = schedules.get(test);
+            Assert.assertNotNull(schedule, "Schedule of " + test);
+            Assert.assertEquals(schedule.size(), 7, test + ": " + schedule);
+            Assert.assertEquals(schedule.stream().distinct().count(), 7L, test + ": " + schedule);
+        }
+    }
+
+    @Test
+    public void recentFailuresFirstThenLongestFirst() {
+        // Together carries its 20 s @BeforeClass; unknown gets the mean of the history (32300 / 7 ms)
+        List<String> schedule = schedules.get("methods");
+        Assert.assertEquals(schedule.get(0), "Methods.flaky");
+        Assert.assertEquals(schedule.subList(1, 3), List.of("Together.first", "Together.second"));
+        Assert.assertEquals(schedule.subList(3, 7), List.of("Methods.slow", "Methods.unknown", "Methods.medium", "Methods.fast"));
+    }
+
+    @Test
+    public void classesModeKeepsEachClassTogetherInItsOrder() {
+        List<String> schedule = schedules.get("classes");
+        Assert.assertEquals(schedule.subList(0, 5).stream().filter(name -> name.startsWith("Methods.")).count(), 5L,
+                "The recently failed Methods class runs first: " + schedule);
+        Assert.assertEquals(schedule.subList(5, 7), List.of("Together.first", "Together.second"));
+    }
+
+    private static void test(XmlSuite suite, String name, XmlSuite.ParallelMode mode) {
+        XmlTest test = new XmlTest(suite);
+        test.setName(name);
+        test.setParallel(mode);
+        test.setThreadCount(2);
+        test.setXmlClasses(List.of(new XmlClass(Methods.class.getName(), false), new XmlClass(Together.class.getName(), false)));
+    }
+}
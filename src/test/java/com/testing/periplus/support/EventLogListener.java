@@ -0,0 +1,48 @@
+package com.testing.periplus.support;
+
+import com.periplus.support.EventLog;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.time.Duration;
+import java.util.logging.Logger;
+
+/**
+ * Tags page-object events with the running test and makes sure all of them
+ * are written before the suite ends.
+ */
+public class EventLogListener implements ITestListener, ISuiteListener {
+    private static final Logger logger = Logger.getLogger(EventLogListener.class.getName());
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        EventLog.setTest(result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName());
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        EventLog.setTest(null);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        EventLog.setTest(null);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        EventLog.setTest(null);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (!EventLog.flush(Duration.ofSeconds(10))) {
+            logger.warning("Not all page events were written before the suite ended.");
+        }
+        if (EventLog.droppedEvents() > 0) {
+            logger.warning(EventLog.droppedEvents() + " page event(s) were dropped because the event buffer was full.");
+        }
+    }
+}
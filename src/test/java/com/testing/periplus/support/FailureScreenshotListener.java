@@ -0,0 +1,77 @@
+package com.testing.periplus.support;
+
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.testng.IConfigurationListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Captures a screenshot when a test or configuration method fails. Only the
+ * raw bytes are taken on the test thread; hashing, compression and writing
+ * happen in {@link ScreenshotStore}. The suite waits for pending writes
+ * before it finishes. Disabled with -Dscreenshots.enabled=false.
+ */
+public class FailureScreenshotListener implements ITestListener, IConfigurationListener, ISuiteListener {
+    private static final Logger logger = Logger.getLogger(FailureScreenshotListener.class.getName());
+
+    private volatile ScreenshotStore store;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (HarnessConfig.getBoolean("screenshots.enabled", true)) {
+            store = ScreenshotStore.fromConfig();
+        }
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        capture(result);
+    }
+
+    @Override
+    public void onConfigurationFailure(ITestResult result) {
+        capture(result);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        ScreenshotStore running = store;
+        if (running == null) {
+            return;
+        }
+        store = null;
+        try {
+            if (!running.awaitPending(HarnessConfig.getInt("screenshots.awaitSeconds", 30), TimeUnit.SECONDS)) {
+                logger.warning("Screenshot writes still pending when the suite finished.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void capture(ITestResult result) {
+        ScreenshotStore running = store;
+        BrowserSession session = BrowserSessions.currentOrNull();
+        if (running == null || session == null) {
+            return;
+        }
+        WebDriver driver = session.getDriver();
+        if (!(driver instanceof TakesScreenshot)) {
+            return;
+        }
+        String testName = result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+        try {
+            running.submit(testName, ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES));
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Could not capture screenshot for " + testName + ": " + e.getMessage(), e);
+        }
+    }
+}
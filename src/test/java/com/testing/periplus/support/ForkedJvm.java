@@ -0,0 +1,56 @@
+package com.testing.periplus.support;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * What a runner needs to start another JVM on the test classpath, e.g. one
+ * per shard or one per startup benchmark run.
+ */
+public final class ForkedJvm {
+
+    private ForkedJvm() {
+    }
+
+    /**
+     * The java launcher of the running JVM.
+     */
+    public static String javaExecutable() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    /**
+     * The classpath of the running code. exec:java runs in Maven's JVM, where
+     * the test classpath is only known to the context class loader.
+     */
+    public static List<Path> classpath() {
+        List<Path> entries = new ArrayList<>();
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        if (!(loader instanceof URLClassLoader)) {
+            for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+                entries.add(Paths.get(entry));
+            }
+            return entries;
+        }
+        try {
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                entries.add(Paths.get(url.toURI()));
+            }
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Unsupported classpath entry: " + e.getInput(), e);
+        }
+        return entries;
+    }
+
+    public static String join(List<Path> classpath) {
+        List<String> entries = new ArrayList<>();
+        classpath.forEach(entry -> entries.add(entry.toString()));
+        return String.join(File.pathSeparator, entries);
+    }
+}
@@ -0,0 +1,48 @@
+package com.testing.periplus.support;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves harness settings. A JVM system property (-Dkey=value) wins over a
+ * suite parameter from testng.xml, which wins over the supplied default.
+ */
+public final class HarnessConfig {
+    private static final Map<String, String> suiteParameters = new ConcurrentHashMap<>();
+
+    private HarnessConfig() {
+    }
+
+    /**
+     * Makes the parameters of a suite available as settings, e.g. to a runner
+     * that reads the suite before handing it to TestNG.
+     */
+    public static void registerSuiteParameters(Map<String, String> parameters) {
+        suiteParameters.putAll(parameters);
+    }
+
+    public static String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) {
+            value = suiteParameters.get(key);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Setting '" + key + "' must be a number but was '" + value + "'.", e);
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
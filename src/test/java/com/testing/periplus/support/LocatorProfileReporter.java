@@ -0,0 +1,80 @@
+package com.testing.periplus.support;
+
+import com.periplus.support.Locator;
+import com.periplus.support.Locators;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes how long each registered page-object locator took to resolve, with
+ * its compiled CSS form and in-page XPath/CSS benchmark when available, to
+ * target/locator-profile.csv and logs the slowest locators of every page.
+ */
+public class LocatorProfileReporter implements ISuiteListener {
+    private static final Logger logger = Logger.getLogger(LocatorProfileReporter.class.getName());
+    private static final Path REPORT = Paths.get("target", "locator-profile.csv");
+    private static final int SLOWEST_PER_PAGE = 3;
+
+    @Override
+    public void onFinish(ISuite suite) {
+        List<Locator> locators = new ArrayList<>(Locators.all());
+        if (locators.isEmpty()) {
+            return;
+        }
+        locators.sort(Comparator.comparing(Locator::getName));
+        List<String> lines = new ArrayList<>();
+        lines.add("page,locator,form,resolutions,avg_ms,max_ms,bench_xpath_us,bench_css_us,bench_same_matches,xpath,css");
+        for (Locator locator : locators) {
+            Map<?, ?> benchmark = locator.getBenchmark();
+            lines.add(String.join(",", locator.getPage(), locator.getName(), locator.getResolvedForm(),
+                    Long.toString(locator.getResolutions()),
+                    String.format(Locale.ROOT, "%.2f", locator.getAverageMillis()),
+                    String.format(Locale.ROOT, "%.2f", locator.getMaxMillis()),
+                    benchmark == null ? "" : micros(benchmark.get("xpathMicros")),
+                    benchmark == null ? "" : micros(benchmark.get("cssMicros")),
+                    benchmark == null ? "" : String.valueOf(String.valueOf(benchmark.get("xpathMatches"))
+                            .equals(String.valueOf(benchmark.get("cssMatches")))),
+                    quote(locator.getXPath()), quote(locator.getCss() == null ? "" : locator.getCss())));
+        }
+        try {
+            Files.createDirectories(REPORT.getParent());
+            Files.write(REPORT, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write locator profile: " + e.getMessage(), e);
+            return;
+        }
+
+        List<String> summary = new ArrayList<>();
+        TreeSet<String> pages = new TreeSet<>();
+        locators.forEach(locator -> pages.add(locator.getPage()));
+        for (String page : pages) {
+            for (Locator locator : Locators.slowest(page, SLOWEST_PER_PAGE)) {
+                summary.add(String.format(Locale.ROOT, "%-45s %-5s %6d x %8.2f ms", locator.getName(),
+                        locator.getResolvedForm(), locator.getResolutions(), locator.getAverageMillis()));
+            }
+        }
+        logger.info("Slowest locators per page (" + REPORT + "):\n" + String.join("\n", summary));
+    }
+
+    private static String micros(Object value) {
+        return value instanceof Number ? String.format(Locale.ROOT, "%.1f", ((Number) value).doubleValue()) : "";
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,164 @@
+package com.testing.periplus.support;
+
+import com.periplus.api.PeriplusApiClient;
+import com.periplus.api.PeriplusApiException;
+import com.periplus.pages.HomePage;
+import com.periplus.pages.LoginPage;
+import com.periplus.pages.PeriplusUrls;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Suite-wide cache of authenticated sessions. The first login of an account
+ * goes through the login endpoint over HTTP ("preconditions.api", default
+ * true) or, failing that, the login form; its cookies and web storage are
+ * captured and injected into later sessions instead of logging in again. An
+ * injected session that the site no longer accepts falls back to a fresh login.
+ */
+public final class LoginSessions {
+    private static final Logger logger = Logger.getLogger(LoginSessions.class.getName());
+    private static final String CAPTURE_STORAGE_SCRIPT =
+            "var dump = function (storage) { var items = {};"
+            + " for (var i = 0; i < storage.length; i++) { items[storage.key(i)] = storage.getItem(storage.key(i)); }"
+            + " return items; };"
+            + "return { local: dump(window.localStorage), session: dump(window.sessionStorage) };";
+    private static final String RESTORE_STORAGE_SCRIPT =
+            "var local = arguments[0], session = arguments[1];"
+            + "Object.keys(local).forEach(function (key) { window.localStorage.setItem(key, local[key]); });"
+            + "Object.keys(session).forEach(function (key) { window.sessionStorage.setItem(key, session[key]); });";
+
+    private static final Map<String, CachedLogin> cache = new ConcurrentHashMap<>();
+    private static final Map<String, Object> locks = new ConcurrentHashMap<>();
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger misses = new AtomicInteger();
+    private static final AtomicInteger apiLogins = new AtomicInteger();
+
+    private LoginSessions() {
+    }
+
+    /**
+     * Makes the browser logged in as the given account and leaves it on a page
+     * that shows the site header (home page or account page).
+     */
+    public static void logIn(WebDriver driver, WebDriverWait wait, TestAccount account) {
+        HomePage homePage = new HomePage(driver, wait);
+        synchronized (locks.computeIfAbsent(account.getEmail(), key -> new Object())) {
+            CachedLogin cached = cache.get(account.getEmail());
+            if (cached != null && cached.isUsable()) {
+                restore(driver, cached);
+                homePage.navigateToHomePage();
+                if (homePage.isLoggedIn()) {
+                    hits.incrementAndGet();
+                    logger.info("Reused cached login session (" + hits.get() + " hit(s), " + misses.get() + " UI login(s)).");
+                    return;
+                }
+                logger.info("Cached login session was rejected by the site; logging in again.");
+                cache.remove(account.getEmail());
+                driver.manage().deleteAllCookies();
+            }
+
+            if (HarnessConfig.getBoolean("preconditions.api", true) && logInThroughApi(driver, homePage, account)) {
+                apiLogins.incrementAndGet();
+                cache.put(account.getEmail(), capture(driver));
+                logger.info("Logged in through the API and cached the session (" + apiLogins.get() + " API login(s)).");
+                return;
+            }
+
+            misses.incrementAndGet();
+            LoginPage loginPage = new LoginPage(driver, wait);
+            loginPage.navigateToLoginPage();
+            loginPage.performLogin(account.getEmail(), account.getPassword());
+            wait.until(ExpectedConditions.or(
+                    ExpectedConditions.urlContains("account"),
+                    ExpectedConditions.urlContains("index")
+            ));
+            cache.put(account.getEmail(), capture(driver));
+            logger.info("Logged in through the login form and cached the session.");
+        }
+    }
+
+    /**
+     * Drops the cached session of an account, e.g. after it logged out.
+     */
+    public static void invalidate(TestAccount account) {
+        cache.remove(account.getEmail());
+    }
+
+    // Logs in over HTTP and hands the session cookies to the browser, which must then show the logout link
+    private static boolean logInThroughApi(WebDriver driver, HomePage homePage, TestAccount account) {
+        try {
+            PeriplusApiClient api = new PeriplusApiClient();
+            if (api.logIn(account.getEmail(), account.getPassword())) {
+                api.exportCookies(driver);
+                homePage.navigateToHomePage();
+                if (homePage.isLoggedIn()) {
+                    return true;
+                }
+            }
+            logger.info("The site did not accept the API login; using the login form.");
+        } catch (PeriplusApiException e) {
+            logger.warning("API login failed; using the login form. " + e.getMessage());
+        }
+        driver.manage().deleteAllCookies();
+        return false;
+    }
+
+    private static CachedLogin capture(WebDriver driver) {
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, String>> storage =
+                (Map<String, Map<String, String>>) ((JavascriptExecutor) driver).executeScript(CAPTURE_STORAGE_SCRIPT);
+        return new CachedLogin(driver.manage().getCookies(), storage.get("local"), storage.get("session"));
+    }
+
+    private static void restore(WebDriver driver, CachedLogin login) {
+        String currentUrl = driver.getCurrentUrl();
+        if (currentUrl == null || !currentUrl.startsWith(PeriplusUrls.baseUrl())) {
+            // Cookies can only be set for the site the browser is on; robots.txt is the cheapest page there.
+            driver.get(PeriplusUrls.url("robots.txt"));
+        }
+        for (Cookie cookie : login.cookies) {
+            driver.manage().addCookie(cookie);
+        }
+        ((JavascriptExecutor) driver).executeScript(RESTORE_STORAGE_SCRIPT, login.localStorage, login.sessionStorage);
+    }
+
+    private static final class CachedLogin {
+        private static final Duration MAX_AGE = Duration.ofMinutes(HarnessConfig.getInt("login.cache.maxAgeMinutes", 30));
+
+        private final Set<Cookie> cookies;
+        private final Map<String, String> localStorage;
+        private final Map<String, String> sessionStorage;
+        private final Instant capturedAt = Instant.now();
+
+        CachedLogin(Set<Cookie> cookies, Map<String, String> localStorage, Map<String, String> sessionStorage) {
+            this.cookies = Set.copyOf(cookies);
+            this.localStorage = localStorage == null ? Map.of() : localStorage;
+            this.sessionStorage = sessionStorage == null ? Map.of() : sessionStorage;
+        }
+
+        boolean isUsable() {
+            if (Instant.now().isAfter(capturedAt.plus(MAX_AGE))) {
+                return false;
+            }
+            Date now = new Date();
+            for (Cookie cookie : cookies) {
+                if (cookie.getExpiry() != null && cookie.getExpiry().before(now)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.testing.periplus.support;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Counts requests and transferred bytes per page through DevTools and, when a
+ * {@link RequestFilter} is given, fails filtered requests before they leave
+ * the browser. Totals are kept per page path for the whole suite and written
+ * to target/traffic-&lt;profile&gt;.csv, where the lean report also shows the
+ * savings against the last full-profile report.
+ */
+public final class NetworkTraffic {
+    private static final Logger logger = Logger.getLogger(NetworkTraffic.class.getName());
+    private static final Map<String, PageTraffic> pages = new ConcurrentHashMap<>();
+
+    private NetworkTraffic() {
+    }
+
+    public static void attach(WebDriver driver, RequestFilter filter) {
+        if (!(driver instanceof HasDevTools)) {
+            logger.warning("Driver does not support DevTools; network traffic is not recorded.");
+            return;
+        }
+        DevTools devTools = ((HasDevTools) driver).getDevTools();
+        devTools.createSessionIfThereIsNotOne();
+        Tracker tracker = new Tracker();
+
+        devTools.send(new Command<>("Network.enable", Map.of()));
+        devTools.send(new Command<>("Page.enable", Map.of()));
+        devTools.addListener(event("Page.frameNavigated"), params -> {
+            Map<?, ?> frame = (Map<?, ?>) params.get("frame");
+            if (frame != null && frame.get("parentId") == null) {
+                tracker.navigated(pageKey((String) frame.get("url")));
+            }
+        });
+        devTools.addListener(event("Network.loadingFinished"), params -> {
+            Number length = (Number) params.get("encodedDataLength");
+            tracker.loaded(length == null ? 0 : length.longValue());
+        });
+
+        if (filter != null) {
+            devTools.send(new Command<>("Fetch.enable",
+                    Map.of("patterns", List.of(Map.of("urlPattern", "*", "requestStage", "Request")))));
+            devTools.addListener(event("Fetch.requestPaused"), params -> {
+                String requestId = (String) params.get("requestId");
+                Map<?, ?> request = (Map<?, ?>) params.get("request");
+                String url = request == null ? null : (String) request.get("url");
+                if (filter.blocks(url, (String) params.get("resourceType"))) {
+                    tracker.blocked();
+                    devTools.send(new Command<>("Fetch.failRequest",
+                            Map.of("requestId", requestId, "errorReason", "BlockedByClient")));
+                } else {
+                    devTools.send(new Command<>("Fetch.continueRequest", Map.of("requestId", requestId)));
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes the per-page totals collected so far for the given profile.
+     */
+    public static void writeReport(BrowserProfile profile) {
+        if (pages.isEmpty()) {
+            return;
+        }
+        Path report = reportPath(profile);
+        Map<String, double[]> fullBaseline = profile == BrowserProfile.FULL ? Map.of() : readAverages(reportPath(BrowserProfile.FULL));
+
+        List<String> lines = new ArrayList<>();
+        lines.add("page,navigations,avg_requests,avg_kb,avg_blocked,saved_requests,saved_kb");
+        for (Map.Entry<String, PageTraffic> entry : new TreeMap<>(pages).entrySet()) {
+            PageTraffic traffic = entry.getValue();
+            double[] full = fullBaseline.get(entry.getKey());
+            String savedRequests = full == null ? String.format("%.1f", traffic.averageBlocked()) : String.format("%.1f", full[0] - traffic.averageRequests());
+            String savedKb = full == null ? "" : String.format("%.1f", full[1] - traffic.averageKilobytes());
+            lines.add(String.join(",", entry.getKey(), Long.toString(traffic.navigations),
+                    String.format("%.1f", traffic.averageRequests()), String.format("%.1f", traffic.averageKilobytes()),
+                    String.format("%.1f", traffic.averageBlocked()), savedRequests, savedKb));
+        }
+        try {
+            Files.createDirectories(report.getParent());
+            Files.write(report, lines, StandardCharsets.UTF_8);
+            logger.info("Network traffic per page (" + report + "):\n" + String.join("\n", lines));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write network traffic report: " + e.getMessage(), e);
+        }
+    }
+
+    private static Path reportPath(BrowserProfile profile) {
+        return Paths.get("target", "traffic-" + profile.name().toLowerCase() + ".csv");
+    }
+
+    private static Map<String, double[]> readAverages(Path report) {
+        Map<String, double[]> averages = new HashMap<>();
+        if (!Files.exists(report)) {
+            return averages;
+        }
+        try {
+            for (String line : Files.readAllLines(report, StandardCharsets.UTF_8)) {
+                String[] columns = line.split(",");
+                if (columns.length >= 4 && !columns[0].equals("page")) {
+                    averages.put(columns[0], new double[]{Double.parseDouble(columns[2]), Double.parseDouble(columns[3])});
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable traffic baseline " + report + ": " + e.getMessage(), e);
+        }
+        return averages;
+    }
+
+    private static Event<Map<String, Object>> event(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    static String pageKey(String url) {
+        if (url == null || !url.startsWith("http")) {
+            return "other";
+        }
+        String path = URI.create(url).getPath();
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        return path.startsWith("/p/") ? "/p/*" : path;
+    }
+
+    /**
+     * Tracks which page a single browser is on; every browser has its own.
+     */
+    private static final class Tracker {
+        private volatile PageTraffic current = new PageTraffic();
+
+        void navigated(String key) {
+            PageTraffic traffic = pages.computeIfAbsent(key, k -> new PageTraffic());
+            traffic.navigated();
+            current = traffic;
+        }
+
+        void loaded(long bytes) {
+            current.loaded(bytes);
+        }
+
+        void blocked() {
+            current.blocked();
+        }
+    }
+
+    private static final class PageTraffic {
+        private long navigations;
+        private long requests;
+        private long bytes;
+        private long blocked;
+
+        synchronized void navigated() {
+            navigations++;
+        }
+
+        synchronized void loaded(long size) {
+            requests++;
+            bytes += size;
+        }
+
+        synchronized void blocked() {
+            blocked++;
+        }
+
+        synchronized double averageRequests() {
+            return navigations == 0 ? 0 : (double) requests / navigations;
+        }
+
+        synchronized double averageKilobytes() {
+            return navigations == 0 ? 0 : bytes / 1024.0 / navigations;
+        }
+
+        synchronized double averageBlocked() {
+            return navigations == 0 ? 0 : (double) blocked / navigations;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.testing.periplus.support;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Applies the "parallel.mode" (none, methods or classes) and "parallel.threads"
+ * settings to the suite before TestNG builds its runners, so the parallel mode
+ * can be switched with -Dparallel.mode=methods instead of editing testng.xml.
+ */
+public class ParallelSuiteConfigurer implements IAlterSuiteListener {
+    private static final Logger logger = Logger.getLogger(ParallelSuiteConfigurer.class.getName());
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        for (XmlSuite suite : suites) {
+            HarnessConfig.registerSuiteParameters(suite.getParameters());
+
+            String mode = HarnessConfig.get("parallel.mode", "none");
+            XmlSuite.ParallelMode parallelMode;
+            switch (mode.toLowerCase()) {
+                case "none":
+                case "false":
+                    parallelMode = XmlSuite.ParallelMode.NONE;
+                    break;
+                case "methods":
+                    parallelMode = XmlSuite.ParallelMode.METHODS;
+                    break;
+                case "classes":
+                    parallelMode = XmlSuite.ParallelMode.CLASSES;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported parallel.mode '" + mode + "'. Use none, methods or classes.");
+            }
+
+            int threads = HarnessConfig.getInt("parallel.threads", parallelMode == XmlSuite.ParallelMode.NONE ? 1 : 3);
+            suite.setParallel(parallelMode);
+            suite.setThreadCount(threads);
+            suite.setDataProviderThreadCount(threads);
+            suite.getTests().forEach(test -> {
+                test.setParallel(parallelMode);
+                test.setThreadCount(threads);
+            });
+            logger.info("Suite '" + suite.getName() + "' configured with parallel mode " + parallelMode + " on " + threads + " thread(s).");
+        }
+    }
+}
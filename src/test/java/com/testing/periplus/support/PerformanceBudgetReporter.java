@@ -0,0 +1,254 @@
+package com.testing.periplus.support;
+
+import com.periplus.support.PageTiming;
+import com.periplus.support.PageTimings;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checks the page load timings captured by the page objects against the
+ * budgets in "perf.budgets" (default perf-budgets.properties) and writes
+ * target/perf-budgets.csv when the suite finishes: per page and metric the
+ * samples, median, p90 and max, the budget and how often it was exceeded,
+ * and the change of the median since the previous run, whose medians are
+ * kept in "perf.trend.file" (default .cache/perf-trend.csv). The raw samples
+ * go to target/perf-samples.csv, so the shards of one run can be
+ * {@link #summarize summarized} together; "perf.trend.update=false" leaves
+ * the trend file alone, as the shards do.
+ *
+ * <p>A page load over budget is logged; with "perf.budgets.enforce=true" it
+ * also fails the test that made it. Medians that grew by more than
+ * "perf.trend.warnPct" (default 20) percent are logged as regressions.
+ * "perf.timings=false" turns capturing off.
+ */
+public class PerformanceBudgetReporter implements ISuiteListener {
+    private static final Logger logger = Logger.getLogger(PerformanceBudgetReporter.class.getName());
+    public static final Path REPORT = Paths.get("target", "perf-budgets.csv");
+    public static final Path SAMPLES = Paths.get("target", "perf-samples.csv");
+    private static final String SAMPLES_HEADER = "page,metric,value";
+    private static final String HEADER = "page,metric,samples,median,p90,max,budget,breaches,status,previous_median,delta,delta_pct";
+
+    private Map<String, Double> budgets = Map.of();
+    private Consumer<PageTiming> checker;
+
+    @Override
+    public void onStart(ISuite suite) {
+        PageTimings.reset();
+        if (!HarnessConfig.getBoolean("perf.timings", true)) {
+            return;
+        }
+        budgets = readBudgets();
+        boolean enforce = HarnessConfig.getBoolean("perf.budgets.enforce", false);
+        checker = timing -> check(timing, enforce);
+        PageTimings.addListener(checker);
+        PageTimings.setEnabled(true);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        if (checker == null) {
+            return;
+        }
+        PageTimings.setEnabled(false);
+        PageTimings.removeListener(checker);
+        checker = null;
+
+        Map<String, List<Double>> samples = new TreeMap<>();
+        List<String> sampleLines = new ArrayList<>();
+        sampleLines.add(SAMPLES_HEADER);
+        for (PageTiming timing : PageTimings.snapshot()) {
+            timing.getMetrics().forEach((metric, value) -> {
+                samples.computeIfAbsent(key(timing.getPage(), metric), k -> new ArrayList<>()).add(value);
+                sampleLines.add(String.format(Locale.ROOT, "%s,%s,%.1f", timing.getPage(), metric, value));
+            });
+        }
+        if (samples.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(SAMPLES.getParent());
+            Files.write(SAMPLES, sampleLines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write the page timing samples: " + e.getMessage(), e);
+        }
+        summarize(samples, REPORT);
+    }
+
+    /**
+     * Reads samples written to {@link #SAMPLES} by one or more runs, e.g. the
+     * shards of a suite, keyed by "page.metric".
+     */
+    public static Map<String, List<Double>> readSamples(List<Path> files) throws IOException {
+        Map<String, List<Double>> samples = new TreeMap<>();
+        for (Path file : files) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] columns = line.split(",");
+                if (columns.length == 3 && !line.equals(SAMPLES_HEADER)) {
+                    samples.computeIfAbsent(key(columns[0], columns[1]), k -> new ArrayList<>()).add(Double.parseDouble(columns[2]));
+                }
+            }
+        }
+        return samples;
+    }
+
+    /**
+     * Writes the budget report for the samples, keyed by "page.metric", to the
+     * given file, compares the medians with the trend file, logs regressions
+     * and, unless "perf.trend.update=false", records the medians in the trend file.
+     */
+    public static void summarize(Map<String, List<Double>> samples, Path report) {
+        Map<String, Double> budgets = readBudgets();
+        Path trendFile = trendFile();
+        Map<String, Double> previous = readTrend(trendFile);
+        double warnPct = Double.parseDouble(HarnessConfig.get("perf.trend.warnPct", "20"));
+        List<String> lines = new ArrayList<>();
+        List<String> trend = new ArrayList<>();
+        List<String> regressions = new ArrayList<>();
+        lines.add(HEADER);
+        trend.add("page,metric,median");
+        for (Map.Entry<String, List<Double>> entry : samples.entrySet()) {
+            String page = entry.getKey().substring(0, entry.getKey().indexOf('.'));
+            String metric = entry.getKey().substring(page.length() + 1);
+            List<Double> values = new ArrayList<>(entry.getValue());
+            values.sort(null);
+            double median = percentile(values, 50);
+            Double budget = budget(budgets, page, metric);
+            long breaches = budget == null ? 0 : values.stream().filter(value -> value > budget).count();
+            Double before = previous.get(entry.getKey());
+            String status = budget == null ? "" : median > budget ? "over" : "ok";
+            String delta = before == null ? "" : String.format(Locale.ROOT, "%+.1f", median - before);
+            String deltaPct = before == null || before == 0 ? "" : String.format(Locale.ROOT, "%+.1f", (median - before) / before * 100);
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.1f,%.1f,%s,%d,%s,%s,%s,%s", page, metric, values.size(),
+                    median, percentile(values, 90), values.get(values.size() - 1),
+                    budget == null ? "" : String.format(Locale.ROOT, "%.1f", budget), breaches, status,
+                    before == null ? "" : String.format(Locale.ROOT, "%.1f", before), delta, deltaPct));
+            trend.add(String.format(Locale.ROOT, "%s,%s,%.1f", page, metric, median));
+            if (before != null && before > 0 && (median - before) / before * 100 > warnPct) {
+                regressions.add(String.format(Locale.ROOT, "%s %s %.1f -> %.1f", page, metric, before, median));
+            }
+        }
+        try {
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            Files.write(report, lines, StandardCharsets.UTF_8);
+            logger.info("Page performance against budgets (" + report + "):\n" + String.join("\n", lines));
+            if (HarnessConfig.getBoolean("perf.trend.update", true)) {
+                writeTrend(trendFile, trend);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write the page performance report: " + e.getMessage(), e);
+        }
+        if (!regressions.isEmpty()) {
+            logger.warning("Page timings more than " + warnPct + "% slower than the previous run: " + String.join("; ", regressions));
+        }
+    }
+
+    private void check(PageTiming timing, boolean enforce) {
+        List<String> over = new ArrayList<>();
+        timing.getMetrics().forEach((metric, value) -> {
+            Double budget = budget(budgets, timing.getPage(), metric);
+            if (budget != null && value > budget) {
+                over.add(String.format(Locale.ROOT, "%s %.1f > %.1f", metric, value, budget));
+            }
+        });
+        if (over.isEmpty()) {
+            return;
+        }
+        String message = "The " + timing.getPage() + " page (" + timing.getUrl() + ") is over budget: " + String.join(", ", over);
+        if (enforce) {
+            throw new AssertionError(message);
+        }
+        logger.warning(message);
+    }
+
+    private static Double budget(Map<String, Double> budgets, String page, String metric) {
+        Double budget = budgets.get(key(page, metric));
+        return budget != null ? budget : budgets.get(key("*", metric));
+    }
+
+    private static String key(String page, String metric) {
+        return page + "." + metric;
+    }
+
+    private static Map<String, Double> readBudgets() {
+        Path file = Paths.get(HarnessConfig.get("perf.budgets", "perf-budgets.properties"));
+        Map<String, Double> budgets = new HashMap<>();
+        if (!Files.exists(file)) {
+            logger.info("No performance budgets at " + file.toAbsolutePath() + "; page timings are reported only.");
+            return budgets;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable performance budgets " + file + ": " + e.getMessage(), e);
+            return budgets;
+        }
+        for (String name : properties.stringPropertyNames()) {
+            try {
+                budgets.put(name, Double.parseDouble(properties.getProperty(name).trim()));
+            } catch (NumberFormatException e) {
+                logger.warning("Ignoring the performance budget " + name + "=" + properties.getProperty(name) + ": not a number.");
+            }
+        }
+        return budgets;
+    }
+
+    private static Path trendFile() {
+        return Paths.get(HarnessConfig.get("perf.trend.file", ".cache/perf-trend.csv"));
+    }
+
+    private static Map<String, Double> readTrend(Path file) {
+        Map<String, Double> medians = new HashMap<>();
+        if (!Files.exists(file)) {
+            return medians;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] columns = line.split(",");
+                if (columns.length == 3 && !columns[0].equals("page")) {
+                    medians.put(key(columns[0], columns[1]), Double.parseDouble(columns[2]));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            logger.log(Level.WARNING, "Ignoring unreadable performance trend " + file + ": " + e.getMessage(), e);
+        }
+        return medians;
+    }
+
+    private static void writeTrend(Path file, List<String> lines) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, "perf-trend", ".tmp");
+        Files.write(temporary, lines, StandardCharsets.UTF_8);
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static double percentile(List<Double> sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+}
@@ -0,0 +1,116 @@
+package com.testing.periplus.support;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for {@link BrowserPool}: how long leases waited, how long resets
+ * took, how many browser launches the pool had to pay for (and how many of
+ * them were pre-started ahead of demand) and the time from a lease request
+ * to the first page load of the lease.
+ */
+public class PoolMetrics {
+    static final String CSV_HEADER = "timestamp,launches,launch_total_ms,leases,lease_wait_total_ms,lease_wait_max_ms,"
+            + "resets,reset_total_ms,reset_max_ms,discarded,prestarted,first_get_count,first_get_p50_ms,first_get_p95_ms,"
+            + "first_get_max_ms";
+
+    private final AtomicLong launches = new AtomicLong();
+    private final AtomicLong launchNanos = new AtomicLong();
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong leaseWaitNanos = new AtomicLong();
+    private final AtomicLong leaseWaitMaxNanos = new AtomicLong();
+    private final AtomicLong resets = new AtomicLong();
+    private final AtomicLong resetNanos = new AtomicLong();
+    private final AtomicLong resetMaxNanos = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong prestarted = new AtomicLong();
+    private final LatencyHistogram firstGet = new LatencyHistogram();
+
+    void recordLaunch(long nanos) {
+        launches.incrementAndGet();
+        launchNanos.addAndGet(nanos);
+    }
+
+    void recordLease(long waitNanos) {
+        leases.incrementAndGet();
+        leaseWaitNanos.addAndGet(waitNanos);
+        leaseWaitMaxNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    void recordReset(long nanos) {
+        resets.incrementAndGet();
+        resetNanos.addAndGet(nanos);
+        resetMaxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordDiscard() {
+        discarded.incrementAndGet();
+    }
+
+    void recordPrestart() {
+        prestarted.incrementAndGet();
+    }
+
+    void recordFirstGet(long nanos) {
+        firstGet.record(nanos);
+    }
+
+    public long getLaunches() {
+        return launches.get();
+    }
+
+    public long getLeases() {
+        return leases.get();
+    }
+
+    public long getLeaseWaitTotalMillis() {
+        return leaseWaitNanos.get() / 1_000_000;
+    }
+
+    public long getLeaseWaitMaxMillis() {
+        return leaseWaitMaxNanos.get() / 1_000_000;
+    }
+
+    public long getResets() {
+        return resets.get();
+    }
+
+    public long getResetTotalMillis() {
+        return resetNanos.get() / 1_000_000;
+    }
+
+    public long getResetMaxMillis() {
+        return resetMaxNanos.get() / 1_000_000;
+    }
+
+    public long getDiscarded() {
+        return discarded.get();
+    }
+
+    public long getPrestarted() {
+        return prestarted.get();
+    }
+
+    /** Time from lease request to the first driver.get of the lease. */
+    public LatencyHistogram getFirstGet() {
+        return firstGet;
+    }
+
+    String toCsv() {
+        return launches.get() + "," + launchNanos.get() / 1_000_000 + "," + getLeases() + "," + getLeaseWaitTotalMillis() + ","
+                + getLeaseWaitMaxMillis() + "," + getResets() + "," + getResetTotalMillis() + "," + getResetMaxMillis() + ","
+                + getDiscarded() + "," + getPrestarted() + "," + firstGet.getCount()
+                + String.format(Locale.ROOT, ",%.1f,%.1f,%.1f", firstGet.percentileMillis(50), firstGet.percentileMillis(95),
+                firstGet.getMaxMillis());
+    }
+
+    @Override
+    public String toString() {
+        return "launches=" + launches.get() + " (" + launchNanos.get() / 1_000_000 + " ms)"
+                + ", leases=" + getLeases() + " (wait total " + getLeaseWaitTotalMillis() + " ms, max " + getLeaseWaitMaxMillis() + " ms)"
+                + ", resets=" + getResets() + " (total " + getResetTotalMillis() + " ms, max " + getResetMaxMillis() + " ms)"
+                + ", discarded=" + getDiscarded() + ", prestarted=" + getPrestarted()
+                + String.format(Locale.ROOT, ", request to first get p50 %.0f ms, p95 %.0f ms, max %.0f ms (%d lease(s))",
+                firstGet.percentileMillis(50), firstGet.percentileMillis(95), firstGet.getMaxMillis(), firstGet.getCount());
+    }
+}
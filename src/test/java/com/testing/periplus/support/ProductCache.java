@@ -0,0 +1,228 @@
+package com.testing.periplus.support;
+
+import com.periplus.pages.Rupiah;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Persistent cache of search title to product page, so tests can open a
+ * product directly instead of searching and clicking the first result every
+ * time. Entries are kept per base URL, expire after "products.cache.ttlHours"
+ * (default 24) and the least recently used are evicted beyond
+ * "products.cache.maxEntries" (default 500). The cache is written through to
+ * "products.cache.file" (default .cache/products.tsv) so it survives runs;
+ * "products.cache=false" disables it.
+ */
+public final class ProductCache {
+    private static final Logger logger = Logger.getLogger(ProductCache.class.getName());
+    private static final String HEADER = "# base_url\ttitle\turl\tproduct_id\tprice\tresolved_at\tlast_used";
+    private static final Pattern PRODUCT_ID = Pattern.compile("/p/([^/?#]+)");
+    private static volatile ProductCache shared;
+
+    private final Path file;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+    private int hits;
+    private int misses;
+
+    ProductCache(Path file, Duration ttl, int maxEntries) {
+        this.file = file;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ProductCache.this.maxEntries;
+            }
+        };
+        load();
+    }
+
+    /**
+     * Returns the suite-wide cache, or null when it is disabled.
+     */
+    public static ProductCache shared() {
+        if (!HarnessConfig.getBoolean("products.cache", true)) {
+            return null;
+        }
+        ProductCache result = shared;
+        if (result == null) {
+            synchronized (ProductCache.class) {
+                result = shared;
+                if (result == null) {
+                    result = new ProductCache(Paths.get(HarnessConfig.get("products.cache.file", ".cache/products.tsv")),
+                            Duration.ofHours(HarnessConfig.getInt("products.cache.ttlHours", 24)),
+                            HarnessConfig.getInt("products.cache.maxEntries", 500));
+                    shared = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the product page the title resolved to on the given site, or
+     * null when it is unknown or has expired.
+     */
+    public synchronized Entry get(String baseUrl, String title) {
+        String key = key(baseUrl, title);
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (entry != null && now - entry.resolvedAt > ttl.toMillis()) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        entry.lastUsed = now;
+        logger.info("Resolved '" + title + "' from the product cache (" + hits + " hit(s), " + misses + " miss(es)).");
+        save();
+        return entry;
+    }
+
+    /**
+     * Records the product page a title resolved to through the search.
+     */
+    public synchronized void put(String baseUrl, String title, String url, Rupiah price) {
+        long now = System.currentTimeMillis();
+        entries.put(key(baseUrl, title), new Entry(baseUrl, title, url, productIdOf(url), price.getAmount(), now, now));
+        save();
+    }
+
+    /**
+     * Drops an entry whose page no longer resolves, so the next lookup searches again.
+     */
+    public synchronized void invalidate(String baseUrl, String title) {
+        if (entries.remove(key(baseUrl, title)) != null) {
+            save();
+        }
+    }
+
+    /**
+     * Extracts the product id from a product page URL (/p/&lt;id&gt;/&lt;slug&gt;), or returns null.
+     */
+    public static String productIdOf(String url) {
+        Matcher matcher = PRODUCT_ID.matcher(url);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String key(String baseUrl, String title) {
+        return baseUrl + "\t" + title.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Reads the persisted entries, least recently used first, so access order survives the restart
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        List<Entry> loaded = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.split("\t");
+                if (line.startsWith("#") || fields.length != 7) {
+                    continue;
+                }
+                try {
+                    loaded.add(new Entry(fields[0], fields[1], fields[2], fields[3].isEmpty() ? null : fields[3],
+                            Long.parseLong(fields[4]), Long.parseLong(fields[5]), Long.parseLong(fields[6])));
+                } catch (NumberFormatException e) {
+                    logger.fine("Skipping malformed product cache line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to read product cache " + file + ": " + e.getMessage(), e);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        loaded.sort(Comparator.comparingLong(entry -> entry.lastUsed));
+        for (Entry entry : loaded) {
+            if (now - entry.resolvedAt <= ttl.toMillis()) {
+                entries.put(key(entry.baseUrl, entry.title), entry);
+            }
+        }
+        logger.info("Loaded " + entries.size() + " product(s) from " + file + ".");
+    }
+
+    // Writes a temporary file and moves it over the cache, so readers never see a partial file
+    private void save() {
+        List<Entry> ordered = new ArrayList<>(entries.values());
+        List<String> lines = new ArrayList<>(ordered.size() + 1);
+        lines.add(HEADER);
+        for (Entry entry : ordered) {
+            lines.add(String.join("\t", entry.baseUrl, entry.title, entry.url,
+                    entry.productId == null ? "" : entry.productId, Long.toString(entry.price),
+                    Long.toString(entry.resolvedAt), Long.toString(entry.lastUsed)));
+        }
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "products", ".tmp");
+            Files.write(temporary, lines, StandardCharsets.UTF_8);
+            try {
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write product cache " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A resolved product page.
+     */
+    public static final class Entry {
+        private final String baseUrl;
+        private final String title;
+        private final String url;
+        private final String productId;
+        private final long price;
+        private final long resolvedAt;
+        private volatile long lastUsed;
+
+        Entry(String baseUrl, String title, String url, String productId, long price, long resolvedAt, long lastUsed) {
+            this.baseUrl = baseUrl;
+            this.title = title;
+            this.url = url;
+            this.productId = productId;
+            this.price = price;
+            this.resolvedAt = resolvedAt;
+            this.lastUsed = lastUsed;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /** The id the cart endpoints take, or null when the URL has none. */
+        public String getProductId() {
+            return productId;
+        }
+
+        /** The price shown when the entry was resolved; the page stays authoritative. */
+        public Rupiah getPrice() {
+            return Rupiah.of(price);
+        }
+    }
+}
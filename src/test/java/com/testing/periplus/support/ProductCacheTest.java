@@ -0,0 +1,193 @@
+package com.testing.periplus.support;
+
+import com.periplus.pages.Rupiah;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+public class ProductCacheTest extends TemporaryDirectoryTest {
+    private static final String SITE = "https://www.periplus.com";
+    private static final Duration DAY = Duration.ofHours(24);
+
+    private Path file;
+
+    @BeforeMethod
+    public void resolveFile() {
+        file = directory.resolve("products.tsv");
+    }
+
+    @Test
+    public void entriesAreKeptPerSiteAndTitle() {
+        ProductCache cache = new ProductCache(file, DAY, 10);
+        cache.put(SITE, "The Hobbit", SITE + "/p/9780261102217/the-hobbit", Rupiah.of(150000));
+
+        ProductCache.Entry entry = cache.get(SITE, "  the HOBBIT ");
+        Assert.assertNotNull(entry);
+        Assert.assertEquals(entry.getUrl(), SITE + "/p/9780261102217/the-hobbit");
+        Assert.assertEquals(entry.getProductId(), "9780261102217");
+        Assert.assertEquals(entry.getPrice(), Rupiah.of(150000));
+        Assert.assertNull(cache.get("https://staging.periplus.com", "The Hobbit"));
+    }
+
+    @Test
+    public void entriesAreReadBackAfterARestart() {
+        new ProductCache(file, DAY, 10).put(SITE, "The Hobbit", SITE + "/p/9780261102217/the-hobbit", Rupiah.of(150000));
+
+        ProductCache.Entry entry = new ProductCache(file, DAY, 10).get(SITE, "The Hobbit");
+
+        Assert.assertNotNull(entry);
+        Assert.assertEquals(entry.getProductId(), "9780261102217");
+        Assert.assertEquals(entry.getPrice(), Rupiah.of(150000));
+    }
+
+    @Test
+    public void expiredEntriesAreNotReturned() throws IOException {
+        long now = System.currentTimeMillis();
+        long stale = now - DAY.toMillis() - 60_000;
+        Files.write(file, List.of(
+                "# base_url\ttitle\turl\tproduct_id\tprice\tresolved_at\tlast_used",
+                line("fresh", now - 60_000, now),
+                line("stale", stale, now)), StandardCharsets.UTF_8);
+
+        ProductCache cache = new ProductCache(file, DAY, 10);
+
+        Assert.assertNotNull(cache.get(SITE, "fresh"));
+        Assert.assertNull(cache.get(SITE, "stale"));
+        Assert.assertNull(new ProductCache(file, Duration.ofSeconds(30), 10).get(SITE, "fresh"));
+    }
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted() {
+        ProductCache cache = new ProductCache(file, DAY, 2);
+        cache.put(SITE, "a", SITE + "/p/1/a", Rupiah.of(1000));
+        cache.put(SITE, "b", SITE + "/p/2/b", Rupiah.of(2000));
+        cache.get(SITE, "a");
+        cache.put(SITE, "c", SITE + "/p/3/c", Rupiah.of(3000));
+
+        Assert.assertNull(cache.get(SITE, "b"));
+        Assert.assertNotNull(cache.get(SITE, "a"));
+        Assert.assertNotNull(cache.get(SITE, "c"));
+    }
+
+    @Test
+    public void accessOrderSurvivesARestart() throws IOException {
+        long now = System.currentTimeMillis();
+        // Written most recently used first; the cache must still evict by last_used
+        Files.write(file, List.of(
+                line("recent", now - 3000, now - 1000),
+                line("old", now - 3000, now - 3000),
+                line("middle", now - 3000, now - 2000)), StandardCharsets.UTF_8);
+
+        ProductCache cache = new ProductCache(file, DAY, 3);
+        cache.put(SITE, "new", SITE + "/p/4/new", Rupiah.of(4000));
+
+        Assert.assertNull(cache.get(SITE, "old"));
+        Assert.assertNotNull(cache.get(SITE, "middle"));
+        Assert.assertNotNull(cache.get(SITE, "recent"));
+        Assert.assertNotNull(cache.get(SITE, "new"));
+    }
+
+    @Test
+    public void invalidatedEntryIsForgotten() {
+        ProductCache cache = new ProductCache(file, DAY, 10);
+        cache.put(SITE, "The Hobbit", SITE + "/p/9780261102217/the-hobbit", Rupiah.of(150000));
+
+        cache.invalidate(SITE, "The Hobbit");
+
+        Assert.assertNull(cache.get(SITE, "The Hobbit"));
+        Assert.assertNull(new ProductCache(file, DAY, 10).get(SITE, "The Hobbit"));
+    }
+
+    @Test
+    public void malformedLinesAreSkipped() throws IOException {
+        long now = System.currentTimeMillis();
+        Files.write(file, List.of(
+                "# base_url\ttitle\turl\tproduct_id\tprice\tresolved_at\tlast_used",
+                line("good", now, now),
+                SITE + "\tshort\t" + SITE + "/p/2/short",
+                SITE + "\tprice\t" + SITE + "/p/3/price\t3\tcheap\t" + now + "\t" + now,
+                "",
+                "\u0000\u0001garbage"), StandardCharsets.UTF_8);
+
+        ProductCache cache = new ProductCache(file, DAY, 10);
+
+        Assert.assertNotNull(cache.get(SITE, "good"));
+        Assert.assertNull(cache.get(SITE, "short"));
+        Assert.assertNull(cache.get(SITE, "price"));
+    }
+
+    @Test
+    public void emptyFileGivesAnEmptyCache() throws IOException {
+        Files.createFile(file);
+
+        ProductCache cache = new ProductCache(file, DAY, 10);
+        Assert.assertNull(cache.get(SITE, "The Hobbit"));
+
+        cache.put(SITE, "The Hobbit", SITE + "/p/9780261102217/the-hobbit", Rupiah.of(150000));
+        Assert.assertNotNull(new ProductCache(file, DAY, 10).get(SITE, "The Hobbit"));
+    }
+
+    @Test
+    public void unreadableFileGivesAnEmptyCache() throws IOException {
+        Files.write(file, new byte[]{(byte) 0xC3, (byte) 0x28, '\n'});
+        // Captured rather than printed, so the expected stack trace stays out of the unit run's output
+        List<LogRecord> warnings = new ArrayList<>();
+        Handler capture = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+                    warnings.add(record);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(ProductCache.class.getName());
+        boolean useParentHandlers = logger.getUseParentHandlers();
+        logger.addHandler(capture);
+        logger.setUseParentHandlers(false);
+        ProductCache cache;
+        try {
+            cache = new ProductCache(file, DAY, 10);
+        } finally {
+            logger.removeHandler(capture);
+            logger.setUseParentHandlers(useParentHandlers);
+        }
+
+        Assert.assertEquals(warnings.size(), 1);
+        Assert.assertTrue(warnings.get(0).getMessage().startsWith("Failed to read product cache " + file), warnings.get(0).getMessage());
+        Assert.assertNull(cache.get(SITE, "The Hobbit"));
+        cache.put(SITE, "The Hobbit", SITE + "/p/9780261102217/the-hobbit", Rupiah.of(150000));
+        Assert.assertNotNull(new ProductCache(file, DAY, 10).get(SITE, "The Hobbit"));
+    }
+
+    @Test
+    public void productIdIsTakenFromTheProductPath() {
+        Assert.assertEquals(ProductCache.productIdOf(SITE + "/p/9780261102217/the-hobbit?ref=search"), "9780261102217");
+        Assert.assertEquals(ProductCache.productIdOf(SITE + "/p/9780261102217#reviews"), "9780261102217");
+        Assert.assertNull(ProductCache.productIdOf(SITE + "/product/Search?filter_name=hobbit"));
+    }
+
+    private static String line(String title, long resolvedAt, long lastUsed) {
+        return String.join("\t", SITE, title, SITE + "/p/" + title + "/" + title, title, "1000",
+                Long.toString(resolvedAt), Long.toString(lastUsed));
+    }
+}
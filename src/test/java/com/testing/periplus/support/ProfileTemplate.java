@@ -0,0 +1,226 @@
+package com.testing.periplus.support;
+
+import com.periplus.pages.PeriplusUrls;
+import org.apache.commons.io.FileUtils;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A Chrome user-data-dir warmed once per suite, so sessions start with the
+ * shop's HTTP cache, code cache and service workers in place instead of an
+ * empty profile. Every session runs on a clone of it under
+ * target/browser-profiles: a reflink copy where the filesystem supports it,
+ * otherwise a plain copy. Files are never shared through hard links, as
+ * Chrome rewrites its cache indexes, entries and databases in place and
+ * would write through a link into the template and the other sessions.
+ *
+ * <p>"browser.template=false" starts every browser on a fresh profile again;
+ * "browser.template.clone" (auto, reflink or copy) forces the clone
+ * method and "browser.template.warmUrls" lists the paths visited to warm the
+ * template (default the home page).
+ */
+public final class ProfileTemplate {
+    private static final Logger logger = Logger.getLogger(ProfileTemplate.class.getName());
+    private static final Path ROOT = Paths.get("target", "browser-profiles");
+    private static volatile ProfileTemplate shared;
+    private static volatile boolean unavailable;
+
+    enum CloneMode { REFLINK, COPY }
+
+    private final Path root;
+    private final Path template;
+    private final CloneMode mode;
+    private final AtomicInteger clones = new AtomicInteger();
+
+    private ProfileTemplate(Path root, CloneMode mode) {
+        this.root = root;
+        this.template = root.resolve("template");
+        this.mode = mode;
+    }
+
+    /**
+     * Returns the suite's warmed template, warming it on first use, or null
+     * when templates are disabled or the warm-up failed.
+     */
+    public static ProfileTemplate shared() {
+        if (!HarnessConfig.getBoolean("browser.template", true) || unavailable) {
+            return null;
+        }
+        ProfileTemplate result = shared;
+        if (result == null) {
+            synchronized (ProfileTemplate.class) {
+                result = shared;
+                if (result == null && !unavailable) {
+                    try {
+                        result = warm(ROOT.toAbsolutePath());
+                        shared = result;
+                    } catch (IOException | RuntimeException e) {
+                        unavailable = true;
+                        logger.log(Level.WARNING, "Failed to warm the browser profile template; browsers start on fresh profiles: "
+                                + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Deletes the suite's template and any clones left behind, so the next suite warms a fresh one.
+     */
+    public static synchronized void discardShared() {
+        ProfileTemplate result = shared;
+        shared = null;
+        unavailable = false;
+        if (result != null) {
+            delete(result.root);
+        }
+    }
+
+    /**
+     * Creates the profile directory of a new session from the template.
+     */
+    public Path cloneForSession() throws IOException {
+        long start = System.nanoTime();
+        Path target = root.resolve("session-" + clones.incrementAndGet());
+        CloneMode used = mode;
+        if (mode == CloneMode.REFLINK) {
+            try {
+                reflink(template, target);
+            } catch (IOException e) {
+                logger.fine("Copying the profile template instead of reflinking it: " + e.getMessage());
+                delete(target);
+                used = CloneMode.COPY;
+            }
+        }
+        if (used == CloneMode.COPY) {
+            copyTree(template, target);
+        }
+        String method = used.name().toLowerCase(Locale.ROOT);
+        logger.fine(() -> "Cloned the profile template to " + target + " (" + method
+                + ") in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms.");
+        return target;
+    }
+
+    /**
+     * Deletes a session's profile directory once its browser has quit.
+     */
+    public static void delete(Path directory) {
+        if (!FileUtils.deleteQuietly(directory.toFile())) {
+            logger.fine("Could not delete browser profile " + directory + "; Chrome may still be exiting.");
+        }
+    }
+
+    private static ProfileTemplate warm(Path root) throws IOException {
+        long start = System.nanoTime();
+        delete(root);
+        Path template = root.resolve("template");
+        Files.createDirectories(template);
+        WebDriver driver = BrowserFactory.launchUninstrumented(template);
+        try {
+            for (String path : HarnessConfig.get("browser.template.warmUrls", "/").split(",")) {
+                driver.get(PeriplusUrls.url(path.trim()));
+            }
+        } finally {
+            driver.quit();
+        }
+        // Chrome's process lock files would make every clone look like a profile that is in use
+        try (Stream<Path> files = Files.list(template)) {
+            for (Path file : files.filter(file -> file.getFileName().toString().startsWith("Singleton")).collect(Collectors.toList())) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        CloneMode mode = cloneMode(root, template);
+        logger.info("Warmed the browser profile template in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)
+                + " ms; sessions start from a " + mode.name().toLowerCase(Locale.ROOT) + " clone of it.");
+        return new ProfileTemplate(root, mode);
+    }
+
+    // Probes reflink support with one file rather than assuming it from the platform
+    private static CloneMode cloneMode(Path root, Path template) throws IOException {
+        String requested = HarnessConfig.get("browser.template.clone", "auto").toUpperCase(Locale.ROOT);
+        if (!requested.equals("AUTO")) {
+            try {
+                return CloneMode.valueOf(requested);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported browser.template.clone '" + requested.toLowerCase(Locale.ROOT)
+                        + "'. Use auto, reflink or copy.", e);
+            }
+        }
+        Path sample = template.resolve("Local State");
+        if (!Files.exists(sample)) {
+            return CloneMode.COPY;
+        }
+        Path probe = root.resolve("probe");
+        try {
+            reflink(sample, probe);
+            return CloneMode.REFLINK;
+        } catch (IOException e) {
+            logger.fine("Reflink copies are not available: " + e.getMessage());
+            return CloneMode.COPY;
+        } finally {
+            Files.deleteIfExists(probe);
+        }
+    }
+
+    // cp is the only portable way to reach FICLONE (Linux) and clonefile (macOS) without native code
+    private static void reflink(Path source, Path target) throws IOException {
+        String os = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+        List<String> command;
+        if (os.contains("linux")) {
+            command = new ArrayList<>(Arrays.asList("cp", "-R", "--reflink=always"));
+        } else if (os.contains("mac")) {
+            command = new ArrayList<>(Arrays.asList("cp", "-R", "-c"));
+        } else {
+            throw new IOException("Reflink copies are not supported on " + os + ".");
+        }
+        command.add(source.toString());
+        command.add(target.toString());
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try {
+            String output = new String(process.getInputStream().readAllBytes()).trim();
+            if (process.waitFor() != 0) {
+                throw new IOException("cp exited with " + process.exitValue() + ": " + output);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+            throw new IOException("Interrupted while cloning " + source + ".", e);
+        }
+    }
+
+    private static void copyTree(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path directory, BasicFileAttributes attributes) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(directory).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.copy(file, target.resolve(source.relativize(file).toString()), StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
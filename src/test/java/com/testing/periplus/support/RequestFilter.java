@@ -0,0 +1,81 @@
+package com.testing.periplus.support;
+
+import com.periplus.pages.PeriplusUrls;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which requests the lean profile lets through. Documents are never
+ * blocked. Any other request is blocked when its DevTools resource type is
+ * listed in "lean.blockedTypes", whatever its host, so the shop's own images
+ * and fonts are blocked too. The remaining requests are blocked when their
+ * host is neither the shop's nor covered by an entry of "lean.allowedHosts"
+ * (an entry also allows its subdomains).
+ */
+public class RequestFilter {
+    private static final String DEFAULT_ALLOWED_HOSTS =
+            "periplus.com,code.jquery.com,cdnjs.cloudflare.com,cdn.jsdelivr.net,maxcdn.bootstrapcdn.com,ajax.googleapis.com";
+    private static final String DEFAULT_BLOCKED_TYPES = "Image,Media,Font,Ping,CSPViolationReport,Manifest";
+
+    private final List<String> allowedHosts;
+    private final Set<String> blockedTypes;
+
+    public RequestFilter(List<String> allowedHosts, Set<String> blockedTypes) {
+        this.allowedHosts = allowedHosts;
+        this.blockedTypes = blockedTypes;
+    }
+
+    public static RequestFilter fromConfig() {
+        return new RequestFilter(split(HarnessConfig.get("lean.allowedHosts", DEFAULT_ALLOWED_HOSTS)),
+                Set.copyOf(split(HarnessConfig.get("lean.blockedTypes", DEFAULT_BLOCKED_TYPES))));
+    }
+
+    /**
+     * Returns true when the request must not reach the network.
+     * @param url The request URL.
+     * @param resourceType The DevTools resource type, e.g. "Image" or "Script".
+     */
+    public boolean blocks(String url, String resourceType) {
+        if ("Document".equals(resourceType)) {
+            return false;
+        }
+        if (resourceType != null && blockedTypes.contains(resourceType.toLowerCase(Locale.ROOT))) {
+            return true;
+        }
+        String host = hostOf(url);
+        if (host == null || host.equals(hostOf(PeriplusUrls.baseUrl()))) {
+            return false;
+        }
+        for (String allowed : allowedHosts) {
+            if (host.equals(allowed) || host.endsWith("." + allowed)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String hostOf(String url) {
+        if (url == null || !url.startsWith("http")) {
+            return null;
+        }
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? null : host.toLowerCase(Locale.ROOT);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .map(entry -> entry.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+    }
+}
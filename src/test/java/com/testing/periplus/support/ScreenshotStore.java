@@ -0,0 +1,197 @@
+package com.testing.periplus.support;
+
+import org.apache.commons.io.FileUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes failure screenshots off the test thread. Raw PNG bytes are hashed,
+ * identical screenshots are stored once under their content hash, images are
+ * re-encoded as JPEG unless "screenshots.format" is png, and the oldest images
+ * are evicted once the directory exceeds "screenshots.maxMB". Every capture is
+ * listed in index.csv with its test, so deduplicated failures stay traceable.
+ */
+public class ScreenshotStore {
+    private static final Logger logger = Logger.getLogger(ScreenshotStore.class.getName());
+    private static final String INDEX = "index.csv";
+
+    private final File directory;
+    private final String format;
+    private final float jpegQuality;
+    private final long budgetBytes;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong storedBytes = new AtomicLong(-1);
+    private final AtomicInteger rejected = new AtomicInteger();
+    private final AtomicInteger duplicates = new AtomicInteger();
+
+    public ScreenshotStore(File directory, String format, float jpegQuality, long budgetBytes, int threads, int queueSize) {
+        this.directory = directory;
+        this.format = format;
+        this.jpegQuality = jpegQuality;
+        this.budgetBytes = budgetBytes;
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "screenshot-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, pool) -> rejected.incrementAndGet());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static ScreenshotStore fromConfig() {
+        return new ScreenshotStore(new File(HarnessConfig.get("screenshots.dir", "screenshots")),
+                HarnessConfig.get("screenshots.format", "jpg"),
+                HarnessConfig.getInt("screenshots.jpegQuality", 80) / 100f,
+                HarnessConfig.getInt("screenshots.maxMB", 200) * 1024L * 1024L,
+                HarnessConfig.getInt("screenshots.threads", 1),
+                HarnessConfig.getInt("screenshots.queue", 16));
+    }
+
+    /**
+     * Queues the screenshot for writing and returns at once. When the queue is
+     * full, the screenshot is dropped rather than holding up the test.
+     */
+    public void submit(String testName, byte[] png) {
+        Instant capturedAt = Instant.now();
+        executor.execute(() -> store(testName, png, capturedAt));
+    }
+
+    /**
+     * Waits for the queued screenshots to be written.
+     * @return False when the timeout elapsed first.
+     */
+    public boolean awaitPending(long timeout, TimeUnit unit) throws InterruptedException {
+        executor.shutdown();
+        boolean finished = executor.awaitTermination(timeout, unit);
+        if (duplicates.get() > 0 || rejected.get() > 0) {
+            logger.info("Screenshots: " + duplicates.get() + " duplicate(s) stored once, "
+                    + rejected.get() + " dropped because the write queue was full.");
+        }
+        return finished;
+    }
+
+    private void store(String testName, byte[] png, Instant capturedAt) {
+        try {
+            String hash = sha256(png);
+            String extension = format.equalsIgnoreCase("png") ? "png" : "jpg";
+            File file = new File(directory, hash.substring(0, 16) + "." + extension);
+            if (file.exists()) {
+                duplicates.incrementAndGet();
+                // Keep shared images from being evicted ahead of newer ones
+                file.setLastModified(System.currentTimeMillis());
+            } else {
+                byte[] encoded = extension.equals("png") ? png : toJpeg(png);
+                FileUtils.writeByteArrayToFile(file, encoded);
+                addStoredBytes(encoded.length);
+                logger.info("Failure screenshot for " + testName + " saved to " + file.getPath());
+            }
+            appendIndex(capturedAt, testName, file);
+            evictOverBudget(file);
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.WARNING, "Failed to store screenshot for " + testName + ": " + e.getMessage(), e);
+        }
+    }
+
+    private byte[] toJpeg(byte[] png) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+        if (source == null) {
+            return png;
+        }
+        // JPEG has no alpha channel
+        BufferedImage rgb = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_RGB);
+        rgb.createGraphics().drawImage(source, 0, 0, null);
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(png.length / 4);
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private synchronized void appendIndex(Instant capturedAt, String testName, File file) throws IOException {
+        File index = new File(directory, INDEX);
+        String line = capturedAt + "," + testName.replace(',', ';') + "," + file.getName() + System.lineSeparator();
+        if (!index.exists()) {
+            line = "timestamp,test,file" + System.lineSeparator() + line;
+        }
+        FileUtils.writeStringToFile(index, line, StandardCharsets.UTF_8, true);
+    }
+
+    private void addStoredBytes(long bytes) {
+        if (storedBytes.get() < 0) {
+            storedBytes.compareAndSet(-1, images().stream().mapToLong(File::length).sum() - bytes);
+        }
+        storedBytes.addAndGet(bytes);
+    }
+
+    private synchronized void evictOverBudget(File keep) {
+        if (storedBytes.get() <= budgetBytes) {
+            return;
+        }
+        List<File> images = images();
+        images.sort(Comparator.comparingLong(File::lastModified));
+        long total = images.stream().mapToLong(File::length).sum();
+        for (File image : images) {
+            if (total <= budgetBytes) {
+                break;
+            }
+            if (!image.equals(keep)) {
+                long length = image.length();
+                if (FileUtils.deleteQuietly(image)) {
+                    total -= length;
+                    logger.fine("Evicted old screenshot " + image.getName());
+                }
+            }
+        }
+        storedBytes.set(total);
+    }
+
+    private List<File> images() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".png") || name.endsWith(".jpg"));
+        return files == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(files));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.testing.periplus.support;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures how long the test JVM takes to get going: from JVM start to the
+ * suite start and to the first test method, with the number of classes
+ * loaded by then. Each JVM appends one row to "startup.report" (default
+ * target/startup.csv), labelled with "startup.label" (default suite), the
+ * way the driver binary was found and whether an AppCDS archive was given.
+ */
+public class StartupProbe implements ISuiteListener, ITestListener {
+    private static final Logger logger = Logger.getLogger(StartupProbe.class.getName());
+    static final String HEADER = "timestamp,label,driver,appcds,jvm_to_suite_ms,jvm_to_first_test_ms,loaded_classes";
+
+    private static final AtomicBoolean recorded = new AtomicBoolean();
+    private static volatile long suiteStartMillis = -1;
+
+    @Override
+    public void onStart(ISuite suite) {
+        if (suiteStartMillis < 0) {
+            suiteStartMillis = sinceJvmStart();
+        }
+    }
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        if (!recorded.compareAndSet(false, true)) {
+            return;
+        }
+        long firstTestMillis = sinceJvmStart();
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        boolean appCds = runtime.getInputArguments().stream().anyMatch(argument -> argument.startsWith("-XX:SharedArchiveFile="));
+        String row = String.join(",", Instant.now().toString(), HarnessConfig.get("startup.label", "suite"),
+                BrowserFactory.driverSource(), Boolean.toString(appCds), Long.toString(suiteStartMillis),
+                Long.toString(firstTestMillis), Long.toString(ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount()));
+        Path report = Paths.get(HarnessConfig.get("startup.report", "target/startup.csv"));
+        try {
+            Files.createDirectories(report.toAbsolutePath().getParent());
+            if (!Files.exists(report)) {
+                Files.write(report, List.of(HEADER), StandardCharsets.UTF_8);
+            }
+            Files.write(report, List.of(row), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write startup report: " + e.getMessage(), e);
+        }
+        logger.info("First test started " + firstTestMillis + " ms after JVM start (suite after " + suiteStartMillis + " ms).");
+    }
+
+    private static long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
@@ -0,0 +1,98 @@
+package com.testing.periplus.support;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ISuiteResult;
+import org.testng.ITestContext;
+import org.testng.ITestResult;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Records the wall-clock time of each suite run together with its parallel
+ * mode and thread count in target/suite-timing.csv, then logs how the latest
+ * run of every thread count compares with the latest serial run.
+ */
+public class SuiteTimingReporter implements ISuiteListener {
+    private static final Logger logger = Logger.getLogger(SuiteTimingReporter.class.getName());
+    private static final Path REPORT = Paths.get("target", "suite-timing.csv");
+    private static final String HEADER = "timestamp,suite,mode,threads,tests,wall_ms,busy_ms";
+
+    private long startNanos;
+
+    @Override
+    public void onStart(ISuite suite) {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        long wallMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        int tests = 0;
+        long busyMillis = 0;
+        for (ISuiteResult result : suite.getResults().values()) {
+            ITestContext context = result.getTestContext();
+            for (Set<ITestResult> results : List.of(context.getPassedTests().getAllResults(),
+                    context.getFailedTests().getAllResults(), context.getSkippedTests().getAllResults())) {
+                for (ITestResult testResult : results) {
+                    tests++;
+                    busyMillis += testResult.getEndMillis() - testResult.getStartMillis();
+                }
+            }
+        }
+
+        String mode = suite.getXmlSuite().getParallel().toString();
+        int threads = suite.getXmlSuite().getThreadCount();
+        String row = String.join(",", Instant.now().toString(), suite.getName(), mode,
+                Integer.toString(threads), Integer.toString(tests), Long.toString(wallMillis), Long.toString(busyMillis));
+        try {
+            Files.createDirectories(REPORT.getParent());
+            if (!Files.exists(REPORT)) {
+                Files.write(REPORT, List.of(HEADER), StandardCharsets.UTF_8);
+            }
+            Files.write(REPORT, List.of(row), StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            logScaling(suite.getName());
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write suite timing report: " + e.getMessage(), e);
+        }
+    }
+
+    private void logScaling(String suiteName) throws IOException {
+        Map<Integer, Long> latestWallByThreads = new LinkedHashMap<>();
+        Long serialWall = null;
+        for (String line : Files.readAllLines(REPORT, StandardCharsets.UTF_8)) {
+            String[] columns = line.split(",");
+            if (line.equals(HEADER) || columns.length < 7 || !columns[1].equals(suiteName)) {
+                continue;
+            }
+            int threads = Integer.parseInt(columns[3]);
+            long wall = Long.parseLong(columns[5]);
+            if (columns[2].equals("none") || threads == 1) {
+                serialWall = wall;
+                threads = 1;
+            }
+            latestWallByThreads.put(threads, wall);
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-8s %10s %8s", "threads", "wall_ms", "speedup"));
+        for (Map.Entry<Integer, Long> entry : latestWallByThreads.entrySet()) {
+            String speedup = serialWall == null ? "n/a" : String.format("%.2fx", (double) serialWall / entry.getValue());
+            lines.add(String.format("%-8d %10d %8s", entry.getKey(), entry.getValue(), speedup));
+        }
+        logger.info("Suite time by thread count (" + REPORT + "):\n" + String.join("\n", lines));
+    }
+}
@@ -0,0 +1,36 @@
+package com.testing.periplus.support;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Base of unit tests that work on files: every test method gets a fresh
+ * temporary directory, deleted with its contents afterwards.
+ */
+public abstract class TemporaryDirectoryTest {
+    protected Path directory;
+
+    @BeforeMethod
+    public void createTemporaryDirectory() throws IOException {
+        directory = Files.createTempDirectory(getClass().getSimpleName());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteTemporaryDirectory() throws IOException {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(path);
+            }
+        }
+        directory = null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.testing.periplus.support;
+
+/**
+ * Credentials of a Periplus account used by the tests.
+ */
+public class TestAccount {
+    private final String email;
+    private final String password;
+
+    public TestAccount(String email, String password) {
+        this.email = email;
+        this.password = password;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+}
@@ -0,0 +1,59 @@
+package com.testing.periplus.support;
+
+import io.github.cdimascio.dotenv.Dotenv;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Hands out test accounts per thread. The cart lives on the server side of an
+ * account, so parallel workers need their own accounts to avoid clearing each
+ * other's carts. Accounts are read from .env as TEST_EMAIL/TEST_PASSWORD plus
+ * optional TEST_EMAIL_2/TEST_PASSWORD_2, TEST_EMAIL_3/TEST_PASSWORD_3, ...
+ * Assignment starts at "accounts.offset" (default 0), so concurrent JVMs
+ * can be given disjoint accounts.
+ */
+public final class TestAccounts {
+    private static final Logger logger = Logger.getLogger(TestAccounts.class.getName());
+
+    private static final List<TestAccount> accounts = load();
+    private static final AtomicInteger nextIndex = new AtomicInteger();
+    private static final ThreadLocal<TestAccount> assigned = ThreadLocal.withInitial(TestAccounts::assign);
+
+    private TestAccounts() {
+    }
+
+    /**
+     * Returns the account assigned to the calling thread.
+     */
+    public static TestAccount current() {
+        return assigned.get();
+    }
+
+    public static List<TestAccount> all() {
+        return accounts;
+    }
+
+    private static TestAccount assign() {
+        int index = nextIndex.getAndIncrement();
+        int slot = HarnessConfig.getInt("accounts.offset", 0) + index;
+        if (slot == accounts.size()) {
+            logger.warning("More test threads than accounts in .env; threads " + (index + 1)
+                    + " and up share accounts and may see each other's cart.");
+        }
+        return accounts.get(slot % accounts.size());
+    }
+
+    private static List<TestAccount> load() {
+        Dotenv dotenv = Dotenv.configure().ignoreIfMissing().load();
+        List<TestAccount> loaded = new ArrayList<>();
+        loaded.add(new TestAccount(dotenv.get("TEST_EMAIL"), dotenv.get("TEST_PASSWORD")));
+        for (int i = 2; dotenv.get("TEST_EMAIL_" + i) != null; i++) {
+            loaded.add(new TestAccount(dotenv.get("TEST_EMAIL_" + i), dotenv.get("TEST_PASSWORD_" + i)));
+        }
+        return Collections.unmodifiableList(loaded);
+    }
+}
@@ -0,0 +1,158 @@
+package com.testing.periplus.support;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Persisted per-test timing history: for every test method and every
+ * configuration method (keyed "Class#method"), an exponential moving average
+ * of its time per suite run and its most recent outcomes. Several JVMs may
+ * save into the same file; each merges its own updates into what is on disk
+ * under a file lock.
+ */
+public class TimingHistory {
+    private static final Logger logger = Logger.getLogger(TimingHistory.class.getName());
+    private static final String HEADER = "# key\tavg_ms\truns\toutcomes";
+    private static final double SMOOTHING = 0.3;
+    private static final int KEPT_OUTCOMES = 8;
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> updated = new ConcurrentHashMap<>();
+
+    public TimingHistory(Path file) {
+        this.file = file;
+        try {
+            entries.putAll(read(file));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to read timing history " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the average time per suite run in milliseconds, or -1 when the key has no history.
+     */
+    public double averageMillis(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? -1 : entry.averageMillis;
+    }
+
+    /**
+     * Whether the key failed in any of its last given number of runs.
+     */
+    public boolean failedRecently(String key, int runs) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        String recent = entry.outcomes.substring(Math.max(0, entry.outcomes.length() - runs));
+        return recent.indexOf('F') >= 0;
+    }
+
+    /**
+     * Returns the averages of all keys with history, e.g. for a default estimate.
+     */
+    public List<Double> averages() {
+        List<Double> averages = new ArrayList<>();
+        entries.values().forEach(entry -> averages.add(entry.averageMillis));
+        return averages;
+    }
+
+    /**
+     * Folds one suite run's total time and outcome of a key into its history.
+     */
+    public void record(String key, long millis, boolean passed) {
+        Entry previous = entries.get(key);
+        Entry next = previous == null
+                ? new Entry(millis, 1, passed ? "P" : "F")
+                : previous.next(millis, passed);
+        entries.put(key, next);
+        updated.put(key, next);
+    }
+
+    /**
+     * Writes the keys recorded in this JVM, merged into the current file.
+     */
+    public void save() {
+        if (updated.isEmpty()) {
+            return;
+        }
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path lockFile = directory.resolve(file.getFileName() + ".lock");
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Map<String, Entry> merged = new TreeMap<>(read(file));
+                merged.putAll(updated);
+                List<String> lines = new ArrayList<>();
+                lines.add(HEADER);
+                merged.forEach((key, entry) -> lines.add(String.join("\t", key,
+                        String.format(Locale.ROOT, "%.1f", entry.averageMillis),
+                        Integer.toString(entry.runs), entry.outcomes)));
+                Path temporary = Files.createTempFile(directory, "timings", ".tmp");
+                Files.write(temporary, lines, StandardCharsets.UTF_8);
+                try {
+                    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            updated.clear();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write timing history " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, Entry> read(Path file) throws IOException {
+        Map<String, Entry> read = new TreeMap<>();
+        if (!Files.exists(file)) {
+            return read;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] fields = line.split("\t");
+            if (line.startsWith("#") || fields.length != 4) {
+                continue;
+            }
+            try {
+                read.put(fields[0], new Entry(Double.parseDouble(fields[1]), Integer.parseInt(fields[2]), fields[3]));
+            } catch (NumberFormatException e) {
+                logger.fine("Skipping malformed timing history line: " + line);
+            }
+        }
+        return read;
+    }
+
+    private static final class Entry {
+        private final double averageMillis;
+        private final int runs;
+        private final String outcomes;
+
+        Entry(double averageMillis, int runs, String outcomes) {
+            this.averageMillis = averageMillis;
+            this.runs = runs;
+            this.outcomes = outcomes;
+        }
+
+        Entry next(long millis, boolean passed) {
+            String appended = outcomes + (passed ? "P" : "F");
+            return new Entry(averageMillis + SMOOTHING * (millis - averageMillis), runs + 1,
+                    appended.substring(Math.max(0, appended.length() - KEPT_OUTCOMES)));
+        }
+    }
+}
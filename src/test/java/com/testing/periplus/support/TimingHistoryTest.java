@@ -0,0 +1,108 @@
+package com.testing.periplus.support;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class TimingHistoryTest extends TemporaryDirectoryTest {
+    private Path file;
+
+    @BeforeMethod
+    public void resolveFile() {
+        file = directory.resolve("test-timings.tsv");
+    }
+
+    @Test
+    public void unknownKeysHaveNoHistory() {
+        TimingHistory history = new TimingHistory(file);
+        Assert.assertEquals(history.averageMillis("A#a"), -1.0);
+        Assert.assertFalse(history.failedRecently("A#a", 3));
+        Assert.assertTrue(history.averages().isEmpty());
+    }
+
+    @Test
+    public void averagesAreExponentiallySmoothed() {
+        TimingHistory history = new TimingHistory(file);
+        history.record("A#a", 1000, true);
+        Assert.assertEquals(history.averageMillis("A#a"), 1000.0);
+        history.record("A#a", 2000, true);
+        Assert.assertEquals(history.averageMillis("A#a"), 1300.0, 0.001);
+        history.record("A#a", 300, true);
+        Assert.assertEquals(history.averageMillis("A#a"), 1000.0, 0.001);
+    }
+
+    @Test
+    public void failuresAgeOutOfTheRecentWindow() {
+        TimingHistory history = new TimingHistory(file);
+        history.record("A#a", 100, false);
+        history.record("A#a", 100, true);
+        history.record("A#a", 100, true);
+        Assert.assertTrue(history.failedRecently("A#a", 3));
+        Assert.assertFalse(history.failedRecently("A#a", 2));
+        history.record("A#a", 100, true);
+        Assert.assertFalse(history.failedRecently("A#a", 3));
+        Assert.assertTrue(history.failedRecently("A#a", 10));
+    }
+
+    @Test
+    public void savedHistoryIsReadBack() {
+        TimingHistory history = new TimingHistory(file);
+        history.record("A#a", 1000, true);
+        history.record("A#a", 2000, false);
+        history.record("B#b", 50, true);
+        history.save();
+
+        TimingHistory read = new TimingHistory(file);
+        Assert.assertEquals(read.averageMillis("A#a"), 1300.0, 0.001);
+        Assert.assertTrue(read.failedRecently("A#a", 1));
+        Assert.assertEquals(read.averageMillis("B#b"), 50.0, 0.001);
+        Assert.assertEquals(read.averages().size(), 2);
+    }
+
+    @Test
+    public void onlyTheLastEightOutcomesAreKept() throws IOException {
+        TimingHistory history = new TimingHistory(file);
+        history.record("A#a", 100, false);
+        for (int i = 0; i < 8; i++) {
+            history.record("A#a", 100, true);
+        }
+        history.save();
+
+        Assert.assertTrue(Files.readAllLines(file, StandardCharsets.UTF_8).contains("A#a\t100.0\t9\tPPPPPPPP"));
+        Assert.assertFalse(new TimingHistory(file).failedRecently("A#a", 100));
+    }
+
+    @Test
+    public void savesOfSeveralJvmsAreMerged() {
+        TimingHistory first = new TimingHistory(file);
+        TimingHistory second = new TimingHistory(file);
+        first.record("A#a", 1000, true);
+        second.record("B#b", 2000, true);
+        first.save();
+        second.save();
+
+        TimingHistory read = new TimingHistory(file);
+        Assert.assertEquals(read.averageMillis("A#a"), 1000.0, 0.001);
+        Assert.assertEquals(read.averageMillis("B#b"), 2000.0, 0.001);
+    }
+
+    @Test
+    public void malformedLinesAreSkipped() throws IOException {
+        Files.write(file, List.of("# key\tavg_ms\truns\toutcomes", "A#a\t1000.0\t2\tPP", "B#b\tslow\t2\tPP", "C#c\t5.0",
+                "", "D#d\t10.0\t1\tF"), StandardCharsets.UTF_8);
+
+        TimingHistory history = new TimingHistory(file);
+
+        Assert.assertEquals(history.averageMillis("A#a"), 1000.0, 0.001);
+        Assert.assertEquals(history.averageMillis("B#b"), -1.0);
+        Assert.assertEquals(history.averageMillis("C#c"), -1.0);
+        Assert.assertTrue(history.failedRecently("D#d", 1));
+        Assert.assertEquals(history.averages().size(), 2);
+    }
+}
@@ -0,0 +1,15 @@
+package com.testing.periplus.support;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Writes the per-page network traffic report when the suite finishes.
+ */
+public class TrafficReporter implements ISuiteListener {
+
+    @Override
+    public void onFinish(ISuite suite) {
+        NetworkTraffic.writeReport(BrowserProfile.current());
+    }
+}
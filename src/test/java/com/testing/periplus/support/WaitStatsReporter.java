@@ -0,0 +1,53 @@
+package com.testing.periplus.support;
+
+import com.periplus.support.WaitStatistics;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the wait-time statistics of the page objects' event-driven waits to
+ * target/wait-stats.csv when the suite finishes, one row per page-object
+ * method and condition.
+ */
+public class WaitStatsReporter implements ISuiteListener {
+    private static final Logger logger = Logger.getLogger(WaitStatsReporter.class.getName());
+    private static final Path REPORT = Paths.get("target", "wait-stats.csv");
+
+    @Override
+    public void onStart(ISuite suite) {
+        WaitStatistics.reset();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Map<String, WaitStatistics.Entry> statistics = WaitStatistics.snapshot();
+        List<String> lines = new ArrayList<>();
+        lines.add("method,condition,count,avg_ms,max_ms,timeouts");
+        for (Map.Entry<String, WaitStatistics.Entry> entry : statistics.entrySet()) {
+            WaitStatistics.Entry stats = entry.getValue();
+            int separator = entry.getKey().lastIndexOf(':');
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.1f,%d", entry.getKey().substring(0, separator),
+                    entry.getKey().substring(separator + 1), stats.getCount(),
+                    stats.getAverageMillis(), stats.getMaxMillis(), stats.getTimeouts()));
+        }
+        try {
+            Files.createDirectories(REPORT.getParent());
+            Files.write(REPORT, lines, StandardCharsets.UTF_8);
+            logger.info("Wait statistics (" + REPORT + "):\n" + String.join("\n", lines));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to write wait statistics: " + e.getMessage(), e);
+        }
+    }
+}